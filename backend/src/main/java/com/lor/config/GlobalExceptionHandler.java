@@ -1,9 +1,12 @@
 package com.lor.config;
 
+import com.lor.dto.ErrorResponse;
+import com.lor.service.ConflictException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.validation.FieldError;
@@ -27,8 +30,7 @@ public class GlobalExceptionHandler {
      * Handle validation errors
      */
     @ExceptionHandler(MethodArgumentNotValidException.class)
-    public ResponseEntity<Map<String, Object>> handleValidationExceptions(MethodArgumentNotValidException ex) {
-        Map<String, Object> response = new HashMap<>();
+    public ResponseEntity<ErrorResponse> handleValidationExceptions(MethodArgumentNotValidException ex) {
         Map<String, String> errors = new HashMap<>();
         
         ex.getBindingResult().getAllErrors().forEach((error) -> {
@@ -37,11 +39,9 @@ public class GlobalExceptionHandler {
             errors.put(fieldName, errorMessage);
         });
         
-        response.put("error", "Validation failed");
-        response.put("message", "Please check the input fields");
-        response.put("fieldErrors", errors);
-        response.put("timestamp", LocalDateTime.now());
-        
+        ErrorResponse response = new ErrorResponse("Validation failed", "Please check the input fields",
+                LocalDateTime.now(), errors);
+
         logger.warn("Validation error: {}", errors);
         
         return ResponseEntity.badRequest().body(response);
@@ -51,11 +51,8 @@ public class GlobalExceptionHandler {
      * Handle authentication errors
      */
     @ExceptionHandler(BadCredentialsException.class)
-    public ResponseEntity<Map<String, Object>> handleBadCredentials(BadCredentialsException ex) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("error", "Authentication failed");
-        response.put("message", "Invalid username or password");
-        response.put("timestamp", LocalDateTime.now());
+    public ResponseEntity<ErrorResponse> handleBadCredentials(BadCredentialsException ex) {
+        ErrorResponse response = ErrorResponse.now("Authentication failed", "Invalid username or password");
         
         logger.warn("Authentication failed: {}", ex.getMessage());
         
@@ -66,26 +63,35 @@ public class GlobalExceptionHandler {
      * Handle access denied errors
      */
     @ExceptionHandler(AccessDeniedException.class)
-    public ResponseEntity<Map<String, Object>> handleAccessDenied(AccessDeniedException ex) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("error", "Access denied");
-        response.put("message", "You don't have permission to access this resource");
-        response.put("timestamp", LocalDateTime.now());
+    public ResponseEntity<ErrorResponse> handleAccessDenied(AccessDeniedException ex) {
+        ErrorResponse response = ErrorResponse.now("Access denied",
+                "You don't have permission to access this resource");
         
         logger.warn("Access denied: {}", ex.getMessage());
         
         return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
     }
 
+    /**
+     * Handle lost races on concurrent state changes
+     */
+    @ExceptionHandler({ConflictException.class, ObjectOptimisticLockingFailureException.class})
+    public ResponseEntity<ErrorResponse> handleConflict(RuntimeException ex) {
+        ErrorResponse response = ErrorResponse.now("Conflict", ex instanceof ConflictException
+                ? ex.getMessage()
+                : "The record was changed by someone else, please reload and try again");
+
+        logger.warn("Conflict: {}", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+    }
+
     /**
      * Handle runtime exceptions
      */
     @ExceptionHandler(RuntimeException.class)
-    public ResponseEntity<Map<String, Object>> handleRuntimeException(RuntimeException ex) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("error", "Operation failed");
-        response.put("message", ex.getMessage());
-        response.put("timestamp", LocalDateTime.now());
+    public ResponseEntity<ErrorResponse> handleRuntimeException(RuntimeException ex) {
+        ErrorResponse response = ErrorResponse.now("Operation failed", ex.getMessage());
         
         logger.error("Runtime exception: {}", ex.getMessage(), ex);
         
@@ -96,11 +102,8 @@ public class GlobalExceptionHandler {
      * Handle illegal argument exceptions
      */
     @ExceptionHandler(IllegalArgumentException.class)
-    public ResponseEntity<Map<String, Object>> handleIllegalArgument(IllegalArgumentException ex) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("error", "Invalid argument");
-        response.put("message", ex.getMessage());
-        response.put("timestamp", LocalDateTime.now());
+    public ResponseEntity<ErrorResponse> handleIllegalArgument(IllegalArgumentException ex) {
+        ErrorResponse response = ErrorResponse.now("Invalid argument", ex.getMessage());
         
         logger.warn("Illegal argument: {}", ex.getMessage());
         
@@ -111,11 +114,9 @@ public class GlobalExceptionHandler {
      * Handle all other exceptions
      */
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<Map<String, Object>> handleGenericException(Exception ex) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("error", "Internal server error");
-        response.put("message", "An unexpected error occurred. Please try again later.");
-        response.put("timestamp", LocalDateTime.now());
+    public ResponseEntity<ErrorResponse> handleGenericException(Exception ex) {
+        ErrorResponse response = ErrorResponse.now("Internal server error",
+                "An unexpected error occurred. Please try again later.");
         
         logger.error("Unexpected error: {}", ex.getMessage(), ex);
         
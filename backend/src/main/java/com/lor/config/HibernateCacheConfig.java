@@ -0,0 +1,82 @@
+package com.lor.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.lor.entity.AdminProfessor;
+import com.lor.entity.AdminStudent;
+import com.lor.entity.User;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.OptionalLong;
+
+/**
+ * Configuration for the Hibernate second-level cache.
+ *
+ * Regions live in an in-process Caffeine cache manager exposed through JCache.
+ * Sizes and expiry come from the cache.hibernate properties, with per-region
+ * overrides under cache.hibernate.regions.&lt;alias&gt;.
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    private static final String QUERY_RESULTS_REGION = "default-query-results-region";
+    private static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    @Value("${cache.hibernate.max-size:10000}")
+    private long defaultMaxSize;
+
+    @Value("${cache.hibernate.expire-after-write:30m}")
+    private Duration defaultExpireAfterWrite;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(Environment environment) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager();
+
+        Map<String, String> regions = new LinkedHashMap<>();
+        regions.put(User.class.getName(), "users");
+        regions.put(AdminStudent.class.getName(), "admin-students");
+        regions.put(AdminProfessor.class.getName(), "admin-professors");
+        regions.put(QUERY_RESULTS_REGION, "query-results");
+
+        regions.forEach((region, alias) -> {
+            long maxSize = environment.getProperty(
+                    "cache.hibernate.regions." + alias + ".max-size", Long.class, defaultMaxSize);
+            Duration expireAfterWrite = environment.getProperty(
+                    "cache.hibernate.regions." + alias + ".expire-after-write", Duration.class, defaultExpireAfterWrite);
+            cacheManager.createCache(region, regionConfiguration(maxSize, expireAfterWrite));
+        });
+
+        // Update timestamps must outlive every cached query result, so never evict them
+        cacheManager.createCache(UPDATE_TIMESTAMPS_REGION, regionConfiguration(null, null));
+
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    private CaffeineConfiguration<Object, Object> regionConfiguration(Long maxSize, Duration expireAfterWrite) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setStatisticsEnabled(true);
+        if (maxSize != null) {
+            configuration.setMaximumSize(OptionalLong.of(maxSize));
+        }
+        if (expireAfterWrite != null) {
+            configuration.setExpireAfterWrite(OptionalLong.of(expireAfterWrite.toNanos()));
+        }
+        return configuration;
+    }
+}
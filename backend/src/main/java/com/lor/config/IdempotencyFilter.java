@@ -0,0 +1,208 @@
+package com.lor.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lor.dto.ErrorResponse;
+import com.lor.service.IdempotencyService;
+import com.lor.service.IdempotencyService.Decision;
+import com.lor.service.IdempotencyService.StoredResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Idempotency-Key support for non-repeatable endpoints.
+ *
+ * When a request to one of the configured endpoints carries an Idempotency-Key
+ * header, the first execution's response is stored and later requests with the
+ * same key from the same user replay it without running the handler again.
+ * Runs after the security filter chain, so keys are scoped to the authenticated user.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${idempotency.endpoints:POST /lor-requests,PUT /lor-requests/*/approve,PUT /lor-requests/*/reject,"
+            + "POST /lor-requests/*/generate-pdf,POST /pdf/generate/*}")
+    private List<String> endpoints;
+
+    @Value("${idempotency.max-body-bytes:262144}")
+    private int maxBodyBytes;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (request.getHeader(HEADER) == null) {
+            return true;
+        }
+        String endpoint = request.getMethod() + " " + request.getRequestURI().substring(request.getContextPath().length());
+        return endpoints.stream().noneMatch(pattern -> pathMatcher.match(pattern, endpoint));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String clientKey = request.getHeader(HEADER);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (clientKey.isBlank() || clientKey.length() > MAX_KEY_LENGTH
+                || authentication == null || !authentication.isAuthenticated()) {
+            // Invalid keys and unauthenticated requests are left to the normal handling
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        byte[] body = StreamUtils.copyToByteArray(request.getInputStream());
+        String key = sha256(authentication.getName() + "\n" + clientKey);
+        String requestHash = sha256(request.getMethod() + " " + request.getRequestURI() + "\n"
+                + new String(body, StandardCharsets.UTF_8));
+
+        Decision decision = idempotencyService.begin(key, requestHash);
+        switch (decision.type()) {
+            case REPLAY -> replay(decision.response(), response);
+            case MISMATCH -> error(response, HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Idempotency-Key was already used for a different request");
+            case IN_PROGRESS -> error(response, HttpStatus.CONFLICT,
+                    "A request with this Idempotency-Key is still being processed");
+            case EXECUTE -> execute(new CachedBodyRequest(request, body), response, filterChain, key, requestHash);
+        }
+    }
+
+    private void execute(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain,
+                         String key, String requestHash) throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        boolean stored = false;
+        try {
+            filterChain.doFilter(request, wrapper);
+
+            // Server errors and oversized bodies are not stored, so a retry runs again
+            byte[] responseBody = wrapper.getContentAsByteArray();
+            if (wrapper.getStatus() < 500 && responseBody.length <= maxBodyBytes) {
+                idempotencyService.complete(key,
+                        new StoredResponse(requestHash, wrapper.getStatus(), wrapper.getContentType(), responseBody));
+                stored = true;
+            }
+        } finally {
+            if (!stored) {
+                idempotencyService.release(key);
+            }
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    private void replay(StoredResponse stored, HttpServletResponse response) throws IOException {
+        response.setStatus(stored.statusCode());
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    private void error(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), ErrorResponse.now(status.getReasonPhrase(), message));
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Request whose body was read up front for hashing and is replayed to the handler
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    // The whole body is already in memory, so it is all available at once
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return input.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
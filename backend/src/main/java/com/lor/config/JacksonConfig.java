@@ -0,0 +1,22 @@
+package com.lor.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration for JSON serialization.
+ *
+ * Spring Boot registers Module beans with its ObjectMapper. Blackbird replaces
+ * reflective getter and record accessor calls with generated lambdas, so the
+ * typed response records serialize without reflection per property.
+ */
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
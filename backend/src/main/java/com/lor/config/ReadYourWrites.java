@@ -0,0 +1,94 @@
+package com.lor.config;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Read-your-writes state of the current request, carried by the client.
+ *
+ * When a transaction that wrote rows commits, the commit time goes back to the
+ * client in the Last-Write-At response header, and the client sends the latest
+ * value it received with every request. Any instance can then keep that
+ * client's reads on the primary for the sticky window without sharing state
+ * with the instance that served the write. Timestamps come from the servers'
+ * clocks; a forged one can only move reads to the primary.
+ */
+public final class ReadYourWrites {
+
+    public static final String HEADER = "Last-Write-At";
+
+    private static final ThreadLocal<State> CURRENT = new ThreadLocal<>();
+
+    private ReadYourWrites() {}
+
+    /**
+     * Start tracking a request; lastWrite is the client's timestamp in epoch millis, or 0
+     */
+    static void begin(long lastWrite, HttpServletResponse response) {
+        CURRENT.set(new State(lastWrite, response));
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Whether the current client wrote within the window
+     */
+    static boolean isRecent(Duration window) {
+        State state = CURRENT.get();
+        if (state == null || state.lastWrite == 0) {
+            return false;
+        }
+        long age = System.currentTimeMillis() - state.lastWrite;
+        return Math.abs(age) < window.toMillis();
+    }
+
+    /**
+     * Note that the current transaction sent a write statement; the client is
+     * told once the transaction commits
+     */
+    static void writeFlushed() {
+        State state = CURRENT.get();
+        if (state == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            state.recordWrite();
+            return;
+        }
+        boolean registered = TransactionSynchronizationManager.getSynchronizations().stream()
+                .anyMatch(synchronization -> synchronization instanceof RecordOnCommit);
+        if (!registered) {
+            TransactionSynchronizationManager.registerSynchronization(new RecordOnCommit(state));
+        }
+    }
+
+    private record RecordOnCommit(State state) implements TransactionSynchronization {
+
+        @Override
+        public void afterCommit() {
+            state.recordWrite();
+        }
+    }
+
+    private static final class State {
+
+        private final HttpServletResponse response;
+        private long lastWrite;
+
+        State(long lastWrite, HttpServletResponse response) {
+            this.lastWrite = lastWrite;
+            this.response = response;
+        }
+
+        void recordWrite() {
+            lastWrite = System.currentTimeMillis();
+            // Ignored once the response is committed, as for a streamed download
+            response.setHeader(HEADER, Long.toString(lastWrite));
+        }
+    }
+}
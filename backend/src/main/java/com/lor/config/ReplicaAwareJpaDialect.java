@@ -0,0 +1,53 @@
+package com.lor.config;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+
+import java.sql.SQLException;
+
+/**
+ * Hibernate dialect that stops read-only transactions from populating the
+ * second-level cache.
+ *
+ * A read-only transaction may be served by a replica that has not yet applied
+ * a recent write; caching what it loaded would keep that stale row in the
+ * shared cache long after the replica caught up. Such transactions still read
+ * from the cache, and write transactions keep filling it as before.
+ */
+class ReplicaAwareJpaDialect extends HibernateJpaDialect {
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+            throws PersistenceException, SQLException, TransactionException {
+        if (!definition.isReadOnly()) {
+            return super.beginTransaction(entityManager, definition);
+        }
+        Session session = entityManager.unwrap(Session.class);
+        CacheMode previousCacheMode = session.getCacheMode();
+        session.setCacheMode(CacheMode.GET);
+        try {
+            return new ReadOnlyTransactionData(super.beginTransaction(entityManager, definition), session,
+                    previousCacheMode);
+        } catch (RuntimeException | SQLException e) {
+            session.setCacheMode(previousCacheMode);
+            throw e;
+        }
+    }
+
+    @Override
+    public void cleanupTransaction(Object transactionData) {
+        if (transactionData instanceof ReadOnlyTransactionData readOnly) {
+            readOnly.session().setCacheMode(readOnly.previousCacheMode());
+            super.cleanupTransaction(readOnly.delegate());
+        } else {
+            super.cleanupTransaction(transactionData);
+        }
+    }
+
+    private record ReadOnlyTransactionData(Object delegate, Session session, CacheMode previousCacheMode) {}
+}
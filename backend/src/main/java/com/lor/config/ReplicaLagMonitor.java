@@ -0,0 +1,103 @@
+package com.lor.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * Tracks whether the read replica is reachable and close enough to the primary
+ * to serve reads.
+ *
+ * Replication lag is read from SHOW REPLICA STATUS (SHOW SLAVE STATUS before
+ * MySQL 8.0.22), which needs the REPLICATION CLIENT privilege. A replica whose
+ * SQL thread is stopped reports no lag and counts as unavailable. An empty
+ * status means the endpoint is not a classic replica (for example a managed
+ * reader endpoint) and is trusted.
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private static final long STOPPED = Long.MAX_VALUE;
+
+    private final DataSource replicaDataSource;
+    private final Duration maxLag;
+
+    private volatile boolean available;
+
+    public ReplicaLagMonitor(DataSource replicaDataSource, Duration maxLag) {
+        this.replicaDataSource = replicaDataSource;
+        this.maxLag = maxLag;
+    }
+
+    /**
+     * Whether reads may currently go to the replica
+     */
+    public boolean isAvailable() {
+        return available;
+    }
+
+    /**
+     * Take the replica out of rotation until the next successful check
+     */
+    public void markUnavailable(SQLException cause) {
+        if (available) {
+            logger.warn("Read replica unavailable, routing reads to the primary: {}", cause.getMessage());
+        }
+        available = false;
+    }
+
+    /**
+     * Measure replication lag and update availability
+     */
+    @Scheduled(fixedDelayString = "${replica.lag-check-interval:PT5S}")
+    public void check() {
+        Long lagSeconds;
+        try (Connection connection = replicaDataSource.getConnection()) {
+            lagSeconds = readLagSeconds(connection);
+        } catch (SQLException e) {
+            markUnavailable(e);
+            return;
+        }
+
+        boolean nowAvailable = lagSeconds == null || lagSeconds <= maxLag.toSeconds();
+        if (nowAvailable && !available) {
+            logger.info("Read replica available, routing read-only transactions to it");
+        } else if (!nowAvailable && available) {
+            logger.warn("Read replica {}, routing reads to the primary",
+                    lagSeconds == STOPPED ? "stopped replicating" : "lag " + lagSeconds + "s exceeds " + maxLag.toSeconds() + "s");
+        }
+        available = nowAvailable;
+    }
+
+    /**
+     * Read the lag in seconds, STOPPED when replication is not running, or null
+     * when the endpoint reports no replication status
+     */
+    private Long readLagSeconds(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            try (ResultSet status = statement.executeQuery("SHOW REPLICA STATUS")) {
+                return lagFrom(status, "Seconds_Behind_Source");
+            } catch (SQLException e) {
+                try (ResultSet status = statement.executeQuery("SHOW SLAVE STATUS")) {
+                    return lagFrom(status, "Seconds_Behind_Master");
+                }
+            }
+        }
+    }
+
+    private Long lagFrom(ResultSet status, String column) throws SQLException {
+        if (!status.next()) {
+            return null;
+        }
+        long lag = status.getLong(column);
+        return status.wasNull() ? STOPPED : lag;
+    }
+}
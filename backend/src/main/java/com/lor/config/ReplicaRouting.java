@@ -0,0 +1,48 @@
+package com.lor.config;
+
+import java.util.function.Supplier;
+
+/**
+ * Per-thread override for the replica routing DataSource.
+ *
+ * Code that must see the latest committed data even from a read-only
+ * transaction (cache reloads after a write, idempotency lookups) runs inside
+ * onPrimary(). Only connections obtained inside the call are affected, so it
+ * must wrap the transaction rather than run inside one. Without a replica
+ * configured it has no effect.
+ */
+public final class ReplicaRouting {
+
+    private static final ThreadLocal<Boolean> PRIMARY_FORCED = new ThreadLocal<>();
+
+    private ReplicaRouting() {}
+
+    /**
+     * Run the action with every connection taken from the primary
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+        Boolean previous = PRIMARY_FORCED.get();
+        PRIMARY_FORCED.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                PRIMARY_FORCED.remove();
+            }
+        }
+    }
+
+    /**
+     * Run the action with every connection taken from the primary
+     */
+    public static void onPrimary(Runnable action) {
+        onPrimary(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    static boolean isPrimaryForced() {
+        return PRIMARY_FORCED.get() != null;
+    }
+}
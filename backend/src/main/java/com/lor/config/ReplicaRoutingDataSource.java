@@ -0,0 +1,61 @@
+package com.lor.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * DataSource that sends read-only transactions to the replica and everything
+ * else to the primary.
+ *
+ * A read goes to the primary instead when the replica is lagging or down, when
+ * the caller forced it with ReplicaRouting.onPrimary(), or when the client's
+ * Last-Write-At header shows it committed a write within the sticky window, so
+ * users always see their own changes whichever instance serves them. Must be
+ * wrapped in a LazyConnectionDataSourceProxy so the physical connection is
+ * chosen after the transaction's read-only flag is set.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Route { PRIMARY, REPLICA }
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final Duration stickyWindow;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor,
+                                    Duration stickyWindow) {
+        this.lagMonitor = lagMonitor;
+        this.stickyWindow = stickyWindow;
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return Route.PRIMARY;
+        }
+        if (ReplicaRouting.isPrimaryForced() || !lagMonitor.isAvailable() || ReadYourWrites.isRecent(stickyWindow)) {
+            return Route.PRIMARY;
+        }
+        return Route.REPLICA;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Object route = determineCurrentLookupKey();
+        if (route == Route.REPLICA) {
+            try {
+                return getResolvedDataSources().get(Route.REPLICA).getConnection();
+            } catch (SQLException e) {
+                lagMonitor.markUnavailable(e);
+            }
+        }
+        return getResolvedDataSources().get(Route.PRIMARY).getConnection();
+    }
+}
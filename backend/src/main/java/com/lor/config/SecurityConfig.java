@@ -2,6 +2,7 @@ package com.lor.config;
 
 import com.lor.security.JwtAuthenticationFilter;
 import com.lor.service.UserDetailsServiceImpl;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -75,6 +76,9 @@ public class SecurityConfig {
             .csrf(AbstractHttpConfigurer::disable)
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(authz -> authz
+                // Async dispatches (streamed exports) complete a request that was already authorized
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                 // Public endpoints
                 .requestMatchers("/auth/**").permitAll()
                 .requestMatchers("/public/**").permitAll()
@@ -97,7 +101,8 @@ public class SecurityConfig {
                 // LOR request endpoints
                 .requestMatchers("/lor-requests/**").authenticated()
 
-                // PDF endpoints
+                // PDF endpoints; signed download links carry their own authorization
+                .requestMatchers("/pdf/signed/**").permitAll()
                 .requestMatchers("/pdf/**").authenticated()
                 
                 // All other requests need authentication
@@ -137,7 +142,10 @@ public class SecurityConfig {
             "Authorization", 
             "Content-Type", 
             "X-Total-Count",
-            "Content-Disposition"
+            "Content-Disposition",
+            "ETag",
+            "Idempotent-Replayed",
+            "Last-Write-At"
         ));
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
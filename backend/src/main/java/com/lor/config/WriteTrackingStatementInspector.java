@@ -0,0 +1,34 @@
+package com.lor.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.Locale;
+
+/**
+ * Tells ReadYourWrites when Hibernate sends a statement that changes rows, so
+ * only transactions that actually flushed a write make the client's reads
+ * sticky to the primary
+ */
+class WriteTrackingStatementInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        if (isWrite(sql)) {
+            ReadYourWrites.writeFlushed();
+        }
+        return sql;
+    }
+
+    private static boolean isWrite(String sql) {
+        String statement = sql.stripLeading();
+        // Skip a leading comment added by hibernate.use_sql_comments
+        if (statement.startsWith("/*")) {
+            int end = statement.indexOf("*/");
+            statement = end < 0 ? "" : statement.substring(end + 2).stripLeading();
+        }
+        int length = Math.min(statement.length(), 7);
+        String keyword = statement.substring(0, length).toLowerCase(Locale.ROOT);
+        return keyword.startsWith("insert") || keyword.startsWith("update") || keyword.startsWith("delete")
+                || keyword.startsWith("replace") || keyword.startsWith("merge");
+    }
+}
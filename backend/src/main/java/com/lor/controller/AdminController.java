@@ -1,11 +1,16 @@
 package com.lor.controller;
 
+import com.lor.dto.*;
 import com.lor.entity.*;
+import com.lor.service.AdminListService;
 import com.lor.service.AdminService;
+import com.lor.service.ExportService;
+import com.lor.service.ReferenceDataCache;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -13,10 +18,10 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.HashMap;
+import java.time.LocalDate;
 import java.util.List;
-import java.util.Map;
 
 /**
  * REST controller for admin operations
@@ -32,22 +37,25 @@ public class AdminController {
     @Autowired
     private AdminService adminService;
 
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private AdminListService adminListService;
+
     /**
      * Get dashboard statistics
      */
     @GetMapping("/dashboard")
     public ResponseEntity<?> getDashboardStatistics() {
         try {
-            Map<String, Object> statistics = adminService.getDashboardStatistics();
+            DashboardStatisticsResponse statistics = adminService.getDashboardStatistics();
             return ResponseEntity.ok(statistics);
         } catch (Exception e) {
             logger.error("Failed to get dashboard statistics: {}", e.getMessage());
             
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Failed to get dashboard statistics");
-            error.put("message", e.getMessage());
-            
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest()
+                    .body(ErrorResponse.of("Failed to get dashboard statistics", e.getMessage()));
         }
     }
 
@@ -57,24 +65,8 @@ public class AdminController {
      * Get all admin students
      */
     @GetMapping("/students")
-    public ResponseEntity<?> getAllAdminStudents() {
-        try {
-            List<AdminStudent> students = adminService.getAllAdminStudents();
-            
-            Map<String, Object> response = new HashMap<>();
-            response.put("students", students);
-            response.put("count", students.size());
-            
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            logger.error("Failed to get admin students: {}", e.getMessage());
-            
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Failed to get admin students");
-            error.put("message", e.getMessage());
-            
-            return ResponseEntity.badRequest().body(error);
-        }
+    public ResponseEntity<StreamingResponseBody> getAllAdminStudents() {
+        return jsonList(adminListService::writeAdminStudents);
     }
 
     /**
@@ -85,20 +77,12 @@ public class AdminController {
         try {
             AdminStudent savedStudent = adminService.addAdminStudent(adminStudent);
             
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("message", "Admin student added successfully");
-            response.put("student", savedStudent);
-            
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(new AdminStudentSavedResponse(true, "Admin student added successfully",
+                    AdminStudentResponse.from(savedStudent)));
         } catch (Exception e) {
             logger.error("Failed to add admin student: {}", e.getMessage());
             
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Failed to add admin student");
-            error.put("message", e.getMessage());
-            
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(ErrorResponse.of("Failed to add admin student", e.getMessage()));
         }
     }
 
@@ -111,20 +95,12 @@ public class AdminController {
         try {
             AdminStudent updatedStudent = adminService.updateAdminStudent(id, adminStudent);
             
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("message", "Admin student updated successfully");
-            response.put("student", updatedStudent);
-            
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(new AdminStudentSavedResponse(true, "Admin student updated successfully",
+                    AdminStudentResponse.from(updatedStudent)));
         } catch (Exception e) {
             logger.error("Failed to update admin student {}: {}", id, e.getMessage());
             
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Failed to update admin student");
-            error.put("message", e.getMessage());
-            
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(ErrorResponse.of("Failed to update admin student", e.getMessage()));
         }
     }
 
@@ -136,19 +112,11 @@ public class AdminController {
         try {
             adminService.deleteAdminStudent(id);
             
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("message", "Admin student deleted successfully");
-            
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(new MessageResponse(true, "Admin student deleted successfully"));
         } catch (Exception e) {
             logger.error("Failed to delete admin student {}: {}", id, e.getMessage());
             
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Failed to delete admin student");
-            error.put("message", e.getMessage());
-            
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(ErrorResponse.of("Failed to delete admin student", e.getMessage()));
         }
     }
 
@@ -158,24 +126,8 @@ public class AdminController {
      * Get all admin professors
      */
     @GetMapping("/professors")
-    public ResponseEntity<?> getAllAdminProfessors() {
-        try {
-            List<AdminProfessor> professors = adminService.getAllAdminProfessors();
-            
-            Map<String, Object> response = new HashMap<>();
-            response.put("professors", professors);
-            response.put("count", professors.size());
-            
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            logger.error("Failed to get admin professors: {}", e.getMessage());
-            
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Failed to get admin professors");
-            error.put("message", e.getMessage());
-            
-            return ResponseEntity.badRequest().body(error);
-        }
+    public ResponseEntity<StreamingResponseBody> getAllAdminProfessors() {
+        return jsonList(adminListService::writeAdminProfessors);
     }
 
     /**
@@ -186,20 +138,12 @@ public class AdminController {
         try {
             AdminProfessor savedProfessor = adminService.addAdminProfessor(adminProfessor);
             
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("message", "Admin professor added successfully");
-            response.put("professor", savedProfessor);
-            
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(new AdminProfessorSavedResponse(true, "Admin professor added successfully",
+                    AdminProfessorResponse.from(savedProfessor)));
         } catch (Exception e) {
             logger.error("Failed to add admin professor: {}", e.getMessage());
             
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Failed to add admin professor");
-            error.put("message", e.getMessage());
-            
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(ErrorResponse.of("Failed to add admin professor", e.getMessage()));
         }
     }
 
@@ -212,20 +156,13 @@ public class AdminController {
         try {
             AdminProfessor updatedProfessor = adminService.updateAdminProfessor(id, adminProfessor);
             
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("message", "Admin professor updated successfully");
-            response.put("professor", updatedProfessor);
-            
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(new AdminProfessorSavedResponse(true, "Admin professor updated successfully",
+                    AdminProfessorResponse.from(updatedProfessor)));
         } catch (Exception e) {
             logger.error("Failed to update admin professor {}: {}", id, e.getMessage());
             
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Failed to update admin professor");
-            error.put("message", e.getMessage());
-            
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest()
+                    .body(ErrorResponse.of("Failed to update admin professor", e.getMessage()));
         }
     }
 
@@ -237,19 +174,12 @@ public class AdminController {
         try {
             adminService.deleteAdminProfessor(id);
             
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("message", "Admin professor deleted successfully");
-            
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(new MessageResponse(true, "Admin professor deleted successfully"));
         } catch (Exception e) {
             logger.error("Failed to delete admin professor {}: {}", id, e.getMessage());
             
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Failed to delete admin professor");
-            error.put("message", e.getMessage());
-            
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest()
+                    .body(ErrorResponse.of("Failed to delete admin professor", e.getMessage()));
         }
     }
 
@@ -259,24 +189,8 @@ public class AdminController {
      * Get all registered users
      */
     @GetMapping("/users")
-    public ResponseEntity<?> getAllUsers() {
-        try {
-            List<User> users = adminService.getAllUsers();
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("users", users);
-            response.put("count", users.size());
-
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            logger.error("Failed to get all users: {}", e.getMessage());
-
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Failed to get all users");
-            error.put("message", e.getMessage());
-
-            return ResponseEntity.badRequest().body(error);
-        }
+    public ResponseEntity<StreamingResponseBody> getAllUsers() {
+        return jsonList(adminListService::writeUsers);
     }
 
     /**
@@ -297,20 +211,13 @@ public class AdminController {
                     prof.getName(), prof.getId(), prof.getIsActive(), prof.getEmail(), prof.getUserId());
             }
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("professors", professors);
-            response.put("count", professors.size());
-            response.put("debug", "Check server logs for detailed professor information");
-
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(new DebugProfessorsResponse(
+                    professors.stream().map(UserResponse::from).toList(), professors.size(),
+                    "Check server logs for detailed professor information"));
         } catch (Exception e) {
             logger.error("Failed to debug professors: {}", e.getMessage());
 
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Failed to debug professors");
-            error.put("message", e.getMessage());
-
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(ErrorResponse.of("Failed to debug professors", e.getMessage()));
         }
     }
 
@@ -319,25 +226,15 @@ public class AdminController {
      */
     @GetMapping("/users/{role}")
     public ResponseEntity<?> getUsersByRole(@PathVariable String role) {
+        Role userRole;
         try {
-            Role userRole = Role.valueOf(role.toUpperCase());
-            List<User> users = adminService.getUsersByRole(userRole);
-            
-            Map<String, Object> response = new HashMap<>();
-            response.put("users", users);
-            response.put("role", role);
-            response.put("count", users.size());
-            
-            return ResponseEntity.ok(response);
+            userRole = Role.valueOf(role.toUpperCase());
         } catch (Exception e) {
             logger.error("Failed to get users by role {}: {}", role, e.getMessage());
             
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Failed to get users by role");
-            error.put("message", e.getMessage());
-            
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(ErrorResponse.of("Failed to get users by role", e.getMessage()));
         }
+        return jsonList(out -> adminListService.writeUsersByRole(userRole, role, out));
     }
 
     /**
@@ -348,21 +245,12 @@ public class AdminController {
         try {
             User updatedUser = adminService.toggleUserStatus(userId);
             
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("message", "User status updated successfully");
-            response.put("user", updatedUser);
-            response.put("isActive", updatedUser.getIsActive());
-            
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(new UserStatusResponse(true, "User status updated successfully",
+                    UserResponse.from(updatedUser), updatedUser.getIsActive()));
         } catch (Exception e) {
             logger.error("Failed to toggle user status {}: {}", userId, e.getMessage());
             
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Failed to toggle user status");
-            error.put("message", e.getMessage());
-            
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(ErrorResponse.of("Failed to toggle user status", e.getMessage()));
         }
     }
 
@@ -372,21 +260,16 @@ public class AdminController {
     @GetMapping("/departments")
     public ResponseEntity<?> getAllDepartments() {
         try {
-            List<String> departments = adminService.getAllDepartments();
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("departments", departments);
-            response.put("count", departments.size());
+            ReferenceDataCache.Snapshot<String> departments = adminService.getAllDepartments();
 
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noCache())
+                    .eTag(departments.eTag())
+                    .body(DepartmentListResponse.of(departments.items()));
         } catch (Exception e) {
             logger.error("Failed to get departments: {}", e.getMessage());
 
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Failed to get departments");
-            error.put("message", e.getMessage());
-
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(ErrorResponse.of("Failed to get departments", e.getMessage()));
         }
     }
 
@@ -430,27 +313,73 @@ public class AdminController {
         }
     }
 
+    // ===== CSV EXPORTS =====
+
+    /**
+     * Export the admin student roster as a streamed CSV file
+     */
+    @GetMapping("/export/students")
+    public ResponseEntity<StreamingResponseBody> exportAdminStudents() {
+        return csvExport("students", exportService::exportAdminStudents);
+    }
+
+    /**
+     * Export the admin professor roster as a streamed CSV file
+     */
+    @GetMapping("/export/professors")
+    public ResponseEntity<StreamingResponseBody> exportAdminProfessors() {
+        return csvExport("professors", exportService::exportAdminProfessors);
+    }
+
+    /**
+     * Export all registered users as a streamed CSV file
+     */
+    @GetMapping("/export/users")
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        return csvExport("users", exportService::exportUsers);
+    }
+
+    /**
+     * Export all LOR requests as a streamed CSV file
+     */
+    @GetMapping("/export/lor-requests")
+    public ResponseEntity<StreamingResponseBody> exportLorRequests() {
+        return csvExport("lor_requests", exportService::exportLorRequests);
+    }
+
+    private ResponseEntity<StreamingResponseBody> csvExport(String name, StreamingResponseBody body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("text/csv; charset=UTF-8"));
+        headers.setContentDispositionFormData("attachment", name + "_" + LocalDate.now() + ".csv");
+        // No Content-Length, so the servlet container sends the rows with chunked encoding
+        return ResponseEntity.ok()
+                .headers(headers)
+                .cacheControl(CacheControl.noStore())
+                .body(body);
+    }
+
+    private ResponseEntity<StreamingResponseBody> jsonList(StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
     /**
      * Bulk import students from CSV file
      */
     @PostMapping("/students/bulk-import")
-    public ResponseEntity<Map<String, Object>> bulkImportStudents(@RequestParam("file") MultipartFile file) {
+    public ResponseEntity<?> bulkImportStudents(@RequestParam("file") MultipartFile file) {
         try {
             if (file.isEmpty()) {
-                Map<String, Object> errorResponse = new HashMap<>();
-                errorResponse.put("success", false);
-                errorResponse.put("message", "File is empty");
-                return ResponseEntity.badRequest().body(errorResponse);
+                return ResponseEntity.badRequest().body(new MessageResponse(false, "File is empty"));
             }
 
-            Map<String, Object> result = adminService.bulkImportStudents(file);
+            BulkImportResponse result = adminService.bulkImportStudents(file);
             return ResponseEntity.ok(result);
         } catch (Exception e) {
             logger.error("Failed to bulk import students: {}", e.getMessage());
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("success", false);
-            errorResponse.put("message", "Failed to import students: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new MessageResponse(false, "Failed to import students: " + e.getMessage()));
         }
     }
 
@@ -458,23 +387,18 @@ public class AdminController {
      * Bulk import professors from CSV file
      */
     @PostMapping("/professors/bulk-import")
-    public ResponseEntity<Map<String, Object>> bulkImportProfessors(@RequestParam("file") MultipartFile file) {
+    public ResponseEntity<?> bulkImportProfessors(@RequestParam("file") MultipartFile file) {
         try {
             if (file.isEmpty()) {
-                Map<String, Object> errorResponse = new HashMap<>();
-                errorResponse.put("success", false);
-                errorResponse.put("message", "File is empty");
-                return ResponseEntity.badRequest().body(errorResponse);
+                return ResponseEntity.badRequest().body(new MessageResponse(false, "File is empty"));
             }
 
-            Map<String, Object> result = adminService.bulkImportProfessors(file);
+            BulkImportResponse result = adminService.bulkImportProfessors(file);
             return ResponseEntity.ok(result);
         } catch (Exception e) {
             logger.error("Failed to bulk import professors: {}", e.getMessage());
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("success", false);
-            errorResponse.put("message", "Failed to import professors: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new MessageResponse(false, "Failed to import professors: " + e.getMessage()));
         }
     }
 
@@ -484,20 +408,18 @@ public class AdminController {
      * Search admin students with filters
      */
     @GetMapping("/students/search")
-    public ResponseEntity<Map<String, Object>> searchAdminStudents(
+    public ResponseEntity<?> searchAdminStudents(
             @RequestParam(value = "q", required = false) String searchTerm,
             @RequestParam(value = "course", required = false) String course,
             @RequestParam(value = "page", defaultValue = "0") int page,
             @RequestParam(value = "size", defaultValue = "10") int size) {
         try {
-            Map<String, Object> result = adminService.searchAdminStudents(searchTerm, course, page, size);
+            AdminStudentPageResponse result = adminService.searchAdminStudents(searchTerm, course, page, size);
             return ResponseEntity.ok(result);
         } catch (Exception e) {
             logger.error("Failed to search admin students: {}", e.getMessage());
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("success", false);
-            errorResponse.put("message", "Failed to search students: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new MessageResponse(false, "Failed to search students: " + e.getMessage()));
         }
     }
 
@@ -505,20 +427,18 @@ public class AdminController {
      * Search admin professors with filters
      */
     @GetMapping("/professors/search")
-    public ResponseEntity<Map<String, Object>> searchAdminProfessors(
+    public ResponseEntity<?> searchAdminProfessors(
             @RequestParam(value = "q", required = false) String searchTerm,
             @RequestParam(value = "department", required = false) String department,
             @RequestParam(value = "page", defaultValue = "0") int page,
             @RequestParam(value = "size", defaultValue = "10") int size) {
         try {
-            Map<String, Object> result = adminService.searchAdminProfessors(searchTerm, department, page, size);
+            AdminProfessorPageResponse result = adminService.searchAdminProfessors(searchTerm, department, page, size);
             return ResponseEntity.ok(result);
         } catch (Exception e) {
             logger.error("Failed to search admin professors: {}", e.getMessage());
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("success", false);
-            errorResponse.put("message", "Failed to search professors: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new MessageResponse(false, "Failed to search professors: " + e.getMessage()));
         }
     }
 
@@ -526,19 +446,17 @@ public class AdminController {
      * Get all unique courses from admin students
      */
     @GetMapping("/students/courses")
-    public ResponseEntity<Map<String, Object>> getAllCourses() {
+    public ResponseEntity<?> getAllCourses() {
         try {
-            List<String> courses = adminService.getAllCourses();
-            Map<String, Object> response = new HashMap<>();
-            response.put("courses", courses);
-            response.put("count", courses.size());
-            return ResponseEntity.ok(response);
+            ReferenceDataCache.Snapshot<String> courses = adminService.getAllCourses();
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noCache())
+                    .eTag(courses.eTag())
+                    .body(CourseListResponse.of(courses.items()));
         } catch (Exception e) {
             logger.error("Failed to get courses: {}", e.getMessage());
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("success", false);
-            errorResponse.put("message", "Failed to get courses: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new MessageResponse(false, "Failed to get courses: " + e.getMessage()));
         }
     }
 }
@@ -9,8 +9,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.time.LocalDateTime;
 
 /**
  * REST controller for authentication operations
@@ -42,11 +41,7 @@ public class AuthController {
         } catch (Exception e) {
             logger.error("Login failed for user: {} - {}", loginRequest.getUsername(), e.getMessage());
             
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Authentication failed");
-            error.put("message", e.getMessage());
-            
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(ErrorResponse.of("Authentication failed", e.getMessage()));
         }
     }
 
@@ -67,11 +62,7 @@ public class AuthController {
             logger.error("Student registration failed for: {} - {}", 
                     signUpRequest.getName(), e.getMessage());
             
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Registration failed");
-            error.put("message", e.getMessage());
-            
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(ErrorResponse.of("Registration failed", e.getMessage()));
         }
     }
 
@@ -92,11 +83,7 @@ public class AuthController {
             logger.error("Professor registration failed for: {} - {}", 
                     signUpRequest.getName(), e.getMessage());
             
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Registration failed");
-            error.put("message", e.getMessage());
-            
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(ErrorResponse.of("Registration failed", e.getMessage()));
         }
     }
 
@@ -107,20 +94,13 @@ public class AuthController {
     public ResponseEntity<?> checkEmailAvailability(@RequestParam String email) {
         try {
             boolean isAvailable = authService.isEmailAvailable(email);
-            
-            Map<String, Object> response = new HashMap<>();
-            response.put("available", isAvailable);
-            response.put("email", email);
-            
-            return ResponseEntity.ok(response);
+
+            return ResponseEntity.ok(AvailabilityResponse.ofEmail(isAvailable, email));
         } catch (Exception e) {
             logger.error("Error checking email availability: {}", e.getMessage());
             
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Failed to check email availability");
-            error.put("message", e.getMessage());
-            
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest()
+                    .body(ErrorResponse.of("Failed to check email availability", e.getMessage()));
         }
     }
 
@@ -131,20 +111,13 @@ public class AuthController {
     public ResponseEntity<?> checkExaminationNumberAvailability(@RequestParam String examinationNumber) {
         try {
             boolean isAvailable = authService.isExaminationNumberAvailable(examinationNumber);
-            
-            Map<String, Object> response = new HashMap<>();
-            response.put("available", isAvailable);
-            response.put("examinationNumber", examinationNumber);
-            
-            return ResponseEntity.ok(response);
+
+            return ResponseEntity.ok(AvailabilityResponse.ofExaminationNumber(isAvailable, examinationNumber));
         } catch (Exception e) {
             logger.error("Error checking examination number availability: {}", e.getMessage());
             
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Failed to check examination number availability");
-            error.put("message", e.getMessage());
-            
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest()
+                    .body(ErrorResponse.of("Failed to check examination number availability", e.getMessage()));
         }
     }
 
@@ -155,20 +128,13 @@ public class AuthController {
     public ResponseEntity<?> checkUserIdAvailability(@RequestParam String userId) {
         try {
             boolean isAvailable = authService.isUserIdAvailable(userId);
-            
-            Map<String, Object> response = new HashMap<>();
-            response.put("available", isAvailable);
-            response.put("userId", userId);
-            
-            return ResponseEntity.ok(response);
+
+            return ResponseEntity.ok(AvailabilityResponse.ofUserId(isAvailable, userId));
         } catch (Exception e) {
             logger.error("Error checking user ID availability: {}", e.getMessage());
             
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Failed to check user ID availability");
-            error.put("message", e.getMessage());
-            
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest()
+                    .body(ErrorResponse.of("Failed to check user ID availability", e.getMessage()));
         }
     }
 
@@ -177,11 +143,7 @@ public class AuthController {
      */
     @GetMapping("/health")
     public ResponseEntity<?> healthCheck() {
-        Map<String, String> response = new HashMap<>();
-        response.put("status", "OK");
-        response.put("service", "LOR Management Authentication Service");
-        response.put("timestamp", java.time.LocalDateTime.now().toString());
-        
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(new StatusResponse("OK", "LOR Management Authentication Service",
+                LocalDateTime.now().toString()));
     }
 }
@@ -1,18 +1,31 @@
 package com.lor.controller;
 
+import com.lor.dto.ErrorResponse;
 import com.lor.dto.LorRequestDto;
 import com.lor.dto.LorPreviewDto;
-import com.lor.entity.User;
+import com.lor.dto.LorRequestChangesDto;
+import com.lor.dto.LorRequestListResponse;
+import com.lor.dto.MessageResponse;
+import com.lor.dto.PdfReferenceResponse;
+import com.lor.dto.ProfessorListResponse;
+import com.lor.dto.ProfessorSummaryDto;
+import com.lor.service.ConflictException;
+import com.lor.service.LorRequestEventStream;
 import com.lor.service.LorRequestService;
+import com.lor.service.ReferenceDataCache;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -29,6 +42,9 @@ public class LorRequestController {
     @Autowired
     private LorRequestService lorRequestService;
 
+    @Autowired
+    private LorRequestEventStream lorRequestEventStream;
+
     /**
      * Create a new LOR request (Student only)
      */
@@ -42,39 +58,31 @@ public class LorRequestController {
             
             logger.info("LOR request created successfully with ID: {}", createdRequest.getId());
             return ResponseEntity.ok(createdRequest);
+        } catch (ConflictException | ObjectOptimisticLockingFailureException e) {
+            // Answered with 409 Conflict by GlobalExceptionHandler
+            throw e;
         } catch (Exception e) {
             logger.error("Failed to create LOR request: {}", e.getMessage());
             
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Failed to create LOR request");
-            error.put("message", e.getMessage());
-            
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(ErrorResponse.of("Failed to create LOR request", e.getMessage()));
         }
     }
 
     /**
-     * Get all LOR requests for current student
+     * Get LOR requests for current student (current years; includeArchived adds closed years)
      */
     @GetMapping("/student")
     @PreAuthorize("hasRole('STUDENT')")
-    public ResponseEntity<?> getStudentRequests() {
+    public ResponseEntity<?> getStudentRequests(
+            @RequestParam(value = "includeArchived", defaultValue = "false") boolean includeArchived) {
         try {
-            List<LorRequestDto> requests = lorRequestService.getStudentRequests();
-            
-            Map<String, Object> response = new HashMap<>();
-            response.put("requests", requests);
-            response.put("count", requests.size());
-            
-            return ResponseEntity.ok(response);
+            List<LorRequestDto> requests = lorRequestService.getStudentRequests(includeArchived);
+
+            return ResponseEntity.ok(LorRequestListResponse.of(requests));
         } catch (Exception e) {
             logger.error("Failed to get student requests: {}", e.getMessage());
             
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Failed to get student requests");
-            error.put("message", e.getMessage());
-            
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(ErrorResponse.of("Failed to get student requests", e.getMessage()));
         }
     }
 
@@ -86,45 +94,32 @@ public class LorRequestController {
     public ResponseEntity<?> getApprovedRequestsForStudent() {
         try {
             List<LorRequestDto> requests = lorRequestService.getApprovedRequestsForStudent();
-            
-            Map<String, Object> response = new HashMap<>();
-            response.put("requests", requests);
-            response.put("count", requests.size());
-            
-            return ResponseEntity.ok(response);
+
+            return ResponseEntity.ok(LorRequestListResponse.of(requests));
         } catch (Exception e) {
             logger.error("Failed to get approved requests: {}", e.getMessage());
             
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Failed to get approved requests");
-            error.put("message", e.getMessage());
-            
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest()
+                    .body(ErrorResponse.of("Failed to get approved requests", e.getMessage()));
         }
     }
 
     /**
-     * Get all LOR requests for current professor
+     * Get LOR requests for current professor (current years; includeArchived adds closed years)
      */
     @GetMapping("/professor")
     @PreAuthorize("hasRole('PROFESSOR')")
-    public ResponseEntity<?> getProfessorRequests() {
+    public ResponseEntity<?> getProfessorRequests(
+            @RequestParam(value = "includeArchived", defaultValue = "false") boolean includeArchived) {
         try {
-            List<LorRequestDto> requests = lorRequestService.getProfessorRequests();
-            
-            Map<String, Object> response = new HashMap<>();
-            response.put("requests", requests);
-            response.put("count", requests.size());
-            
-            return ResponseEntity.ok(response);
+            List<LorRequestDto> requests = lorRequestService.getProfessorRequests(includeArchived);
+
+            return ResponseEntity.ok(LorRequestListResponse.of(requests));
         } catch (Exception e) {
             logger.error("Failed to get professor requests: {}", e.getMessage());
             
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Failed to get professor requests");
-            error.put("message", e.getMessage());
-            
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest()
+                    .body(ErrorResponse.of("Failed to get professor requests", e.getMessage()));
         }
     }
 
@@ -136,20 +131,12 @@ public class LorRequestController {
     public ResponseEntity<?> getPendingRequestsForProfessor() {
         try {
             List<LorRequestDto> requests = lorRequestService.getPendingRequestsForProfessor();
-            
-            Map<String, Object> response = new HashMap<>();
-            response.put("requests", requests);
-            response.put("count", requests.size());
-            
-            return ResponseEntity.ok(response);
+
+            return ResponseEntity.ok(LorRequestListResponse.of(requests));
         } catch (Exception e) {
             logger.error("Failed to get pending requests: {}", e.getMessage());
             
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Failed to get pending requests");
-            error.put("message", e.getMessage());
-            
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(ErrorResponse.of("Failed to get pending requests", e.getMessage()));
         }
     }
 
@@ -169,14 +156,13 @@ public class LorRequestController {
             
             logger.info("LOR request approved successfully: {}", requestId);
             return ResponseEntity.ok(approvedRequest);
+        } catch (ConflictException | ObjectOptimisticLockingFailureException e) {
+            // Answered with 409 Conflict by GlobalExceptionHandler
+            throw e;
         } catch (Exception e) {
             logger.error("Failed to approve LOR request {}: {}", requestId, e.getMessage());
             
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Failed to approve LOR request");
-            error.put("message", e.getMessage());
-            
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(ErrorResponse.of("Failed to approve LOR request", e.getMessage()));
         }
     }
 
@@ -196,17 +182,43 @@ public class LorRequestController {
             
             logger.info("LOR request rejected successfully: {}", requestId);
             return ResponseEntity.ok(rejectedRequest);
+        } catch (ConflictException | ObjectOptimisticLockingFailureException e) {
+            // Answered with 409 Conflict by GlobalExceptionHandler
+            throw e;
         } catch (Exception e) {
             logger.error("Failed to reject LOR request {}: {}", requestId, e.getMessage());
             
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Failed to reject LOR request");
-            error.put("message", e.getMessage());
-            
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(ErrorResponse.of("Failed to reject LOR request", e.getMessage()));
         }
     }
 
+    /**
+     * Get the current user's requests changed since a watermark (delta sync)
+     */
+    @GetMapping("/changes")
+    @PreAuthorize("hasRole('STUDENT') or hasRole('PROFESSOR')")
+    public ResponseEntity<?> getRequestChanges(@RequestParam(value = "since", required = false) String since) {
+        try {
+            LorRequestChangesDto changes = lorRequestService.getRequestChanges(since);
+            return ResponseEntity.ok(changes);
+        } catch (Exception e) {
+            logger.error("Failed to get request changes: {}", e.getMessage());
+
+            return ResponseEntity.badRequest().body(ErrorResponse.of("Failed to get request changes", e.getMessage()));
+        }
+    }
+
+    /**
+     * Stream changes to the current user's requests as Server-Sent Events.
+     * Reconnecting clients send Last-Event-ID (or lastEventId) to receive missed events.
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('STUDENT') or hasRole('PROFESSOR')")
+    public SseEmitter streamEvents(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventIdHeader,
+                                   @RequestParam(value = "lastEventId", required = false) Long lastEventIdParam) {
+        return lorRequestEventStream.subscribe(lastEventIdHeader != null ? lastEventIdHeader : lastEventIdParam);
+    }
+
     /**
      * Get LOR request by ID
      */
@@ -219,11 +231,7 @@ public class LorRequestController {
         } catch (Exception e) {
             logger.error("Failed to get LOR request {}: {}", requestId, e.getMessage());
             
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Failed to get LOR request");
-            error.put("message", e.getMessage());
-            
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(ErrorResponse.of("Failed to get LOR request", e.getMessage()));
         }
     }
 
@@ -234,21 +242,18 @@ public class LorRequestController {
     @PreAuthorize("hasRole('STUDENT')")
     public ResponseEntity<?> getActiveProfessors() {
         try {
-            List<User> professors = lorRequestService.getActiveProfessors();
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("professors", professors);
-            response.put("count", professors.size());
+            ReferenceDataCache.Snapshot<ProfessorSummaryDto> professors = lorRequestService.getActiveProfessors();
 
-            return ResponseEntity.ok(response);
+            // A matching If-None-Match header turns this into a 304 without a body
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noCache())
+                    .eTag(professors.eTag())
+                    .body(ProfessorListResponse.of(professors.items()));
         } catch (Exception e) {
             logger.error("Failed to get active professors: {}", e.getMessage());
 
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Failed to get active professors");
-            error.put("message", e.getMessage());
-
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest()
+                    .body(ErrorResponse.of("Failed to get active professors", e.getMessage()));
         }
     }
 
@@ -268,11 +273,29 @@ public class LorRequestController {
         } catch (Exception e) {
             logger.error("Failed to get LOR preview for request {}: {}", requestId, e.getMessage());
 
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Failed to get LOR preview");
-            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(ErrorResponse.of("Failed to get LOR preview", e.getMessage()));
+        }
+    }
 
-            return ResponseEntity.badRequest().body(error);
+    /**
+     * Render the edited preview as a PDF for viewing (Professor only)
+     */
+    @PostMapping("/{requestId}/preview/pdf")
+    @PreAuthorize("hasRole('PROFESSOR')")
+    public ResponseEntity<?> renderPreviewPdf(@PathVariable Long requestId,
+                                              @Valid @RequestBody LorPreviewDto previewDto) {
+        try {
+            byte[] pdf = lorRequestService.renderPreviewPdf(requestId, previewDto);
+
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_PDF)
+                    .cacheControl(CacheControl.noStore())
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"preview.pdf\"")
+                    .body(pdf);
+        } catch (Exception e) {
+            logger.error("Failed to render preview PDF for request {}: {}", requestId, e.getMessage());
+
+            return ResponseEntity.badRequest().body(ErrorResponse.of("Failed to render preview PDF", e.getMessage()));
         }
     }
 
@@ -288,20 +311,14 @@ public class LorRequestController {
 
             String referenceNumber = lorRequestService.generatePdfWithCustomContent(requestId, previewDto);
 
-            Map<String, String> response = new HashMap<>();
-            response.put("message", "PDF generated successfully");
-            response.put("referenceNumber", referenceNumber);
+            PdfReferenceResponse response = new PdfReferenceResponse("PDF generated successfully", referenceNumber);
 
             logger.info("PDF generated successfully for request ID: {} with reference: {}", requestId, referenceNumber);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             logger.error("Failed to generate PDF for request {}: {}", requestId, e.getMessage());
 
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Failed to generate PDF");
-            error.put("message", e.getMessage());
-
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(ErrorResponse.of("Failed to generate PDF", e.getMessage()));
         }
     }
 
@@ -317,11 +334,8 @@ public class LorRequestController {
         } catch (Exception e) {
             logger.error("Failed to get request statistics: {}", e.getMessage());
 
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Failed to get request statistics");
-            error.put("message", e.getMessage());
-
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest()
+                    .body(ErrorResponse.of("Failed to get request statistics", e.getMessage()));
         }
     }
 
@@ -336,20 +350,17 @@ public class LorRequestController {
 
             lorRequestService.deleteLorRequest(requestId);
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("message", "LOR request deleted successfully");
+            MessageResponse response = new MessageResponse(true, "LOR request deleted successfully");
 
             logger.info("LOR request deleted successfully: {}", requestId);
             return ResponseEntity.ok(response);
+        } catch (ConflictException | ObjectOptimisticLockingFailureException e) {
+            // Answered with 409 Conflict by GlobalExceptionHandler
+            throw e;
         } catch (Exception e) {
             logger.error("Failed to delete LOR request {}: {}", requestId, e.getMessage());
 
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Failed to delete LOR request");
-            error.put("message", e.getMessage());
-
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(ErrorResponse.of("Failed to delete LOR request", e.getMessage()));
         }
     }
 }
@@ -1,19 +1,35 @@
 package com.lor.controller;
 
+import com.lor.dto.ErrorResponse;
+import com.lor.dto.PdfDeletedResponse;
+import com.lor.dto.PdfDownloadLinkResponse;
+import com.lor.dto.PdfGeneratedResponse;
+import com.lor.dto.PdfInfoResponse;
+import com.lor.dto.PdfPreviewResponse;
 import com.lor.entity.PdfDocument;
+import com.lor.service.PdfArchiveService;
+import com.lor.service.PdfDownloadLinkService;
 import com.lor.service.PdfGenerationService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.Resource;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 /**
  * REST controller for PDF operations
@@ -28,6 +44,12 @@ public class PdfController {
     @Autowired
     private PdfGenerationService pdfGenerationService;
 
+    @Autowired
+    private PdfDownloadLinkService pdfDownloadLinkService;
+
+    @Autowired
+    private PdfArchiveService pdfArchiveService;
+
     /**
      * Generate PDF for approved LOR request (Professor only)
      */
@@ -39,13 +61,9 @@ public class PdfController {
             
             PdfDocument pdfDocument = pdfGenerationService.generateLorPdf(requestId);
             
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("message", "PDF generated successfully");
-            response.put("referenceNumber", pdfDocument.getReferenceNumber());
-            response.put("fileName", pdfDocument.getFileName());
-            response.put("fileSize", pdfDocument.getFileSize());
-            response.put("generatedAt", pdfDocument.getGeneratedAt());
+            PdfGeneratedResponse response = new PdfGeneratedResponse(true, "PDF generated successfully",
+                    pdfDocument.getReferenceNumber(), pdfDocument.getFileName(), pdfDocument.getFileSize(),
+                    pdfDocument.getGeneratedAt());
             
             logger.info("PDF generated successfully for request ID: {} with reference: {}", 
                     requestId, pdfDocument.getReferenceNumber());
@@ -54,11 +72,7 @@ public class PdfController {
         } catch (Exception e) {
             logger.error("Failed to generate PDF for request ID {}: {}", requestId, e.getMessage());
             
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Failed to generate PDF");
-            error.put("message", e.getMessage());
-            
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(ErrorResponse.of("Failed to generate PDF", e.getMessage()));
         }
     }
 
@@ -72,7 +86,6 @@ public class PdfController {
             logger.info("Downloading PDF with reference number: {}", referenceNumber);
             
             Resource resource = pdfGenerationService.downloadPdf(referenceNumber);
-            PdfDocument pdfDocument = pdfGenerationService.getPdfByReferenceNumber(referenceNumber);
             
             String contentType = "application/pdf";
             
@@ -81,7 +94,7 @@ public class PdfController {
             return ResponseEntity.ok()
                     .contentType(MediaType.parseMediaType(contentType))
                     .header(HttpHeaders.CONTENT_DISPOSITION, 
-                            "attachment; filename=\"" + pdfDocument.getFileName() + "\"")
+                            "attachment; filename=\"" + resource.getFilename() + "\"")
                     .header("X-Reference-Number", referenceNumber)
                     .body(resource);
         } catch (Exception e) {
@@ -91,6 +104,129 @@ public class PdfController {
         }
     }
 
+    /**
+     * Issue a signed, time-limited download link that works without logging in
+     */
+    @PostMapping("/download-link/{referenceNumber}")
+    @PreAuthorize("hasRole('STUDENT') or hasRole('PROFESSOR') or hasRole('ADMIN')")
+    public ResponseEntity<?> createDownloadLink(@PathVariable String referenceNumber) {
+        try {
+            PdfDownloadLinkService.SignedLink link = pdfGenerationService.createDownloadLink(referenceNumber);
+
+            String url = ServletUriComponentsBuilder.fromCurrentContextPath()
+                    .path("/pdf/signed/{referenceNumber}")
+                    .queryParam("file", link.fileName())
+                    .queryParam("expires", link.expires())
+                    .queryParam("signature", link.signature())
+                    .buildAndExpand(link.referenceNumber())
+                    .encode()
+                    .toUriString();
+
+            return ResponseEntity.ok(new PdfDownloadLinkResponse(referenceNumber, url,
+                    Instant.ofEpochSecond(link.expires())));
+        } catch (Exception e) {
+            logger.error("Failed to create download link for reference {}: {}", referenceNumber, e.getMessage());
+
+            return ResponseEntity.badRequest()
+                    .body(ErrorResponse.of("Failed to create download link", e.getMessage()));
+        }
+    }
+
+    /**
+     * Download a PDF through a signed link; only the signature is checked
+     */
+    @GetMapping("/signed/{referenceNumber}")
+    public ResponseEntity<?> downloadSignedPdf(@PathVariable String referenceNumber,
+                                               @RequestParam("file") String fileName,
+                                               @RequestParam("expires") long expires,
+                                               @RequestParam("signature") String signature) {
+        Optional<Resource> pdf;
+        try {
+            pdf = pdfDownloadLinkService.resolve(referenceNumber, fileName, expires, signature);
+        } catch (IOException e) {
+            logger.error("Failed to read PDF for signed link {}: {}", referenceNumber, e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+        if (pdf.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(ErrorResponse.of("Invalid download link", "The download link is invalid or has expired"));
+        }
+
+        long maxAge = Math.max(0, expires - Instant.now().getEpochSecond());
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_PDF)
+                .cacheControl(CacheControl.maxAge(maxAge, TimeUnit.SECONDS).cachePrivate())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .header("X-Reference-Number", referenceNumber)
+                .body(pdf.get());
+    }
+
+    /**
+     * Download all PDFs matching a professor, course, academic year or date range
+     * as a streamed ZIP archive (Professor: own PDFs only, Admin: any)
+     */
+    @GetMapping("/archive")
+    @PreAuthorize("hasRole('PROFESSOR') or hasRole('ADMIN')")
+    public ResponseEntity<?> downloadArchive(
+            @RequestParam(required = false) Long professorId,
+            @RequestParam(required = false) String course,
+            @RequestParam(required = false) String academicYear,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        PdfArchiveService.Filter filter;
+        try {
+            // Validate before streaming starts, while an error can still be sent as a 400
+            filter = pdfArchiveService.resolveFilter(professorId, course, academicYear, from, to);
+        } catch (Exception e) {
+            logger.error("Failed to start PDF archive download: {}", e.getMessage());
+
+            return ResponseEntity.badRequest()
+                    .body(ErrorResponse.of("Failed to download PDF archive", e.getMessage()));
+        }
+
+        return batchDownload(MediaType.parseMediaType("application/zip"), "zip",
+                out -> pdfArchiveService.writeArchive(filter, out));
+    }
+
+    /**
+     * Download all PDFs matching the same filters as one merged document for
+     * printing (Professor: own PDFs only, Admin: any)
+     */
+    @GetMapping("/merged")
+    @PreAuthorize("hasRole('PROFESSOR') or hasRole('ADMIN')")
+    public ResponseEntity<?> downloadMergedPdf(
+            @RequestParam(required = false) Long professorId,
+            @RequestParam(required = false) String course,
+            @RequestParam(required = false) String academicYear,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        PdfArchiveService.Filter filter;
+        try {
+            filter = pdfArchiveService.resolveFilter(professorId, course, academicYear, from, to);
+            if (!pdfArchiveService.hasMatches(filter)) {
+                throw new RuntimeException("No PDFs match the selected filter");
+            }
+        } catch (Exception e) {
+            logger.error("Failed to start merged PDF download: {}", e.getMessage());
+
+            return ResponseEntity.badRequest()
+                    .body(ErrorResponse.of("Failed to download merged PDF", e.getMessage()));
+        }
+
+        return batchDownload(MediaType.APPLICATION_PDF, "pdf", out -> pdfArchiveService.writeMerged(filter, out));
+    }
+
+    private ResponseEntity<StreamingResponseBody> batchDownload(MediaType contentType, String extension,
+                                                                StreamingResponseBody body) {
+        // No Content-Length, so the servlet container sends the output with chunked encoding
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .cacheControl(CacheControl.noStore())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"lor_letters_" + LocalDate.now() + "." + extension + "\"")
+                .body(body);
+    }
+
     /**
      * Get PDF information by reference number
      */
@@ -100,25 +236,11 @@ public class PdfController {
         try {
             PdfDocument pdfDocument = pdfGenerationService.getPdfByReferenceNumber(referenceNumber);
             
-            Map<String, Object> response = new HashMap<>();
-            response.put("referenceNumber", pdfDocument.getReferenceNumber());
-            response.put("fileName", pdfDocument.getFileName());
-            response.put("fileSize", pdfDocument.getFileSize());
-            response.put("generatedAt", pdfDocument.getGeneratedAt());
-            response.put("generatedBy", pdfDocument.getGeneratedBy().getName());
-            response.put("studentName", pdfDocument.getLorRequest().getStudentName());
-            response.put("professorName", pdfDocument.getLorRequest().getProfessor().getName());
-            response.put("requestId", pdfDocument.getLorRequest().getId());
-            
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(PdfInfoResponse.from(pdfDocument));
         } catch (Exception e) {
             logger.error("Failed to get PDF info for reference {}: {}", referenceNumber, e.getMessage());
             
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Failed to get PDF information");
-            error.put("message", e.getMessage());
-            
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(ErrorResponse.of("Failed to get PDF information", e.getMessage()));
         }
     }
 
@@ -133,10 +255,7 @@ public class PdfController {
             
             pdfGenerationService.deletePdf(referenceNumber);
             
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("message", "PDF deleted successfully");
-            response.put("referenceNumber", referenceNumber);
+            PdfDeletedResponse response = new PdfDeletedResponse(true, "PDF deleted successfully", referenceNumber);
             
             logger.info("PDF deleted successfully: {}", referenceNumber);
             
@@ -144,11 +263,7 @@ public class PdfController {
         } catch (Exception e) {
             logger.error("Failed to delete PDF with reference {}: {}", referenceNumber, e.getMessage());
             
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Failed to delete PDF");
-            error.put("message", e.getMessage());
-            
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(ErrorResponse.of("Failed to delete PDF", e.getMessage()));
         }
     }
 
@@ -161,37 +276,11 @@ public class PdfController {
         try {
             PdfDocument pdfDocument = pdfGenerationService.getPdfByReferenceNumber(referenceNumber);
             
-            Map<String, Object> response = new HashMap<>();
-            response.put("referenceNumber", pdfDocument.getReferenceNumber());
-            response.put("fileName", pdfDocument.getFileName());
-            response.put("fileSize", pdfDocument.getFileSize());
-            response.put("generatedAt", pdfDocument.getGeneratedAt());
-            
-            // LOR Request details
-            Map<String, Object> lorDetails = new HashMap<>();
-            lorDetails.put("studentName", pdfDocument.getLorRequest().getStudentName());
-            lorDetails.put("registrationNumber", pdfDocument.getLorRequest().getRegistrationNumber());
-            lorDetails.put("examinationNumber", pdfDocument.getLorRequest().getExaminationNumber());
-            lorDetails.put("course", pdfDocument.getLorRequest().getCourse());
-            lorDetails.put("semester", pdfDocument.getLorRequest().getSemester());
-            lorDetails.put("session", pdfDocument.getLorRequest().getSession());
-            lorDetails.put("instituteCompany", pdfDocument.getLorRequest().getInstituteCompany());
-            lorDetails.put("professorName", pdfDocument.getLorRequest().getProfessor().getName());
-            lorDetails.put("professorDepartment", pdfDocument.getLorRequest().getProfessor().getDepartment());
-            lorDetails.put("requestedAt", pdfDocument.getLorRequest().getRequestedAt());
-            lorDetails.put("processedAt", pdfDocument.getLorRequest().getProcessedAt());
-            
-            response.put("lorRequest", lorDetails);
-            
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(PdfPreviewResponse.from(pdfDocument));
         } catch (Exception e) {
             logger.error("Failed to preview PDF with reference {}: {}", referenceNumber, e.getMessage());
             
-            Map<String, String> error = new HashMap<>();
-            error.put("error", "Failed to preview PDF");
-            error.put("message", e.getMessage());
-            
-            return ResponseEntity.badRequest().body(error);
+            return ResponseEntity.badRequest().body(ErrorResponse.of("Failed to preview PDF", e.getMessage()));
         }
     }
 }
@@ -0,0 +1,9 @@
+package com.lor.dto;
+
+import java.util.List;
+
+/**
+ * One page of roster professor search results
+ */
+public record AdminProfessorPageResponse(List<AdminProfessorResponse> professors, long totalCount, int currentPage, int totalPages,
+                                         int pageSize) {}
@@ -0,0 +1,17 @@
+package com.lor.dto;
+
+import com.lor.entity.AdminProfessor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Roster professor as returned by the admin endpoints
+ */
+public record AdminProfessorResponse(Long id, String name, String userId, String department,
+                                     LocalDateTime createdAt, LocalDateTime updatedAt) {
+
+    public static AdminProfessorResponse from(AdminProfessor professor) {
+        return new AdminProfessorResponse(professor.getId(), professor.getName(), professor.getUserId(),
+                professor.getDepartment(), professor.getCreatedAt(), professor.getUpdatedAt());
+    }
+}
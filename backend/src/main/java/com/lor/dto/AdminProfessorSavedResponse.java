@@ -0,0 +1,6 @@
+package com.lor.dto;
+
+/**
+ * Roster professor after an add or update
+ */
+public record AdminProfessorSavedResponse(boolean success, String message, AdminProfessorResponse professor) {}
@@ -0,0 +1,9 @@
+package com.lor.dto;
+
+import java.util.List;
+
+/**
+ * One page of roster student search results
+ */
+public record AdminStudentPageResponse(List<AdminStudentResponse> students, long totalCount, int currentPage, int totalPages,
+                                       int pageSize) {}
@@ -0,0 +1,17 @@
+package com.lor.dto;
+
+import com.lor.entity.AdminStudent;
+
+import java.time.LocalDateTime;
+
+/**
+ * Roster student as returned by the admin endpoints
+ */
+public record AdminStudentResponse(Long id, String name, String registrationNumber, String examinationNumber, String course,
+                                   LocalDateTime createdAt, LocalDateTime updatedAt) {
+
+    public static AdminStudentResponse from(AdminStudent student) {
+        return new AdminStudentResponse(student.getId(), student.getName(), student.getRegistrationNumber(),
+                student.getExaminationNumber(), student.getCourse(), student.getCreatedAt(), student.getUpdatedAt());
+    }
+}
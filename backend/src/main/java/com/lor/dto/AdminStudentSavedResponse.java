@@ -0,0 +1,6 @@
+package com.lor.dto;
+
+/**
+ * Roster student after an add or update
+ */
+public record AdminStudentSavedResponse(boolean success, String message, AdminStudentResponse student) {}
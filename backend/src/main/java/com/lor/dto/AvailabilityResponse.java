@@ -0,0 +1,22 @@
+package com.lor.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Availability of a registration identifier; only the checked field is set
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record AvailabilityResponse(boolean available, String email, String examinationNumber, String userId) {
+
+    public static AvailabilityResponse ofEmail(boolean available, String email) {
+        return new AvailabilityResponse(available, email, null, null);
+    }
+
+    public static AvailabilityResponse ofExaminationNumber(boolean available, String examinationNumber) {
+        return new AvailabilityResponse(available, null, examinationNumber, null);
+    }
+
+    public static AvailabilityResponse ofUserId(boolean available, String userId) {
+        return new AvailabilityResponse(available, null, null, userId);
+    }
+}
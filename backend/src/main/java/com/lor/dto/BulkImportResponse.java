@@ -0,0 +1,13 @@
+package com.lor.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Outcome of a roster CSV import; only the list for the imported roster is set
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BulkImportResponse(boolean success, int totalRows, int successCount, int errorCount, List<String> errors,
+                                 List<AdminStudentResponse> importedStudents,
+                                 List<AdminProfessorResponse> importedProfessors, String message) {}
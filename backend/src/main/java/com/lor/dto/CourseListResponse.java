@@ -0,0 +1,13 @@
+package com.lor.dto;
+
+import java.util.List;
+
+/**
+ * Distinct student courses
+ */
+public record CourseListResponse(List<String> courses, int count) {
+
+    public static CourseListResponse of(List<String> courses) {
+        return new CourseListResponse(courses, courses.size());
+    }
+}
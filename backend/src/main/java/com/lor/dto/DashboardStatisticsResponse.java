@@ -0,0 +1,16 @@
+package com.lor.dto;
+
+/**
+ * Admin dashboard statistics
+ */
+public record DashboardStatisticsResponse(Users users, AdminData adminData, Requests requests, Pdfs pdfs) {
+
+    public record Users(long totalStudents, long totalProfessors, long totalAdmins,
+                        long activeStudents, long activeProfessors) {}
+
+    public record AdminData(long totalAdminStudents, long totalAdminProfessors) {}
+
+    public record Requests(long totalRequests, long pendingRequests, long approvedRequests, long rejectedRequests) {}
+
+    public record Pdfs(long totalPdfs, Long totalFileSize) {}
+}
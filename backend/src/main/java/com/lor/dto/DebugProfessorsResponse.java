@@ -0,0 +1,8 @@
+package com.lor.dto;
+
+import java.util.List;
+
+/**
+ * Professor accounts listed by the debug endpoint
+ */
+public record DebugProfessorsResponse(List<UserResponse> professors, int count, String debug) {}
@@ -0,0 +1,13 @@
+package com.lor.dto;
+
+import java.util.List;
+
+/**
+ * Distinct professor departments
+ */
+public record DepartmentListResponse(List<String> departments, int count) {
+
+    public static DepartmentListResponse of(List<String> departments) {
+        return new DepartmentListResponse(departments, departments.size());
+    }
+}
@@ -0,0 +1,22 @@
+package com.lor.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Error body returned by controllers and the global exception handler.
+ * Optional fields are left out of the JSON when not set.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ErrorResponse(String error, String message, LocalDateTime timestamp, Map<String, String> fieldErrors) {
+
+    public static ErrorResponse of(String error, String message) {
+        return new ErrorResponse(error, message, null, null);
+    }
+
+    public static ErrorResponse now(String error, String message) {
+        return new ErrorResponse(error, message, LocalDateTime.now(), null);
+    }
+}
@@ -0,0 +1,33 @@
+package com.lor.dto;
+
+import java.util.List;
+
+/**
+ * DTO for a delta-sync response: requests changed and deleted since the client's
+ * watermark, plus the watermark to send next time
+ */
+public class LorRequestChangesDto {
+
+    private final List<LorRequestDto> changed;
+    private final List<Long> deleted;
+    private final String watermark;
+    private final boolean reset;
+
+    public LorRequestChangesDto(List<LorRequestDto> changed, List<Long> deleted, String watermark, boolean reset) {
+        this.changed = changed;
+        this.deleted = deleted;
+        this.watermark = watermark;
+        this.reset = reset;
+    }
+
+    public List<LorRequestDto> getChanged() { return changed; }
+
+    public List<Long> getDeleted() { return deleted; }
+
+    public String getWatermark() { return watermark; }
+
+    /**
+     * True when changed holds the complete list and the client should replace its copy
+     */
+    public boolean isReset() { return reset; }
+}
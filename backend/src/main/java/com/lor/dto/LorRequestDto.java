@@ -54,6 +54,9 @@ public class LorRequestDto {
     private String pdfFileName;
     private boolean hasPdf;
 
+    // Set for requests of a closed academic year, read from the archive
+    private boolean archived;
+
     // Constructors
     public LorRequestDto() {}
 
@@ -123,6 +126,9 @@ public class LorRequestDto {
     public boolean isHasPdf() { return hasPdf; }
     public void setHasPdf(boolean hasPdf) { this.hasPdf = hasPdf; }
 
+    public boolean isArchived() { return archived; }
+    public void setArchived(boolean archived) { this.archived = archived; }
+
     @Override
     public String toString() {
         return "LorRequestDto{" +
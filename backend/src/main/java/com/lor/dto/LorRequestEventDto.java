@@ -0,0 +1,43 @@
+package com.lor.dto;
+
+import com.lor.entity.LorRequestEventType;
+import com.lor.entity.OutboxEvent;
+import com.lor.entity.RequestStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for a LOR request change pushed over the event stream
+ */
+public class LorRequestEventDto {
+
+    private final Long eventId;
+    private final LorRequestEventType type;
+    private final Long lorRequestId;
+    private final RequestStatus status;
+    private final LocalDateTime occurredAt;
+
+    public LorRequestEventDto(Long eventId, LorRequestEventType type, Long lorRequestId,
+                              RequestStatus status, LocalDateTime occurredAt) {
+        this.eventId = eventId;
+        this.type = type;
+        this.lorRequestId = lorRequestId;
+        this.status = status;
+        this.occurredAt = occurredAt;
+    }
+
+    public static LorRequestEventDto from(OutboxEvent event) {
+        return new LorRequestEventDto(event.getId(), event.getEventType(), event.getLorRequestId(),
+                event.getStatus(), event.getOccurredAt());
+    }
+
+    public Long getEventId() { return eventId; }
+
+    public LorRequestEventType getType() { return type; }
+
+    public Long getLorRequestId() { return lorRequestId; }
+
+    public RequestStatus getStatus() { return status; }
+
+    public LocalDateTime getOccurredAt() { return occurredAt; }
+}
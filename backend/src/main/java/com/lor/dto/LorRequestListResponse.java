@@ -0,0 +1,13 @@
+package com.lor.dto;
+
+import java.util.List;
+
+/**
+ * List of LOR requests with its size
+ */
+public record LorRequestListResponse(List<LorRequestDto> requests, int count) {
+
+    public static LorRequestListResponse of(List<LorRequestDto> requests) {
+        return new LorRequestListResponse(requests, requests.size());
+    }
+}
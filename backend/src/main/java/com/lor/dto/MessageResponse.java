@@ -0,0 +1,6 @@
+package com.lor.dto;
+
+/**
+ * Outcome of an operation that returns no data
+ */
+public record MessageResponse(boolean success, String message) {}
@@ -0,0 +1,6 @@
+package com.lor.dto;
+
+/**
+ * PDF deleted by reference number
+ */
+public record PdfDeletedResponse(boolean success, String message, String referenceNumber) {}
@@ -0,0 +1,8 @@
+package com.lor.dto;
+
+import java.time.Instant;
+
+/**
+ * Signed PDF download link and the time it stops working
+ */
+public record PdfDownloadLinkResponse(String referenceNumber, String url, Instant expiresAt) {}
@@ -0,0 +1,9 @@
+package com.lor.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * PDF generated for an LOR request
+ */
+public record PdfGeneratedResponse(boolean success, String message, String referenceNumber, String fileName, Long fileSize,
+                                   LocalDateTime generatedAt) {}
@@ -0,0 +1,18 @@
+package com.lor.dto;
+
+import com.lor.entity.PdfDocument;
+
+import java.time.LocalDateTime;
+
+/**
+ * PDF metadata with the names of the people involved
+ */
+public record PdfInfoResponse(String referenceNumber, String fileName, Long fileSize, LocalDateTime generatedAt,
+                              String generatedBy, String studentName, String professorName, Long requestId) {
+
+    public static PdfInfoResponse from(PdfDocument pdf) {
+        return new PdfInfoResponse(pdf.getReferenceNumber(), pdf.getFileName(), pdf.getFileSize(),
+                pdf.getGeneratedAt(), pdf.getGeneratedBy().getName(), pdf.getLorRequest().getStudentName(),
+                pdf.getLorRequest().getProfessor().getName(), pdf.getLorRequest().getId());
+    }
+}
@@ -0,0 +1,26 @@
+package com.lor.dto;
+
+import com.lor.entity.LorRequest;
+import com.lor.entity.PdfDocument;
+
+import java.time.LocalDateTime;
+
+/**
+ * PDF metadata with the details of its LOR request
+ */
+public record PdfPreviewResponse(String referenceNumber, String fileName, Long fileSize, LocalDateTime generatedAt,
+                                 LorDetails lorRequest) {
+
+    public static PdfPreviewResponse from(PdfDocument pdf) {
+        LorRequest request = pdf.getLorRequest();
+        return new PdfPreviewResponse(pdf.getReferenceNumber(), pdf.getFileName(), pdf.getFileSize(),
+                pdf.getGeneratedAt(), new LorDetails(request.getStudentName(), request.getRegistrationNumber(),
+                        request.getExaminationNumber(), request.getCourse(), request.getSemester(), request.getSession(),
+                        request.getInstituteCompany(), request.getProfessor().getName(),
+                        request.getProfessor().getDepartment(), request.getRequestedAt(), request.getProcessedAt()));
+    }
+
+    public record LorDetails(String studentName, String registrationNumber, String examinationNumber, String course,
+                             String semester, String session, String instituteCompany, String professorName,
+                             String professorDepartment, LocalDateTime requestedAt, LocalDateTime processedAt) {}
+}
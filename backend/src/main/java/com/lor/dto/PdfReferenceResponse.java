@@ -0,0 +1,6 @@
+package com.lor.dto;
+
+/**
+ * PDF generated from edited preview content
+ */
+public record PdfReferenceResponse(String message, String referenceNumber) {}
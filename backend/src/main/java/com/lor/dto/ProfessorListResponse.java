@@ -0,0 +1,13 @@
+package com.lor.dto;
+
+import java.util.List;
+
+/**
+ * Active professors for the LOR request dropdown
+ */
+public record ProfessorListResponse(List<ProfessorSummaryDto> professors, int count) {
+
+    public static ProfessorListResponse of(List<ProfessorSummaryDto> professors) {
+        return new ProfessorListResponse(professors, professors.size());
+    }
+}
@@ -0,0 +1,53 @@
+package com.lor.dto;
+
+import java.util.Objects;
+
+/**
+ * Slim DTO for the professor dropdown on the LOR request form
+ */
+public class ProfessorSummaryDto {
+
+    private final Long id;
+    private final String name;
+    private final String userId;
+    private final String department;
+
+    public ProfessorSummaryDto(Long id, String name, String userId, String department) {
+        this.id = id;
+        this.name = name;
+        this.userId = userId;
+        this.department = department;
+    }
+
+    // Getters
+    public Long getId() { return id; }
+
+    public String getName() { return name; }
+
+    public String getUserId() { return userId; }
+
+    public String getDepartment() { return department; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ProfessorSummaryDto that = (ProfessorSummaryDto) o;
+        return Objects.equals(id, that.id) && Objects.equals(name, that.name)
+                && Objects.equals(userId, that.userId) && Objects.equals(department, that.department);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, name, userId, department);
+    }
+
+    @Override
+    public String toString() {
+        return "ProfessorSummaryDto{" +
+                "id=" + id +
+                ", name='" + name + '\'' +
+                ", department='" + department + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,6 @@
+package com.lor.dto;
+
+/**
+ * Service status for health checks
+ */
+public record StatusResponse(String status, String service, String timestamp) {}
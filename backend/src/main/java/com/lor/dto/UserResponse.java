@@ -0,0 +1,20 @@
+package com.lor.dto;
+
+import com.lor.entity.Role;
+import com.lor.entity.User;
+
+import java.time.LocalDateTime;
+
+/**
+ * Registered user as returned by the admin endpoints (never includes the password)
+ */
+public record UserResponse(Long id, String name, String email, Role role, String registrationNumber, String examinationNumber,
+                           String course, String userId, String department, Boolean isActive,
+                           LocalDateTime createdAt, LocalDateTime updatedAt) {
+
+    public static UserResponse from(User user) {
+        return new UserResponse(user.getId(), user.getName(), user.getEmail(), user.getRole(),
+                user.getRegistrationNumber(), user.getExaminationNumber(), user.getCourse(), user.getUserId(),
+                user.getDepartment(), user.getIsActive(), user.getCreatedAt(), user.getUpdatedAt());
+    }
+}
@@ -0,0 +1,6 @@
+package com.lor.dto;
+
+/**
+ * User after an active status toggle
+ */
+public record UserStatusResponse(boolean success, String message, UserResponse user, Boolean isActive) {}
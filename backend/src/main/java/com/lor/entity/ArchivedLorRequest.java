@@ -0,0 +1,125 @@
+package com.lor.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity representing an LOR request of a closed academic year, moved out of
+ * lor_requests by the archive job. Archived rows are read-only.
+ */
+@Entity
+@Table(name = "lor_requests_archive")
+public class ArchivedLorRequest {
+
+    @Id
+    private Long id;
+
+    @Column(name = "student_id", nullable = false)
+    private Long studentId;
+
+    @Column(name = "professor_id", nullable = false)
+    private Long professorId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "professor_id", insertable = false, updatable = false)
+    private User professor;
+
+    @Column(name = "student_name", nullable = false)
+    private String studentName;
+
+    @Column(name = "registration_number", nullable = false)
+    private String registrationNumber;
+
+    @Column(name = "examination_number", nullable = false)
+    private String examinationNumber;
+
+    @Column(nullable = false)
+    private String course;
+
+    @Column(nullable = false)
+    private String semester;
+
+    @Column(nullable = false)
+    private String session;
+
+    @Column(name = "class_roll_number", nullable = false)
+    private String classRollNumber;
+
+    @Column(name = "institute_company", nullable = false)
+    private String instituteCompany;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private RequestStatus status;
+
+    @Column(name = "professor_comments")
+    private String professorComments;
+
+    @Column(name = "sxc_reference_number", length = 100)
+    private String sxcReferenceNumber;
+
+    @Column(name = "requested_at")
+    private LocalDateTime requestedAt;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "academic_year", nullable = false, length = 7)
+    private String academicYear;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    // Constructors
+    protected ArchivedLorRequest() {}
+
+    // Getters
+    public Long getId() { return id; }
+
+    public Long getStudentId() { return studentId; }
+
+    public Long getProfessorId() { return professorId; }
+
+    public User getProfessor() { return professor; }
+
+    public String getStudentName() { return studentName; }
+
+    public String getRegistrationNumber() { return registrationNumber; }
+
+    public String getExaminationNumber() { return examinationNumber; }
+
+    public String getCourse() { return course; }
+
+    public String getSemester() { return semester; }
+
+    public String getSession() { return session; }
+
+    public String getClassRollNumber() { return classRollNumber; }
+
+    public String getInstituteCompany() { return instituteCompany; }
+
+    public RequestStatus getStatus() { return status; }
+
+    public String getProfessorComments() { return professorComments; }
+
+    public String getSxcReferenceNumber() { return sxcReferenceNumber; }
+
+    public LocalDateTime getRequestedAt() { return requestedAt; }
+
+    public LocalDateTime getProcessedAt() { return processedAt; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+
+    public String getAcademicYear() { return academicYear; }
+
+    public LocalDateTime getArchivedAt() { return archivedAt; }
+}
@@ -0,0 +1,74 @@
+package com.lor.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity representing the PDF of an archived LOR request. The file itself stays
+ * where it was generated; only the database row moves. Archived rows are read-only.
+ */
+@Entity
+@Table(name = "pdf_documents_archive")
+public class ArchivedPdfDocument {
+
+    @Id
+    private Long id;
+
+    @Column(name = "lor_request_id", nullable = false, unique = true)
+    private Long lorRequestId;
+
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "lor_request_id", insertable = false, updatable = false)
+    private ArchivedLorRequest lorRequest;
+
+    @Column(name = "reference_number", nullable = false, unique = true)
+    private String referenceNumber;
+
+    @Column(name = "file_path", nullable = false)
+    private String filePath;
+
+    @Column(name = "file_name", nullable = false)
+    private String fileName;
+
+    @Column(name = "file_size", nullable = false)
+    private Long fileSize;
+
+    @Column(name = "generated_by", nullable = false)
+    private Long generatedById;
+
+    @Column(name = "generated_at")
+    private LocalDateTime generatedAt;
+
+    @Column(name = "academic_year", nullable = false, length = 7)
+    private String academicYear;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    // Constructors
+    protected ArchivedPdfDocument() {}
+
+    // Getters
+    public Long getId() { return id; }
+
+    public Long getLorRequestId() { return lorRequestId; }
+
+    public ArchivedLorRequest getLorRequest() { return lorRequest; }
+
+    public String getReferenceNumber() { return referenceNumber; }
+
+    public String getFilePath() { return filePath; }
+
+    public String getFileName() { return fileName; }
+
+    public Long getFileSize() { return fileSize; }
+
+    public Long getGeneratedById() { return generatedById; }
+
+    public LocalDateTime getGeneratedAt() { return generatedAt; }
+
+    public String getAcademicYear() { return academicYear; }
+
+    public LocalDateTime getArchivedAt() { return archivedAt; }
+}
@@ -83,6 +83,10 @@ public class LorRequest {
     @Column(name = "professor_comments")
     private String professorComments;
 
+    // Assigned once at approval; printed on the preview and the PDF
+    @Column(name = "sxc_reference_number", length = 100, unique = true)
+    private String sxcReferenceNumber;
+
     // Timestamps
     @Column(name = "requested_at")
     private LocalDateTime requestedAt;
@@ -98,6 +102,11 @@ public class LorRequest {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Optimistic lock; bumped by every update, including conditional status transitions
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     // Relationship with PDF document
     @OneToOne(mappedBy = "lorRequest", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private PdfDocument pdfDocument;
@@ -165,6 +174,9 @@ public class LorRequest {
     public String getProfessorComments() { return professorComments; }
     public void setProfessorComments(String professorComments) { this.professorComments = professorComments; }
 
+    public String getSxcReferenceNumber() { return sxcReferenceNumber; }
+    public void setSxcReferenceNumber(String sxcReferenceNumber) { this.sxcReferenceNumber = sxcReferenceNumber; }
+
     public LocalDateTime getRequestedAt() { return requestedAt; }
     public void setRequestedAt(LocalDateTime requestedAt) { this.requestedAt = requestedAt; }
 
@@ -177,6 +189,9 @@ public class LorRequest {
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
 
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
     public PdfDocument getPdfDocument() { return pdfDocument; }
     public void setPdfDocument(PdfDocument pdfDocument) { this.pdfDocument = pdfDocument; }
 
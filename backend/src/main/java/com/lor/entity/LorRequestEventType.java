@@ -0,0 +1,13 @@
+package com.lor.entity;
+
+/**
+ * Enum representing a LOR request lifecycle change recorded in the outbox
+ */
+public enum LorRequestEventType {
+    CREATED,
+    APPROVED,
+    REJECTED,
+    DELETED,
+    PDF_GENERATED,
+    PDF_DELETED
+}
@@ -0,0 +1,49 @@
+package com.lor.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity recording a deleted LOR request so delta-sync clients can drop it
+ */
+@Entity
+@Table(name = "lor_request_tombstones")
+public class LorRequestTombstone {
+
+    @Id
+    @Column(name = "lor_request_id")
+    private Long lorRequestId;
+
+    @Column(name = "student_id", nullable = false)
+    private Long studentId;
+
+    @Column(name = "professor_id", nullable = false)
+    private Long professorId;
+
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+
+    // Constructors
+    public LorRequestTombstone() {}
+
+    public LorRequestTombstone(LorRequest lorRequest) {
+        this.lorRequestId = lorRequest.getId();
+        this.studentId = lorRequest.getStudent().getId();
+        this.professorId = lorRequest.getProfessor().getId();
+        this.deletedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getLorRequestId() { return lorRequestId; }
+    public void setLorRequestId(Long lorRequestId) { this.lorRequestId = lorRequestId; }
+
+    public Long getStudentId() { return studentId; }
+    public void setStudentId(Long studentId) { this.studentId = studentId; }
+
+    public Long getProfessorId() { return professorId; }
+    public void setProfessorId(Long professorId) { this.professorId = professorId; }
+
+    public LocalDateTime getDeletedAt() { return deletedAt; }
+    public void setDeletedAt(LocalDateTime deletedAt) { this.deletedAt = deletedAt; }
+}
@@ -0,0 +1,96 @@
+package com.lor.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity representing a LOR request lifecycle event in the transactional outbox.
+ *
+ * Rows are written in the same transaction as the state change they describe and
+ * are published to in-process subscribers by the outbox dispatcher in id order.
+ */
+@Entity
+@Table(name = "outbox_events")
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "lor_request_id", nullable = false)
+    private Long lorRequestId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false)
+    private LorRequestEventType eventType;
+
+    // Status after the change; for DELETED, the status the request had when deleted
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private RequestStatus status;
+
+    @Column(name = "student_id", nullable = false)
+    private Long studentId;
+
+    @Column(name = "professor_id", nullable = false)
+    private Long professorId;
+
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+
+    @Column(name = "published_at")
+    private LocalDateTime publishedAt;
+
+    // Constructors
+    public OutboxEvent() {}
+
+    public OutboxEvent(LorRequest lorRequest, LorRequestEventType eventType) {
+        this.lorRequestId = lorRequest.getId();
+        this.eventType = eventType;
+        this.status = lorRequest.getStatus();
+        this.studentId = lorRequest.getStudent().getId();
+        this.professorId = lorRequest.getProfessor().getId();
+        this.occurredAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getLorRequestId() { return lorRequestId; }
+    public void setLorRequestId(Long lorRequestId) { this.lorRequestId = lorRequestId; }
+
+    public LorRequestEventType getEventType() { return eventType; }
+    public void setEventType(LorRequestEventType eventType) { this.eventType = eventType; }
+
+    public RequestStatus getStatus() { return status; }
+    public void setStatus(RequestStatus status) { this.status = status; }
+
+    public Long getStudentId() { return studentId; }
+    public void setStudentId(Long studentId) { this.studentId = studentId; }
+
+    public Long getProfessorId() { return professorId; }
+    public void setProfessorId(Long professorId) { this.professorId = professorId; }
+
+    public LocalDateTime getOccurredAt() { return occurredAt; }
+    public void setOccurredAt(LocalDateTime occurredAt) { this.occurredAt = occurredAt; }
+
+    public LocalDateTime getPublishedAt() { return publishedAt; }
+    public void setPublishedAt(LocalDateTime publishedAt) { this.publishedAt = publishedAt; }
+
+    public boolean isPublished() {
+        return publishedAt != null;
+    }
+
+    @Override
+    public String toString() {
+        return "OutboxEvent{" +
+                "id=" + id +
+                ", lorRequestId=" + lorRequestId +
+                ", eventType=" + eventType +
+                ", status=" + status +
+                ", occurredAt=" + occurredAt +
+                '}';
+    }
+}
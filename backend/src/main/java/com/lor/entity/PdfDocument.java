@@ -50,6 +50,10 @@ public class PdfDocument {
     @Column(name = "generated_at", nullable = false)
     private LocalDateTime generatedAt;
 
+    @Size(max = 50, message = "Output profile must not exceed 50 characters")
+    @Column(name = "output_profile", length = 50)
+    private String outputProfile;
+
     // Constructors
     public PdfDocument() {
         this.generatedAt = LocalDateTime.now();
@@ -91,6 +95,9 @@ public class PdfDocument {
     public LocalDateTime getGeneratedAt() { return generatedAt; }
     public void setGeneratedAt(LocalDateTime generatedAt) { this.generatedAt = generatedAt; }
 
+    public String getOutputProfile() { return outputProfile; }
+    public void setOutputProfile(String outputProfile) { this.outputProfile = outputProfile; }
+
     @Override
     public String toString() {
         return "PdfDocument{" +
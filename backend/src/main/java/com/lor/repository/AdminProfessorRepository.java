@@ -1,8 +1,13 @@
 package com.lor.repository;
 
+import com.lor.dto.AdminProfessorResponse;
 import com.lor.entity.AdminProfessor;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -18,6 +23,7 @@ public interface AdminProfessorRepository extends JpaRepository<AdminProfessor,
     /**
      * Find admin professor by user ID
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<AdminProfessor> findByUserId(String userId);
 
     /**
@@ -64,24 +70,17 @@ public interface AdminProfessorRepository extends JpaRepository<AdminProfessor,
      */
     long countByDepartment(String department);
 
-    // ===== SEARCH METHODS =====
-
     /**
-     * Search professors by name, user ID, or department
+     * Find roster rows for CSV export, one page after the given id in id order
      */
-    @Query("SELECT p FROM AdminProfessor p WHERE " +
-           "LOWER(p.name) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(p.userId) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(p.department) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
-    List<AdminProfessor> searchProfessors(@Param("searchTerm") String searchTerm);
+    @Query("SELECT a.id, a.name, a.userId, a.department, a.createdAt FROM AdminProfessor a " +
+           "WHERE a.id > :afterId ORDER BY a.id")
+    List<Object[]> findExportRows(@Param("afterId") Long afterId, Pageable pageable);
 
     /**
-     * Search professors with department filter
+     * Find roster response records for the JSON list, one page after the given id in id order
      */
-    @Query("SELECT p FROM AdminProfessor p WHERE " +
-           "(LOWER(p.name) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(p.userId) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(p.department) LIKE LOWER(CONCAT('%', :searchTerm, '%'))) AND " +
-           "LOWER(p.department) LIKE LOWER(CONCAT('%', :department, '%'))")
-    List<AdminProfessor> searchProfessorsWithDepartment(@Param("searchTerm") String searchTerm, @Param("department") String department);
+    @Query("SELECT new com.lor.dto.AdminProfessorResponse(a.id, a.name, a.userId, a.department, " +
+           "a.createdAt, a.updatedAt) FROM AdminProfessor a WHERE a.id > :afterId ORDER BY a.id")
+    List<AdminProfessorResponse> findResponses(@Param("afterId") Long afterId, Pageable pageable);
 }
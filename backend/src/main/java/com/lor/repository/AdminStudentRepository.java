@@ -1,8 +1,13 @@
 package com.lor.repository;
 
+import com.lor.dto.AdminStudentResponse;
 import com.lor.entity.AdminStudent;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -18,11 +23,13 @@ public interface AdminStudentRepository extends JpaRepository<AdminStudent, Long
     /**
      * Find admin student by registration number
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<AdminStudent> findByRegistrationNumber(String registrationNumber);
 
     /**
      * Find admin student by examination number
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<AdminStudent> findByExaminationNumber(String examinationNumber);
 
     /**
@@ -68,29 +75,22 @@ public interface AdminStudentRepository extends JpaRepository<AdminStudent, Long
     List<AdminStudent> findByCourseContainingIgnoreCase(String course);
 
     /**
-     * Search students by name, registration number, examination number, or course
+     * Get all unique courses
      */
-    @Query("SELECT s FROM AdminStudent s WHERE " +
-           "LOWER(s.name) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(s.registrationNumber) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(s.examinationNumber) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(s.course) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
-    List<AdminStudent> searchStudents(@Param("searchTerm") String searchTerm);
+    @Query("SELECT DISTINCT s.course FROM AdminStudent s ORDER BY s.course")
+    List<String> findAllCourses();
 
     /**
-     * Search students with course filter
+     * Find roster rows for CSV export, one page after the given id in id order
      */
-    @Query("SELECT s FROM AdminStudent s WHERE " +
-           "(LOWER(s.name) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(s.registrationNumber) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(s.examinationNumber) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(s.course) LIKE LOWER(CONCAT('%', :searchTerm, '%'))) AND " +
-           "LOWER(s.course) LIKE LOWER(CONCAT('%', :course, '%'))")
-    List<AdminStudent> searchStudentsWithCourse(@Param("searchTerm") String searchTerm, @Param("course") String course);
+    @Query("SELECT a.id, a.name, a.registrationNumber, a.examinationNumber, a.course, a.createdAt " +
+           "FROM AdminStudent a WHERE a.id > :afterId ORDER BY a.id")
+    List<Object[]> findExportRows(@Param("afterId") Long afterId, Pageable pageable);
 
     /**
-     * Get all unique courses
+     * Find roster response records for the JSON list, one page after the given id in id order
      */
-    @Query("SELECT DISTINCT s.course FROM AdminStudent s ORDER BY s.course")
-    List<String> findAllCourses();
+    @Query("SELECT new com.lor.dto.AdminStudentResponse(a.id, a.name, a.registrationNumber, a.examinationNumber, " +
+           "a.course, a.createdAt, a.updatedAt) FROM AdminStudent a WHERE a.id > :afterId ORDER BY a.id")
+    List<AdminStudentResponse> findResponses(@Param("afterId") Long afterId, Pageable pageable);
 }
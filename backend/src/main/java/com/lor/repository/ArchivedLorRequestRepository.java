@@ -0,0 +1,52 @@
+package com.lor.repository;
+
+import com.lor.entity.ArchivedLorRequest;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository interface for ArchivedLorRequest entity
+ */
+@Repository
+public interface ArchivedLorRequestRepository extends JpaRepository<ArchivedLorRequest, Long> {
+
+    /**
+     * Find all archived requests by student ID
+     */
+    @Query("SELECT a FROM ArchivedLorRequest a LEFT JOIN FETCH a.professor WHERE a.studentId = :studentId ORDER BY a.requestedAt DESC")
+    List<ArchivedLorRequest> findByStudentId(@Param("studentId") Long studentId);
+
+    /**
+     * Find all archived requests by professor ID
+     */
+    @Query("SELECT a FROM ArchivedLorRequest a LEFT JOIN FETCH a.professor WHERE a.professorId = :professorId ORDER BY a.requestedAt DESC")
+    List<ArchivedLorRequest> findByProfessorId(@Param("professorId") Long professorId);
+
+    /**
+     * Get archived request counts by status
+     */
+    @Query("SELECT a.status, COUNT(a) FROM ArchivedLorRequest a GROUP BY a.status")
+    List<Object[]> getRequestStatistics();
+
+    /**
+     * Copy the given live requests into the archive
+     */
+    @Modifying
+    @Query("INSERT INTO ArchivedLorRequest (id, studentId, professorId, studentName, registrationNumber, " +
+           "examinationNumber, course, semester, session, classRollNumber, instituteCompany, status, " +
+           "professorComments, sxcReferenceNumber, requestedAt, processedAt, createdAt, updatedAt, academicYear, " +
+           "archivedAt) " +
+           "SELECT l.id, l.student.id, l.professor.id, l.studentName, l.registrationNumber, " +
+           "l.examinationNumber, l.course, l.semester, l.session, l.classRollNumber, l.instituteCompany, l.status, " +
+           "l.professorComments, l.sxcReferenceNumber, l.requestedAt, l.processedAt, l.createdAt, l.updatedAt, " +
+           ":academicYear, :archivedAt " +
+           "FROM LorRequest l WHERE l.id IN :ids")
+    int archive(@Param("ids") List<Long> ids, @Param("academicYear") String academicYear,
+                @Param("archivedAt") LocalDateTime archivedAt);
+}
@@ -0,0 +1,70 @@
+package com.lor.repository;
+
+import com.lor.entity.ArchivedPdfDocument;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository interface for ArchivedPdfDocument entity
+ */
+@Repository
+public interface ArchivedPdfDocumentRepository extends JpaRepository<ArchivedPdfDocument, Long> {
+
+    /**
+     * Find archived PDF by reference number, with its request
+     */
+    @Query("SELECT p FROM ArchivedPdfDocument p JOIN FETCH p.lorRequest WHERE p.referenceNumber = :referenceNumber")
+    Optional<ArchivedPdfDocument> findByReferenceNumber(@Param("referenceNumber") String referenceNumber);
+
+    /**
+     * Find the archived PDFs of the given requests
+     */
+    List<ArchivedPdfDocument> findByLorRequestIdIn(Collection<Long> lorRequestIds);
+
+    /**
+     * Find id, reference number, file name, file path and generation time of the archived PDFs
+     * matching the archive filter, one page after the given id in id order; null criteria match everything
+     */
+    @Query("SELECT p.id, p.referenceNumber, p.fileName, p.filePath, p.generatedAt FROM ArchivedPdfDocument p " +
+           "WHERE p.id > :afterId " +
+           "AND (:professorId IS NULL OR p.generatedById = :professorId) " +
+           "AND (:course IS NULL OR p.lorRequest.course = :course) " +
+           "AND (:from IS NULL OR p.generatedAt >= :from) " +
+           "AND (:to IS NULL OR p.generatedAt < :to) " +
+           "ORDER BY p.id")
+    List<Object[]> findArchiveRows(@Param("afterId") Long afterId, @Param("professorId") Long professorId,
+                                   @Param("course") String course, @Param("from") LocalDateTime from,
+                                   @Param("to") LocalDateTime to, Pageable pageable);
+
+    /**
+     * Count the archived PDFs matching the archive filter
+     */
+    @Query("SELECT COUNT(p) FROM ArchivedPdfDocument p " +
+           "WHERE (:professorId IS NULL OR p.generatedById = :professorId) " +
+           "AND (:course IS NULL OR p.lorRequest.course = :course) " +
+           "AND (:from IS NULL OR p.generatedAt >= :from) " +
+           "AND (:to IS NULL OR p.generatedAt < :to)")
+    long countArchiveRows(@Param("professorId") Long professorId, @Param("course") String course,
+                          @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Copy the PDFs of the given live requests into the archive
+     */
+    @Modifying
+    @Query("INSERT INTO ArchivedPdfDocument (id, lorRequestId, referenceNumber, filePath, fileName, fileSize, " +
+           "generatedById, generatedAt, academicYear, archivedAt) " +
+           "SELECT p.id, p.lorRequest.id, p.referenceNumber, p.filePath, p.fileName, p.fileSize, " +
+           "p.generatedBy.id, p.generatedAt, :academicYear, :archivedAt " +
+           "FROM PdfDocument p WHERE p.lorRequest.id IN :ids")
+    int archive(@Param("ids") List<Long> ids, @Param("academicYear") String academicYear,
+                @Param("archivedAt") LocalDateTime archivedAt);
+}
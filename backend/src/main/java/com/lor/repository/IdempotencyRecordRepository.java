@@ -0,0 +1,65 @@
+package com.lor.repository;
+
+import com.lor.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Repository interface for IdempotencyRecord entity
+ */
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    /**
+     * Claim a key for execution. Fails with a duplicate-key error if another
+     * request already holds or completed it.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (idempotency_key, request_hash, created_at) " +
+                   "VALUES (:key, :requestHash, :createdAt)", nativeQuery = true)
+    void claim(@Param("key") String key, @Param("requestHash") String requestHash,
+               @Param("createdAt") LocalDateTime createdAt);
+
+    /**
+     * Store the response of a claimed key
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.statusCode = :statusCode, r.contentType = :contentType, " +
+           "r.responseBody = :body, r.completedAt = :completedAt WHERE r.idempotencyKey = :key")
+    int complete(@Param("key") String key, @Param("statusCode") int statusCode,
+                 @Param("contentType") String contentType, @Param("body") byte[] body,
+                 @Param("completedAt") LocalDateTime completedAt);
+
+    /**
+     * Release a claim whose request failed so a retry can execute again
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.idempotencyKey = :key AND r.statusCode IS NULL")
+    int release(@Param("key") String key);
+
+    /**
+     * Release a claim left behind by a request that never finished
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.idempotencyKey = :key AND r.statusCode IS NULL " +
+           "AND r.createdAt < :cutoff")
+    int releaseIfStale(@Param("key") String key, @Param("cutoff") LocalDateTime cutoff);
+
+    /**
+     * Delete keys older than the cutoff
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.createdAt < :cutoff")
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
+}
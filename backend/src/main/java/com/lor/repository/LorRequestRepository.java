@@ -3,14 +3,15 @@ package com.lor.repository;
 import com.lor.entity.LorRequest;
 import com.lor.entity.RequestStatus;
 import com.lor.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Optional;
 
 /**
  * Repository interface for LorRequest entity
@@ -63,12 +64,6 @@ public interface LorRequestRepository extends JpaRepository<LorRequest, Long> {
     @Query("SELECT l FROM LorRequest l WHERE l.student.id = :studentId AND l.professor.id = :professorId")
     List<LorRequest> findByStudentAndProfessor(@Param("studentId") Long studentId, @Param("professorId") Long professorId);
 
-    /**
-     * Check if student has pending request with same professor
-     */
-    @Query("SELECT l FROM LorRequest l WHERE l.student.id = :studentId AND l.professor.id = :professorId AND l.status = 'PENDING'")
-    Optional<LorRequest> findPendingRequestByStudentAndProfessor(@Param("studentId") Long studentId, @Param("professorId") Long professorId);
-
     /**
      * Count requests by status
      */
@@ -107,4 +102,71 @@ public interface LorRequestRepository extends JpaRepository<LorRequest, Long> {
      */
     @Query("SELECT l.status, COUNT(l) FROM LorRequest l GROUP BY l.status")
     List<Object[]> getRequestStatistics();
+
+    /**
+     * Move a pending request owned by the professor to a final status in one
+     * conditional statement. Returns 0 when the request is missing, not owned
+     * by the professor, or no longer pending.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE LorRequest l SET l.status = :status, l.professorComments = :comments, " +
+           "l.processedAt = :processedAt, l.updatedAt = :processedAt, l.version = l.version + 1 " +
+           "WHERE l.id = :id AND l.professor.id = :professorId AND l.status = com.lor.entity.RequestStatus.PENDING")
+    int transitionFromPending(@Param("id") Long id,
+                              @Param("professorId") Long professorId,
+                              @Param("status") RequestStatus status,
+                              @Param("comments") String comments,
+                              @Param("processedAt") LocalDateTime processedAt);
+
+    /**
+     * Find a student's requests modified at or after the given time (delta sync)
+     */
+    @Query("SELECT l FROM LorRequest l JOIN FETCH l.professor WHERE l.student.id = :studentId " +
+           "AND l.updatedAt >= :since ORDER BY l.updatedAt")
+    List<LorRequest> findStudentChangesSince(@Param("studentId") Long studentId, @Param("since") LocalDateTime since);
+
+    /**
+     * Find a professor's requests modified at or after the given time (delta sync)
+     */
+    @Query("SELECT l FROM LorRequest l JOIN FETCH l.professor WHERE l.professor.id = :professorId " +
+           "AND l.updatedAt >= :since ORDER BY l.updatedAt")
+    List<LorRequest> findProfessorChangesSince(@Param("professorId") Long professorId, @Param("since") LocalDateTime since);
+
+    /**
+     * Find the earliest request date among closed requests before the cutoff (archive job)
+     */
+    @Query("SELECT MIN(l.requestedAt) FROM LorRequest l WHERE l.status <> com.lor.entity.RequestStatus.PENDING " +
+           "AND l.requestedAt < :cutoff")
+    LocalDateTime findEarliestClosedRequestedBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    /**
+     * Find ids of closed requests made in the given period, in id order (archive job)
+     */
+    @Query("SELECT l.id FROM LorRequest l WHERE l.status <> com.lor.entity.RequestStatus.PENDING " +
+           "AND l.requestedAt >= :from AND l.requestedAt < :to ORDER BY l.id")
+    List<Long> findClosedIdsRequestedBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                             Pageable pageable);
+
+    /**
+     * Record tombstones for requests leaving the live table, so delta-sync clients drop them
+     */
+    @Modifying
+    @Query("INSERT INTO LorRequestTombstone (lorRequestId, studentId, professorId, deletedAt) " +
+           "SELECT l.id, l.student.id, l.professor.id, :deletedAt FROM LorRequest l WHERE l.id IN :ids")
+    int insertTombstones(@Param("ids") List<Long> ids, @Param("deletedAt") LocalDateTime deletedAt);
+
+    /**
+     * Delete requests by id (archive job, after they were copied)
+     */
+    @Modifying
+    @Query("DELETE FROM LorRequest l WHERE l.id IN :ids")
+    int deleteByIds(@Param("ids") List<Long> ids);
+
+    /**
+     * Find request rows with the professor's name for CSV export, one page after the given id in id order
+     */
+    @Query("SELECT l.id, l.studentName, l.registrationNumber, l.examinationNumber, l.course, l.semester, " +
+           "l.session, l.classRollNumber, l.instituteCompany, p.name, p.department, l.status, " +
+           "l.requestedAt, l.processedAt FROM LorRequest l JOIN l.professor p WHERE l.id > :afterId ORDER BY l.id")
+    List<Object[]> findExportRows(@Param("afterId") Long afterId, Pageable pageable);
 }
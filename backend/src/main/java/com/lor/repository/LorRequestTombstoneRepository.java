@@ -0,0 +1,37 @@
+package com.lor.repository;
+
+import com.lor.entity.LorRequestTombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository interface for LorRequestTombstone entity
+ */
+@Repository
+public interface LorRequestTombstoneRepository extends JpaRepository<LorRequestTombstone, Long> {
+
+    /**
+     * Ids of a student's requests deleted at or after the given time
+     */
+    @Query("SELECT t.lorRequestId FROM LorRequestTombstone t WHERE t.studentId = :studentId AND t.deletedAt >= :since")
+    List<Long> findStudentDeletionsSince(@Param("studentId") Long studentId, @Param("since") LocalDateTime since);
+
+    /**
+     * Ids of a professor's requests deleted at or after the given time
+     */
+    @Query("SELECT t.lorRequestId FROM LorRequestTombstone t WHERE t.professorId = :professorId AND t.deletedAt >= :since")
+    List<Long> findProfessorDeletionsSince(@Param("professorId") Long professorId, @Param("since") LocalDateTime since);
+
+    /**
+     * Delete tombstones older than the cutoff
+     */
+    @Modifying
+    @Query("DELETE FROM LorRequestTombstone t WHERE t.deletedAt < :cutoff")
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
+}
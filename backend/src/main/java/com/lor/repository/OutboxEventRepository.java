@@ -0,0 +1,66 @@
+package com.lor.repository;
+
+import com.lor.entity.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository interface for OutboxEvent entity
+ */
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Lock the oldest unpublished events for dispatch. Rows already claimed by
+     * another instance are skipped (lock timeout -2 is SKIP LOCKED).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM OutboxEvent e WHERE e.publishedAt IS NULL ORDER BY e.id")
+    List<OutboxEvent> claimUnpublished(Pageable pageable);
+
+    /**
+     * Events after the given id, for delivery to the subscribers on every instance
+     */
+    List<OutboxEvent> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    /**
+     * Delete published events older than the cutoff
+     */
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.publishedAt < :cutoff")
+    int deletePublishedBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    /**
+     * Highest event id, or 0 when the outbox is empty
+     */
+    @Query("SELECT COALESCE(MAX(e.id), 0) FROM OutboxEvent e")
+    long findMaxId();
+
+    /**
+     * Lowest retained event id, or null when the outbox is empty
+     */
+    @Query("SELECT MIN(e.id) FROM OutboxEvent e")
+    Long findMinId();
+
+    /**
+     * Events for a student after the given id, for event stream replay
+     */
+    List<OutboxEvent> findByStudentIdAndIdGreaterThanOrderByIdAsc(Long studentId, Long afterId, Pageable pageable);
+
+    /**
+     * Events for a professor after the given id, for event stream replay
+     */
+    List<OutboxEvent> findByProfessorIdAndIdGreaterThanOrderByIdAsc(Long professorId, Long afterId, Pageable pageable);
+}
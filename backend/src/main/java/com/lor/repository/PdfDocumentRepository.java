@@ -3,7 +3,9 @@ package com.lor.repository;
 import com.lor.entity.LorRequest;
 import com.lor.entity.PdfDocument;
 import com.lor.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -73,6 +75,32 @@ public interface PdfDocumentRepository extends JpaRepository<PdfDocument, Long>
     @Query("SELECT p FROM PdfDocument p WHERE p.generatedAt BETWEEN :startDate AND :endDate ORDER BY p.generatedAt DESC")
     List<PdfDocument> findByDateRange(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
 
+    /**
+     * Find id, reference number, file name, file path and generation time of the PDFs
+     * matching the archive filter, one page after the given id in id order; null criteria match everything
+     */
+    @Query("SELECT p.id, p.referenceNumber, p.fileName, p.filePath, p.generatedAt FROM PdfDocument p " +
+           "WHERE p.id > :afterId " +
+           "AND (:professorId IS NULL OR p.generatedBy.id = :professorId) " +
+           "AND (:course IS NULL OR p.lorRequest.course = :course) " +
+           "AND (:from IS NULL OR p.generatedAt >= :from) " +
+           "AND (:to IS NULL OR p.generatedAt < :to) " +
+           "ORDER BY p.id")
+    List<Object[]> findArchiveRows(@Param("afterId") Long afterId, @Param("professorId") Long professorId,
+                                   @Param("course") String course, @Param("from") LocalDateTime from,
+                                   @Param("to") LocalDateTime to, Pageable pageable);
+
+    /**
+     * Count the PDFs matching the archive filter
+     */
+    @Query("SELECT COUNT(p) FROM PdfDocument p " +
+           "WHERE (:professorId IS NULL OR p.generatedBy.id = :professorId) " +
+           "AND (:course IS NULL OR p.lorRequest.course = :course) " +
+           "AND (:from IS NULL OR p.generatedAt >= :from) " +
+           "AND (:to IS NULL OR p.generatedAt < :to)")
+    long countArchiveRows(@Param("professorId") Long professorId, @Param("course") String course,
+                          @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
     /**
      * Find recent PDFs (last 30 days)
      */
@@ -96,4 +124,27 @@ public interface PdfDocumentRepository extends JpaRepository<PdfDocument, Long>
      */
     @Query("SELECT CASE WHEN COUNT(p) > 0 THEN true ELSE false END FROM PdfDocument p WHERE p.lorRequest.id = :requestId")
     boolean existsByLorRequestId(@Param("requestId") Long requestId);
+
+    /**
+     * Find PDFs written under a different output profile, in id order after the given id
+     */
+    @Query("SELECT p FROM PdfDocument p " +
+           "WHERE p.id > :afterId AND (p.outputProfile IS NULL OR p.outputProfile <> :profile) ORDER BY p.id")
+    List<PdfDocument> findNotWrittenWith(@Param("profile") String profile, @Param("afterId") Long afterId,
+                                         Pageable pageable);
+
+    /**
+     * Record that a PDF was rewritten under the given profile, unless another instance already did
+     */
+    @Modifying
+    @Query("UPDATE PdfDocument p SET p.fileSize = :fileSize, p.outputProfile = :profile " +
+           "WHERE p.id = :id AND (p.outputProfile IS NULL OR p.outputProfile <> :profile)")
+    int markRewritten(@Param("id") Long id, @Param("profile") String profile, @Param("fileSize") long fileSize);
+
+    /**
+     * Delete the PDF rows of the given requests (archive job, after they were copied)
+     */
+    @Modifying
+    @Query("DELETE FROM PdfDocument p WHERE p.lorRequest.id IN :ids")
+    int deleteByLorRequestIds(@Param("ids") List<Long> ids);
 }
@@ -0,0 +1,37 @@
+package com.lor.repository;
+
+import com.lor.entity.SequenceBlock;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Repository interface for SequenceBlock entity
+ */
+@Repository
+public interface SequenceBlockRepository extends JpaRepository<SequenceBlock, String> {
+
+    /**
+     * Create a counter starting at the given value unless it already exists.
+     * Must not share a transaction with findForUpdate on the same name.
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO sequence_blocks (name, next_value, updated_at) " +
+                   "VALUES (:name, :initialValue, :now)", nativeQuery = true)
+    int createIfAbsent(@Param("name") String name, @Param("initialValue") long initialValue,
+                       @Param("now") LocalDateTime now);
+
+    /**
+     * Lock a counter row until the end of the transaction
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM SequenceBlock s WHERE s.name = :name")
+    Optional<SequenceBlock> findForUpdate(@Param("name") String name);
+}
@@ -1,9 +1,15 @@
 package com.lor.repository;
 
+import com.lor.dto.ProfessorSummaryDto;
+import com.lor.dto.UserResponse;
 import com.lor.entity.Role;
 import com.lor.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -19,18 +25,41 @@ public interface UserRepository extends JpaRepository<User, Long> {
     /**
      * Find user by email
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<User> findByEmail(String email);
 
     /**
      * Find user by examination number (for students)
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<User> findByExaminationNumber(String examinationNumber);
 
     /**
      * Find user by user ID (for professors)
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<User> findByUserId(String userId);
 
+    /**
+     * Find user by email for authentication, always read from the database.
+     * The second-level cache is local to each instance, so a cached user could still
+     * pass the active check on one instance after being deactivated on another.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE"))
+    @Query("SELECT u FROM User u WHERE u.email = :email")
+    Optional<User> findForAuthenticationByEmail(@Param("email") String email);
+
+    /**
+     * Find users matching a login identifier (email, examination number, or user ID).
+     * Each column has its own unique index, so this resolves in a single round trip.
+     * Used for login, so the password hash and active flag are always read from the
+     * database rather than an instance-local cache.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE"))
+    @Query("SELECT u FROM User u WHERE u.email = :identifier " +
+           "OR u.examinationNumber = :identifier OR u.userId = :identifier")
+    List<User> findByLoginIdentifier(@Param("identifier") String identifier);
+
     /**
      * Check if email exists
      */
@@ -57,10 +86,11 @@ public interface UserRepository extends JpaRepository<User, Long> {
     List<User> findByRoleAndIsActive(Role role, Boolean isActive);
 
     /**
-     * Find all professors for LOR request dropdown
+     * Find slim professor rows for the LOR request dropdown
      */
-    @Query("SELECT u FROM User u WHERE u.role = 'PROFESSOR' ORDER BY u.name")
-    List<User> findAllActiveProfessors();
+    @Query("SELECT new com.lor.dto.ProfessorSummaryDto(u.id, u.name, u.userId, u.department) " +
+           "FROM User u WHERE u.role = 'PROFESSOR' ORDER BY u.name")
+    List<ProfessorSummaryDto> findProfessorSummaries();
 
     /**
      * Find all students for admin management
@@ -93,4 +123,28 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * Count active users by role
      */
     long countByRoleAndIsActive(Role role, Boolean isActive);
+
+    /**
+     * Find user rows for CSV export, one page after the given id in id order (password excluded)
+     */
+    @Query("SELECT u.id, u.name, u.email, u.role, u.registrationNumber, u.examinationNumber, u.course, " +
+           "u.userId, u.department, u.isActive, u.createdAt FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<Object[]> findExportRows(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Find users as response records for the JSON list, one page after the given id in id order (password excluded)
+     */
+    @Query("SELECT new com.lor.dto.UserResponse(u.id, u.name, u.email, u.role, u.registrationNumber, " +
+           "u.examinationNumber, u.course, u.userId, u.department, u.isActive, u.createdAt, u.updatedAt) " +
+           "FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<UserResponse> findResponses(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Find users of one role as response records, one page after the given id in id order (password excluded)
+     */
+    @Query("SELECT new com.lor.dto.UserResponse(u.id, u.name, u.email, u.role, u.registrationNumber, " +
+           "u.examinationNumber, u.course, u.userId, u.department, u.isActive, u.createdAt, u.updatedAt) " +
+           "FROM User u WHERE u.role = :role AND u.id > :afterId ORDER BY u.id")
+    List<UserResponse> findResponsesByRole(@Param("role") Role role, @Param("afterId") Long afterId,
+                                           Pageable pageable);
 }
@@ -79,6 +79,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // Skip JWT validation for public endpoints
         return path.startsWith("/api/auth/") || 
                path.startsWith("/api/public/") ||
+               path.startsWith("/api/pdf/signed/") ||
                path.equals("/api/health") ||
                path.equals("/api/") ||
                path.startsWith("/api/swagger") ||
@@ -0,0 +1,51 @@
+package com.lor.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Academic year arithmetic. An academic year runs from July to June and is
+ * labelled like "2024-25".
+ */
+final class AcademicYears {
+
+    // Academic year starts in July (month 7)
+    private static final int FIRST_MONTH = 7;
+
+    private static final Pattern LABEL = Pattern.compile("(\\d{4})-(\\d{2})");
+
+    private AcademicYears() {}
+
+    /**
+     * Get the label of the academic year containing the date
+     */
+    static String of(LocalDateTime date) {
+        int startYear = startOf(date).getYear();
+        return startYear + "-" + String.valueOf(startYear + 1).substring(2);
+    }
+
+    /**
+     * Get the first moment of the academic year containing the date
+     */
+    static LocalDateTime startOf(LocalDateTime date) {
+        int startYear = date.getMonthValue() >= FIRST_MONTH ? date.getYear() : date.getYear() - 1;
+        return LocalDate.of(startYear, FIRST_MONTH, 1).atStartOfDay();
+    }
+
+    /**
+     * Get the first moment of the academic year with the given label
+     */
+    static LocalDateTime startOf(String label) {
+        Matcher matcher = label != null ? LABEL.matcher(label) : null;
+        if (matcher == null || !matcher.matches()) {
+            throw new IllegalArgumentException("Academic year must look like 2024-25: " + label);
+        }
+        int startYear = Integer.parseInt(matcher.group(1));
+        if ((startYear + 1) % 100 != Integer.parseInt(matcher.group(2))) {
+            throw new IllegalArgumentException("Academic year must span consecutive years: " + label);
+        }
+        return LocalDate.of(startYear, FIRST_MONTH, 1).atStartOfDay();
+    }
+}
@@ -0,0 +1,173 @@
+package com.lor.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.lor.dto.AdminProfessorResponse;
+import com.lor.dto.AdminStudentResponse;
+import com.lor.dto.UserResponse;
+import com.lor.entity.Role;
+import com.lor.entity.User;
+import com.lor.repository.AdminProfessorRepository;
+import com.lor.repository.AdminStudentRepository;
+import com.lor.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Service for the admin roster and user lists as streamed JSON.
+ *
+ * Rows are read as response records in pages keyed on id and written through a
+ * JSON generator, so the response is never built as one list in memory. Like the
+ * CSV exports, each page is read in its own short read-only transaction and the
+ * connection is returned before the page is written and flushed. The output keeps
+ * the shape of the former list bodies: {"students": [...], "count": n}. The count
+ * is written after the array.
+ */
+@Service
+public class AdminListService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdminListService.class);
+
+    @Autowired
+    private AdminStudentRepository adminStudentRepository;
+
+    @Autowired
+    private AdminProfessorRepository adminProfessorRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${export.page-size:1000}")
+    private int pageSize;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    private ObjectWriter studentWriter;
+    private ObjectWriter professorWriter;
+    private ObjectWriter userWriter;
+
+    @PostConstruct
+    public void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        // Resolve each row serializer once instead of per value; flushing is batched below
+        studentWriter = rowWriter(AdminStudentResponse.class);
+        professorWriter = rowWriter(AdminProfessorResponse.class);
+        userWriter = rowWriter(UserResponse.class);
+    }
+
+    /**
+     * Write all admin students as {"students": [...], "count": n}
+     */
+    public long writeAdminStudents(OutputStream out) {
+        requireAdmin("Only admin can access this data");
+        return write("admin students", "students", null, adminStudentRepository::findResponses,
+                AdminStudentResponse::id, studentWriter, out);
+    }
+
+    /**
+     * Write all admin professors as {"professors": [...], "count": n}
+     */
+    public long writeAdminProfessors(OutputStream out) {
+        requireAdmin("Only admin can access this data");
+        return write("admin professors", "professors", null, adminProfessorRepository::findResponses,
+                AdminProfessorResponse::id, professorWriter, out);
+    }
+
+    /**
+     * Write all registered users as {"users": [...], "count": n}
+     */
+    public long writeUsers(OutputStream out) {
+        requireAdmin("Only admin can access user data");
+        return write("users", "users", null, userRepository::findResponses, UserResponse::id, userWriter, out);
+    }
+
+    /**
+     * Write the users of one role as {"users": [...], "role": "...", "count": n}
+     */
+    public long writeUsersByRole(Role role, String requestedRole, OutputStream out) {
+        requireAdmin("Only admin can access user data");
+        return write("users", "users", requestedRole,
+                (afterId, pageable) -> userRepository.findResponsesByRole(role, afterId, pageable),
+                UserResponse::id, userWriter, out);
+    }
+
+    private void requireAdmin(String message) {
+        User currentUser = authService.getCurrentUser();
+        if (!currentUser.isAdmin()) {
+            throw new RuntimeException(message);
+        }
+    }
+
+    private ObjectWriter rowWriter(Class<?> type) {
+        return objectMapper.writerFor(type).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    private <T> long write(String name, String key, String role, PageQuery<T> query, Function<T, Long> idOf,
+                           ObjectWriter writer, OutputStream out) {
+        long count = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart(key);
+            long lastId = 0;
+            List<T> page;
+            do {
+                long afterId = lastId;
+                page = readOnlyTransaction.execute(status -> query.find(afterId, PageRequest.of(0, pageSize)));
+                for (T row : page) {
+                    writer.writeValue(generator, row);
+                    lastId = idOf.apply(row);
+                }
+                count += page.size();
+                // Push each page to the client instead of holding it in the buffer
+                generator.flush();
+            } while (page.size() == pageSize);
+            generator.writeEndArray();
+            if (role != null) {
+                generator.writeStringField("role", role);
+            }
+            generator.writeNumberField("count", count);
+            generator.writeEndObject();
+        } catch (IOException e) {
+            // Usually the client went away
+            logger.warn("JSON list of {} aborted after {} rows: {}", name, count, e.getMessage());
+            throw new UncheckedIOException(e);
+        }
+        logger.debug("Streamed {} {} as JSON", count, name);
+        return count;
+    }
+
+    /**
+     * One page of response records after the given id, in id order
+     */
+    @FunctionalInterface
+    private interface PageQuery<T> {
+        List<T> find(Long afterId, Pageable pageable);
+    }
+}
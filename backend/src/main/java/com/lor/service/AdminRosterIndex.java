@@ -0,0 +1,173 @@
+package com.lor.service;
+
+import com.lor.config.ReplicaRouting;
+import com.lor.entity.AdminProfessor;
+import com.lor.entity.AdminStudent;
+import com.lor.repository.AdminProfessorRepository;
+import com.lor.repository.AdminStudentRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory, immutable index of the admin student and professor rosters used
+ * to validate registrations and to answer admin roster searches without
+ * querying the admin tables.
+ *
+ * The index is replaced as a whole (copy-on-write) after every roster change,
+ * so readers always see a consistent snapshot without locking. A periodic
+ * refresh picks up changes made through other application instances.
+ */
+@Service
+public class AdminRosterIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdminRosterIndex.class);
+
+    @Autowired
+    private AdminStudentRepository adminStudentRepository;
+
+    @Autowired
+    private AdminProfessorRepository adminProfessorRepository;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    @PostConstruct
+    public void init() {
+        rebuild();
+    }
+
+    /**
+     * Find a roster student matching all registration details
+     */
+    public StudentEntry findStudent(String name, String registrationNumber, String examinationNumber, String course) {
+        if (registrationNumber == null || examinationNumber == null) {
+            return null;
+        }
+        Snapshot current = snapshot;
+        StudentEntry entry = current.studentsByRegistrationNumber.get(registrationNumber);
+        if (entry == null || !entry.matches(name, examinationNumber, course)) {
+            return null;
+        }
+        // Both unique keys must point at the same roster row
+        return entry == current.studentsByExaminationNumber.get(examinationNumber) ? entry : null;
+    }
+
+    /**
+     * Find a roster professor matching all registration details
+     */
+    public ProfessorEntry findProfessor(String name, String userId, String department) {
+        if (userId == null) {
+            return null;
+        }
+        ProfessorEntry entry = snapshot.professorsByUserId.get(userId);
+        return entry != null && entry.matches(name, department) ? entry : null;
+    }
+
+    /**
+     * Search roster students by name, registration number, examination number or course.
+     * Returns matching ids in rank order.
+     */
+    public List<Long> searchStudents(String searchTerm, String course) {
+        return snapshot.studentSearch.search(searchTerm, course);
+    }
+
+    /**
+     * Search roster professors by name, user ID or department.
+     * Returns matching ids in rank order.
+     */
+    public List<Long> searchProfessors(String searchTerm, String department) {
+        return snapshot.professorSearch.search(searchTerm, department);
+    }
+
+    /**
+     * Rebuild the index once the current transaction commits, or immediately
+     * when called outside a transaction
+     */
+    public void rebuildAfterCommit() {
+        // Read the primary: the replica may not have the committed write yet
+        AfterCommit.run(() -> ReplicaRouting.onPrimary(this::rebuild));
+    }
+
+    /**
+     * Periodically reload the rosters to pick up writes made by other instances
+     */
+    @Scheduled(fixedDelayString = "${roster.index.refresh-interval:PT5M}",
+               initialDelayString = "${roster.index.refresh-interval:PT5M}")
+    public void refresh() {
+        rebuild();
+    }
+
+    /**
+     * Load both rosters and atomically publish a new snapshot
+     */
+    public synchronized void rebuild() {
+        List<AdminStudent> students = adminStudentRepository.findAll();
+        List<AdminProfessor> professors = adminProfessorRepository.findAll();
+
+        Map<String, StudentEntry> byRegistrationNumber = new HashMap<>(students.size() * 2);
+        Map<String, StudentEntry> byExaminationNumber = new HashMap<>(students.size() * 2);
+        NgramSearchIndex.Builder studentSearch = new NgramSearchIndex.Builder(students.size());
+        for (AdminStudent student : students) {
+            StudentEntry entry = new StudentEntry(student.getName(), student.getRegistrationNumber(),
+                    student.getExaminationNumber(), student.getCourse());
+            byRegistrationNumber.put(entry.registrationNumber(), entry);
+            byExaminationNumber.put(entry.examinationNumber(), entry);
+            studentSearch.add(student.getId(), student.getCourse(), student.getName(),
+                    student.getRegistrationNumber(), student.getExaminationNumber(), student.getCourse());
+        }
+
+        Map<String, ProfessorEntry> byUserId = new HashMap<>(professors.size() * 2);
+        NgramSearchIndex.Builder professorSearch = new NgramSearchIndex.Builder(professors.size());
+        for (AdminProfessor professor : professors) {
+            ProfessorEntry entry = new ProfessorEntry(professor.getName(), professor.getUserId(),
+                    professor.getDepartment());
+            byUserId.put(entry.userId(), entry);
+            professorSearch.add(professor.getId(), professor.getDepartment(), professor.getName(),
+                    professor.getUserId(), professor.getDepartment());
+        }
+
+        snapshot = new Snapshot(Map.copyOf(byRegistrationNumber), Map.copyOf(byExaminationNumber),
+                Map.copyOf(byUserId), studentSearch.build(), professorSearch.build());
+        logger.debug("Admin roster index rebuilt: {} students, {} professors", students.size(), professors.size());
+    }
+
+    /**
+     * Immutable view of a roster student. Name and course compare
+     * case-insensitively to match the database collation.
+     */
+    public record StudentEntry(String name, String registrationNumber, String examinationNumber, String course) {
+
+        boolean matches(String name, String examinationNumber, String course) {
+            return this.examinationNumber.equals(examinationNumber)
+                    && this.name.equalsIgnoreCase(name)
+                    && this.course.equalsIgnoreCase(course);
+        }
+    }
+
+    /**
+     * Immutable view of a roster professor
+     */
+    public record ProfessorEntry(String name, String userId, String department) {
+
+        boolean matches(String name, String department) {
+            return this.name.equalsIgnoreCase(name) && this.department.equalsIgnoreCase(department);
+        }
+    }
+
+    private record Snapshot(Map<String, StudentEntry> studentsByRegistrationNumber,
+                            Map<String, StudentEntry> studentsByExaminationNumber,
+                            Map<String, ProfessorEntry> professorsByUserId,
+                            NgramSearchIndex studentSearch,
+                            NgramSearchIndex professorSearch) {
+
+        static final Snapshot EMPTY = new Snapshot(Map.of(), Map.of(), Map.of(),
+                NgramSearchIndex.EMPTY, NgramSearchIndex.EMPTY);
+    }
+}
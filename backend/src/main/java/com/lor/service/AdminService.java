@@ -1,5 +1,6 @@
 package com.lor.service;
 
+import com.lor.dto.*;
 import com.lor.entity.*;
 import com.lor.repository.*;
 import org.slf4j.Logger;
@@ -12,6 +13,7 @@ import org.springframework.web.multipart.MultipartFile;
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
 import java.util.*;
+import java.util.function.Function;
 
 /**
  * Service for admin operations
@@ -40,27 +42,14 @@ public class AdminService {
     @Autowired
     private AuthService authService;
 
-    /**
-     * Get all admin students
-     */
-    public List<AdminStudent> getAllAdminStudents() {
-        User currentUser = authService.getCurrentUser();
-        if (!currentUser.isAdmin()) {
-            throw new RuntimeException("Only admin can access this data");
-        }
-        return adminStudentRepository.findAll();
-    }
+    @Autowired
+    private AdminRosterIndex adminRosterIndex;
 
-    /**
-     * Get all admin professors
-     */
-    public List<AdminProfessor> getAllAdminProfessors() {
-        User currentUser = authService.getCurrentUser();
-        if (!currentUser.isAdmin()) {
-            throw new RuntimeException("Only admin can access this data");
-        }
-        return adminProfessorRepository.findAll();
-    }
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    private RequestStatisticsCounter requestStatisticsCounter;
 
     /**
      * Add new admin student
@@ -81,6 +70,8 @@ public class AdminService {
         }
 
         AdminStudent savedStudent = adminStudentRepository.save(adminStudent);
+        adminRosterIndex.rebuildAfterCommit();
+        referenceDataCache.invalidateCourses();
         logger.info("Admin student added: {}", savedStudent.getName());
         return savedStudent;
     }
@@ -100,6 +91,8 @@ public class AdminService {
         }
 
         AdminProfessor savedProfessor = adminProfessorRepository.save(adminProfessor);
+        adminRosterIndex.rebuildAfterCommit();
+        referenceDataCache.invalidateDepartments();
         logger.info("Admin professor added: {}", savedProfessor.getName());
         return savedProfessor;
     }
@@ -133,6 +126,8 @@ public class AdminService {
         existingStudent.setCourse(adminStudent.getCourse());
 
         AdminStudent updatedStudent = adminStudentRepository.save(existingStudent);
+        adminRosterIndex.rebuildAfterCommit();
+        referenceDataCache.invalidateCourses();
         logger.info("Admin student updated: {}", updatedStudent.getName());
         return updatedStudent;
     }
@@ -160,6 +155,8 @@ public class AdminService {
         existingProfessor.setDepartment(adminProfessor.getDepartment());
 
         AdminProfessor updatedProfessor = adminProfessorRepository.save(existingProfessor);
+        adminRosterIndex.rebuildAfterCommit();
+        referenceDataCache.invalidateDepartments();
         logger.info("Admin professor updated: {}", updatedProfessor.getName());
         return updatedProfessor;
     }
@@ -177,6 +174,8 @@ public class AdminService {
                 .orElseThrow(() -> new RuntimeException("Admin student not found"));
 
         adminStudentRepository.delete(adminStudent);
+        adminRosterIndex.rebuildAfterCommit();
+        referenceDataCache.invalidateCourses();
         logger.info("Admin student deleted: {}", adminStudent.getName());
     }
 
@@ -193,12 +192,15 @@ public class AdminService {
                 .orElseThrow(() -> new RuntimeException("Admin professor not found"));
 
         adminProfessorRepository.delete(adminProfessor);
+        adminRosterIndex.rebuildAfterCommit();
+        referenceDataCache.invalidateDepartments();
         logger.info("Admin professor deleted: {}", adminProfessor.getName());
     }
 
     /**
      * Get all registered users
      */
+    @Transactional(readOnly = true)
     public List<User> getAllUsers() {
         User currentUser = authService.getCurrentUser();
         if (!currentUser.isAdmin()) {
@@ -207,70 +209,46 @@ public class AdminService {
         return userRepository.findAll();
     }
 
-    /**
-     * Get users by role
-     */
-    public List<User> getUsersByRole(Role role) {
-        User currentUser = authService.getCurrentUser();
-        if (!currentUser.isAdmin()) {
-            throw new RuntimeException("Only admin can access user data");
-        }
-        return userRepository.findByRole(role);
-    }
-
     /**
      * Get dashboard statistics
      */
-    public Map<String, Object> getDashboardStatistics() {
+    @Transactional(readOnly = true)
+    public DashboardStatisticsResponse getDashboardStatistics() {
         User currentUser = authService.getCurrentUser();
         if (!currentUser.isAdmin()) {
             throw new RuntimeException("Only admin can access dashboard statistics");
         }
 
-        Map<String, Object> stats = new HashMap<>();
-
-        // User statistics
-        Map<String, Object> userStats = new HashMap<>();
-        userStats.put("totalStudents", userRepository.countByRole(Role.STUDENT));
-        userStats.put("totalProfessors", userRepository.countByRole(Role.PROFESSOR));
-        userStats.put("totalAdmins", userRepository.countByRole(Role.ADMIN));
-        userStats.put("activeStudents", userRepository.countByRoleAndIsActive(Role.STUDENT, true));
-        userStats.put("activeProfessors", userRepository.countByRoleAndIsActive(Role.PROFESSOR, true));
-
-        // Admin data statistics
-        Map<String, Object> adminDataStats = new HashMap<>();
-        adminDataStats.put("totalAdminStudents", adminStudentRepository.countTotalStudents());
-        adminDataStats.put("totalAdminProfessors", adminProfessorRepository.countTotalProfessors());
-
-        // LOR request statistics
-        Map<String, Object> requestStats = new HashMap<>();
-        requestStats.put("totalRequests", lorRequestRepository.count());
-        requestStats.put("pendingRequests", lorRequestRepository.countByStatus(RequestStatus.PENDING));
-        requestStats.put("approvedRequests", lorRequestRepository.countByStatus(RequestStatus.APPROVED));
-        requestStats.put("rejectedRequests", lorRequestRepository.countByStatus(RequestStatus.REJECTED));
-
-        // PDF statistics
-        Map<String, Object> pdfStats = new HashMap<>();
-        pdfStats.put("totalPdfs", pdfDocumentRepository.countTotalPdfs());
-        pdfStats.put("totalFileSize", pdfDocumentRepository.getTotalFileSize());
-
-        stats.put("users", userStats);
-        stats.put("adminData", adminDataStats);
-        stats.put("requests", requestStats);
-        stats.put("pdfs", pdfStats);
-
-        return stats;
+        return new DashboardStatisticsResponse(
+                new DashboardStatisticsResponse.Users(
+                        userRepository.countByRole(Role.STUDENT),
+                        userRepository.countByRole(Role.PROFESSOR),
+                        userRepository.countByRole(Role.ADMIN),
+                        userRepository.countByRoleAndIsActive(Role.STUDENT, true),
+                        userRepository.countByRoleAndIsActive(Role.PROFESSOR, true)),
+                new DashboardStatisticsResponse.AdminData(
+                        adminStudentRepository.countTotalStudents(),
+                        adminProfessorRepository.countTotalProfessors()),
+                // LOR request statistics (kept current from outbox events)
+                new DashboardStatisticsResponse.Requests(
+                        requestStatisticsCounter.total(),
+                        requestStatisticsCounter.count(RequestStatus.PENDING),
+                        requestStatisticsCounter.count(RequestStatus.APPROVED),
+                        requestStatisticsCounter.count(RequestStatus.REJECTED)),
+                new DashboardStatisticsResponse.Pdfs(
+                        pdfDocumentRepository.countTotalPdfs(),
+                        pdfDocumentRepository.getTotalFileSize()));
     }
 
     /**
      * Get all departments
      */
-    public List<String> getAllDepartments() {
+    public ReferenceDataCache.Snapshot<String> getAllDepartments() {
         User currentUser = authService.getCurrentUser();
         if (!currentUser.isAdmin()) {
             throw new RuntimeException("Only admin can access department data");
         }
-        return adminProfessorRepository.findAllDepartments();
+        return referenceDataCache.getDepartments();
     }
 
     /**
@@ -291,6 +269,9 @@ public class AdminService {
 
         user.setIsActive(!user.getIsActive());
         User updatedUser = userRepository.save(user);
+        if (updatedUser.isProfessor()) {
+            referenceDataCache.invalidateProfessors();
+        }
 
         logger.info("User status changed: {} - Active: {}", user.getEmail(), user.getIsActive());
         return updatedUser;
@@ -336,13 +317,12 @@ public class AdminService {
     /**
      * Bulk import students from CSV file
      */
-    public Map<String, Object> bulkImportStudents(MultipartFile file) throws Exception {
+    public BulkImportResponse bulkImportStudents(MultipartFile file) throws Exception {
         User currentUser = authService.getCurrentUser();
         if (!currentUser.isAdmin()) {
             throw new RuntimeException("Only admin can perform bulk import");
         }
 
-        Map<String, Object> result = new HashMap<>();
         List<String> errors = new ArrayList<>();
         List<AdminStudent> successfulImports = new ArrayList<>();
         int totalRows = 0;
@@ -424,28 +404,26 @@ public class AdminService {
             }
         }
 
-        result.put("success", errorCount == 0);
-        result.put("totalRows", totalRows);
-        result.put("successCount", successCount);
-        result.put("errorCount", errorCount);
-        result.put("errors", errors);
-        result.put("importedStudents", successfulImports);
-        result.put("message", String.format("Import completed: %d successful, %d errors out of %d total rows",
-                                           successCount, errorCount, totalRows));
+        if (successCount > 0) {
+            adminRosterIndex.rebuildAfterCommit();
+            referenceDataCache.invalidateCourses();
+        }
 
-        return result;
+        List<AdminStudentResponse> imported = successfulImports.stream().map(AdminStudentResponse::from).toList();
+        return new BulkImportResponse(errorCount == 0, totalRows, successCount, errorCount, errors,
+                imported, null, String.format("Import completed: %d successful, %d errors out of %d total rows",
+                        successCount, errorCount, totalRows));
     }
 
     /**
      * Bulk import professors from CSV file
      */
-    public Map<String, Object> bulkImportProfessors(MultipartFile file) throws Exception {
+    public BulkImportResponse bulkImportProfessors(MultipartFile file) throws Exception {
         User currentUser = authService.getCurrentUser();
         if (!currentUser.isAdmin()) {
             throw new RuntimeException("Only admin can perform bulk import");
         }
 
-        Map<String, Object> result = new HashMap<>();
         List<String> errors = new ArrayList<>();
         List<AdminProfessor> successfulImports = new ArrayList<>();
         int totalRows = 0;
@@ -531,16 +509,15 @@ public class AdminService {
             }
         }
 
-        result.put("success", errorCount == 0);
-        result.put("totalRows", totalRows);
-        result.put("successCount", successCount);
-        result.put("errorCount", errorCount);
-        result.put("errors", errors);
-        result.put("importedProfessors", successfulImports);
-        result.put("message", String.format("Import completed: %d successful, %d errors out of %d total rows",
-                                           successCount, errorCount, totalRows));
+        if (successCount > 0) {
+            adminRosterIndex.rebuildAfterCommit();
+            referenceDataCache.invalidateDepartments();
+        }
 
-        return result;
+        List<AdminProfessorResponse> imported = successfulImports.stream().map(AdminProfessorResponse::from).toList();
+        return new BulkImportResponse(errorCount == 0, totalRows, successCount, errorCount, errors,
+                null, imported, String.format("Import completed: %d successful, %d errors out of %d total rows",
+                        successCount, errorCount, totalRows));
     }
 
     // ===== SEARCH FUNCTIONALITY =====
@@ -548,105 +525,113 @@ public class AdminService {
     /**
      * Search admin students with filters
      */
-    public Map<String, Object> searchAdminStudents(String searchTerm, String course, int page, int size) {
+    @Transactional(readOnly = true)
+    public AdminStudentPageResponse searchAdminStudents(String searchTerm, String course, int page, int size) {
         User currentUser = authService.getCurrentUser();
         if (!currentUser.isAdmin()) {
             throw new RuntimeException("Only admin can search student data");
         }
 
-        Map<String, Object> result = new HashMap<>();
-        List<AdminStudent> students;
+        List<AdminStudent> paginatedStudents;
         long totalCount;
+        boolean allCourses = course == null || course.trim().isEmpty() || "all".equalsIgnoreCase(course);
 
         if (searchTerm == null || searchTerm.trim().isEmpty()) {
             // No search term, filter by course only
-            if (course == null || course.trim().isEmpty() || "all".equalsIgnoreCase(course)) {
+            List<AdminStudent> students;
+            if (allCourses) {
                 students = adminStudentRepository.findAll();
                 totalCount = adminStudentRepository.count();
             } else {
                 students = adminStudentRepository.findByCourseContainingIgnoreCase(course);
                 totalCount = students.size();
             }
+            paginatedStudents = paginate(students, page, size);
         } else {
-            // Search with term and optional course filter
-            if (course == null || course.trim().isEmpty() || "all".equalsIgnoreCase(course)) {
-                students = adminStudentRepository.searchStudents(searchTerm.trim());
-                totalCount = students.size();
-            } else {
-                students = adminStudentRepository.searchStudentsWithCourse(searchTerm.trim(), course);
-                totalCount = students.size();
-            }
+            // Ranked search over the in-memory roster index, then load only the requested page
+            List<Long> matchingIds = adminRosterIndex.searchStudents(searchTerm, allCourses ? null : course);
+            totalCount = matchingIds.size();
+            paginatedStudents = loadInOrder(paginate(matchingIds, page, size),
+                    adminStudentRepository::findAllById, AdminStudent::getId);
         }
 
-        // Apply pagination
-        int startIndex = page * size;
-        int endIndex = Math.min(startIndex + size, students.size());
-        List<AdminStudent> paginatedStudents = students.subList(startIndex, endIndex);
-
-        result.put("students", paginatedStudents);
-        result.put("totalCount", totalCount);
-        result.put("currentPage", page);
-        result.put("totalPages", (int) Math.ceil((double) totalCount / size));
-        result.put("pageSize", size);
-
-        return result;
+        return new AdminStudentPageResponse(paginatedStudents.stream().map(AdminStudentResponse::from).toList(),
+                totalCount, page, (int) Math.ceil((double) totalCount / size), size);
     }
 
     /**
      * Search admin professors with filters
      */
-    public Map<String, Object> searchAdminProfessors(String searchTerm, String department, int page, int size) {
+    @Transactional(readOnly = true)
+    public AdminProfessorPageResponse searchAdminProfessors(String searchTerm, String department, int page, int size) {
         User currentUser = authService.getCurrentUser();
         if (!currentUser.isAdmin()) {
             throw new RuntimeException("Only admin can search professor data");
         }
 
-        Map<String, Object> result = new HashMap<>();
-        List<AdminProfessor> professors;
+        List<AdminProfessor> paginatedProfessors;
         long totalCount;
+        boolean allDepartments = department == null || department.trim().isEmpty()
+                || "all".equalsIgnoreCase(department);
 
         if (searchTerm == null || searchTerm.trim().isEmpty()) {
             // No search term, filter by department only
-            if (department == null || department.trim().isEmpty() || "all".equalsIgnoreCase(department)) {
+            List<AdminProfessor> professors;
+            if (allDepartments) {
                 professors = adminProfessorRepository.findAll();
                 totalCount = adminProfessorRepository.count();
             } else {
                 professors = adminProfessorRepository.findByDepartment(department);
                 totalCount = professors.size();
             }
+            paginatedProfessors = paginate(professors, page, size);
         } else {
-            // Search with term and optional department filter
-            if (department == null || department.trim().isEmpty() || "all".equalsIgnoreCase(department)) {
-                professors = adminProfessorRepository.searchProfessors(searchTerm.trim());
-                totalCount = professors.size();
-            } else {
-                professors = adminProfessorRepository.searchProfessorsWithDepartment(searchTerm.trim(), department);
-                totalCount = professors.size();
-            }
+            // Ranked search over the in-memory roster index, then load only the requested page
+            List<Long> matchingIds = adminRosterIndex.searchProfessors(searchTerm, allDepartments ? null : department);
+            totalCount = matchingIds.size();
+            paginatedProfessors = loadInOrder(paginate(matchingIds, page, size),
+                    adminProfessorRepository::findAllById, AdminProfessor::getId);
         }
 
-        // Apply pagination
-        int startIndex = page * size;
-        int endIndex = Math.min(startIndex + size, professors.size());
-        List<AdminProfessor> paginatedProfessors = professors.subList(startIndex, endIndex);
+        return new AdminProfessorPageResponse(paginatedProfessors.stream().map(AdminProfessorResponse::from).toList(),
+                totalCount, page, (int) Math.ceil((double) totalCount / size), size);
+    }
 
-        result.put("professors", paginatedProfessors);
-        result.put("totalCount", totalCount);
-        result.put("currentPage", page);
-        result.put("totalPages", (int) Math.ceil((double) totalCount / size));
-        result.put("pageSize", size);
+    /**
+     * Return one page of a list, or an empty list past the end
+     */
+    private <T> List<T> paginate(List<T> items, int page, int size) {
+        int startIndex = Math.min(page * size, items.size());
+        int endIndex = Math.min(startIndex + size, items.size());
+        return items.subList(startIndex, endIndex);
+    }
 
-        return result;
+    /**
+     * Load entities by id, preserving the order of the given ids
+     */
+    private <T> List<T> loadInOrder(List<Long> ids, Function<List<Long>, List<T>> loader, Function<T, Long> idOf) {
+        Map<Long, T> byId = new HashMap<>();
+        for (T entity : loader.apply(ids)) {
+            byId.put(idOf.apply(entity), entity);
+        }
+        List<T> ordered = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            T entity = byId.get(id);
+            if (entity != null) {
+                ordered.add(entity);
+            }
+        }
+        return ordered;
     }
 
     /**
      * Get all unique courses from admin students
      */
-    public List<String> getAllCourses() {
+    public ReferenceDataCache.Snapshot<String> getAllCourses() {
         User currentUser = authService.getCurrentUser();
         if (!currentUser.isAdmin()) {
             throw new RuntimeException("Only admin can access course data");
         }
-        return adminStudentRepository.findAllCourses();
+        return referenceDataCache.getCourses();
     }
 }
@@ -0,0 +1,29 @@
+package com.lor.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Helper to defer in-memory side effects until the surrounding transaction commits
+ */
+final class AfterCommit {
+
+    private AfterCommit() {}
+
+    /**
+     * Run the action once the current transaction commits, or immediately
+     * when called outside a transaction
+     */
+    static void run(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -8,7 +8,8 @@ import com.lor.security.UserPrincipal;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.AccountStatusUserDetailsChecker;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -16,7 +17,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Optional;
+import java.util.List;
 
 /**
  * Service for authentication operations
@@ -27,9 +28,6 @@ public class AuthService {
 
     private static final Logger logger = LoggerFactory.getLogger(AuthService.class);
 
-    @Autowired
-    private AuthenticationManager authenticationManager;
-
     @Autowired
     private UserRepository userRepository;
 
@@ -39,12 +37,20 @@ public class AuthService {
     @Autowired
     private AdminProfessorRepository adminProfessorRepository;
 
+    @Autowired
+    private AdminRosterIndex adminRosterIndex;
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
     @Autowired
     private PasswordEncoder passwordEncoder;
 
     @Autowired
     private JwtUtils jwtUtils;
 
+    private final AccountStatusUserDetailsChecker accountStatusChecker = new AccountStatusUserDetailsChecker();
+
     /**
      * Authenticate user and generate JWT token
      */
@@ -57,9 +63,15 @@ public class AuthService {
             throw new RuntimeException("User not found with provided credentials");
         }
 
-        // Authenticate using email and password
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(user.getEmail(), loginRequest.getPassword()));
+        // Authenticate against the already loaded user instead of re-fetching it by email
+        UserPrincipal principal = UserPrincipal.create(user);
+        accountStatusChecker.check(principal);
+        if (!passwordEncoder.matches(loginRequest.getPassword(), principal.getPassword())) {
+            throw new BadCredentialsException("Bad credentials");
+        }
+
+        Authentication authentication = new UsernamePasswordAuthenticationToken(
+                principal, null, principal.getAuthorities());
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
         String jwt = jwtUtils.generateJwtToken(authentication);
@@ -89,12 +101,14 @@ public class AuthService {
     public JwtResponse registerStudent(StudentRegistrationRequest request) {
         logger.info("Attempting to register student: {}", request.getName());
 
-        // Validate against admin data
-        Optional<AdminStudent> adminStudent = adminStudentRepository.validateStudentData(
-                request.getName(), request.getRegistrationNumber(), 
-                request.getExaminationNumber(), request.getCourse());
+        // Validate against admin data (in-memory roster first, database on a miss)
+        boolean validStudent = adminRosterIndex.findStudent(request.getName(), request.getRegistrationNumber(),
+                request.getExaminationNumber(), request.getCourse()) != null
+                || adminStudentRepository.validateStudentData(
+                        request.getName(), request.getRegistrationNumber(),
+                        request.getExaminationNumber(), request.getCourse()).isPresent();
 
-        if (adminStudent.isEmpty()) {
+        if (!validStudent) {
             throw new RuntimeException("Student data validation failed. Please check your details with admin.");
         }
 
@@ -140,11 +154,13 @@ public class AuthService {
     public JwtResponse registerProfessor(ProfessorRegistrationRequest request) {
         logger.info("Attempting to register professor: {}", request.getName());
 
-        // Validate against admin data
-        Optional<AdminProfessor> adminProfessor = adminProfessorRepository.validateProfessorData(
-                request.getName(), request.getUserId(), request.getDepartment());
+        // Validate against admin data (in-memory roster first, database on a miss)
+        boolean validProfessor = adminRosterIndex.findProfessor(
+                request.getName(), request.getUserId(), request.getDepartment()) != null
+                || adminProfessorRepository.validateProfessorData(
+                        request.getName(), request.getUserId(), request.getDepartment()).isPresent();
 
-        if (adminProfessor.isEmpty()) {
+        if (!validProfessor) {
             throw new RuntimeException("Professor data validation failed. Please check your details with admin.");
         }
 
@@ -168,6 +184,7 @@ public class AuthService {
         professor.setIsActive(true);
 
         User savedProfessor = userRepository.save(professor);
+        referenceDataCache.invalidateProfessors();
 
         // Generate JWT token
         String jwt = jwtUtils.generateTokenFromEmail(savedProfessor.getEmail(), savedProfessor.getId(), 
@@ -186,21 +203,30 @@ public class AuthService {
      * Find user by login credentials (email, examination number, or user ID)
      */
     private User findUserByLoginCredentials(String username) {
-        // Try to find by email first
-        Optional<User> userByEmail = userRepository.findByEmail(username);
-        if (userByEmail.isPresent()) {
-            return userByEmail.get();
+        List<User> candidates = userRepository.findByLoginIdentifier(username);
+        if (candidates.isEmpty()) {
+            return null;
         }
 
-        // Try to find by examination number (for students)
-        Optional<User> userByExamNumber = userRepository.findByExaminationNumber(username);
-        if (userByExamNumber.isPresent()) {
-            return userByExamNumber.get();
+        // Preserve the original precedence: email, then examination number, then user ID
+        User byExamNumber = null;
+        User byUserId = null;
+        for (User candidate : candidates) {
+            if (username.equals(candidate.getEmail())) {
+                return candidate;
+            }
+            if (byExamNumber == null && username.equals(candidate.getExaminationNumber())) {
+                byExamNumber = candidate;
+            }
+            if (byUserId == null && username.equals(candidate.getUserId())) {
+                byUserId = candidate;
+            }
         }
 
-        // Try to find by user ID (for professors)
-        Optional<User> userByUserId = userRepository.findByUserId(username);
-        return userByUserId.orElse(null);
+        if (byExamNumber != null) {
+            return byExamNumber;
+        }
+        return byUserId != null ? byUserId : candidates.get(0);
     }
 
     /**
@@ -219,6 +245,7 @@ public class AuthService {
     /**
      * Check if email is available
      */
+    @Transactional(readOnly = true)
     public boolean isEmailAvailable(String email) {
         return !userRepository.existsByEmail(email);
     }
@@ -226,6 +253,7 @@ public class AuthService {
     /**
      * Check if examination number is available
      */
+    @Transactional(readOnly = true)
     public boolean isExaminationNumberAvailable(String examinationNumber) {
         return !userRepository.existsByExaminationNumber(examinationNumber);
     }
@@ -233,6 +261,7 @@ public class AuthService {
     /**
      * Check if user ID is available
      */
+    @Transactional(readOnly = true)
     public boolean isUserIdAvailable(String userId) {
         return !userRepository.existsByUserId(userId);
     }
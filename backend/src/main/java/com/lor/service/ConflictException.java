@@ -0,0 +1,12 @@
+package com.lor.service;
+
+/**
+ * Thrown when a state change loses a race with a concurrent change to the same
+ * record. Controllers map it to HTTP 409 Conflict.
+ */
+public class ConflictException extends RuntimeException {
+
+    public ConflictException(String message) {
+        super(message);
+    }
+}
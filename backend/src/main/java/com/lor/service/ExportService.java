@@ -0,0 +1,186 @@
+package com.lor.service;
+
+import com.lor.entity.User;
+import com.lor.repository.AdminProfessorRepository;
+import com.lor.repository.AdminStudentRepository;
+import com.lor.repository.LorRequestRepository;
+import com.lor.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Service for streaming CSV exports of rosters, users and LOR requests.
+ *
+ * Rows are read as scalar projections in pages keyed on id (id > last id seen)
+ * and written straight to the response, so no entities are materialized and
+ * memory stays flat regardless of row count. Each page is read in its own short
+ * read-only transaction and the connection is returned before the page is
+ * written, so a slow download never holds a transaction, snapshot, metadata
+ * lock or connection. Rows are exported as they were when their page was read;
+ * each row appears at most once.
+ */
+@Service
+public class ExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportService.class);
+
+    private static final String[] STUDENT_HEADER =
+            {"id", "name", "registrationNumber", "examinationNumber", "course", "createdAt"};
+
+    private static final String[] PROFESSOR_HEADER =
+            {"id", "name", "userId", "department", "createdAt"};
+
+    private static final String[] USER_HEADER =
+            {"id", "name", "email", "role", "registrationNumber", "examinationNumber", "course",
+             "userId", "department", "isActive", "createdAt"};
+
+    private static final String[] LOR_REQUEST_HEADER =
+            {"id", "studentName", "registrationNumber", "examinationNumber", "course", "semester",
+             "session", "classRollNumber", "instituteCompany", "professorName", "professorDepartment",
+             "status", "requestedAt", "processedAt"};
+
+    @Autowired
+    private AdminStudentRepository adminStudentRepository;
+
+    @Autowired
+    private AdminProfessorRepository adminProfessorRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LorRequestRepository lorRequestRepository;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${export.page-size:1000}")
+    private int pageSize;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    public void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Write the admin student roster as CSV
+     */
+    public long exportAdminStudents(OutputStream out) {
+        requireAdmin();
+        return write("admin students", STUDENT_HEADER, adminStudentRepository::findExportRows, out);
+    }
+
+    /**
+     * Write the admin professor roster as CSV
+     */
+    public long exportAdminProfessors(OutputStream out) {
+        requireAdmin();
+        return write("admin professors", PROFESSOR_HEADER, adminProfessorRepository::findExportRows, out);
+    }
+
+    /**
+     * Write all registered users as CSV (passwords are never selected)
+     */
+    public long exportUsers(OutputStream out) {
+        requireAdmin();
+        return write("users", USER_HEADER, userRepository::findExportRows, out);
+    }
+
+    /**
+     * Write all LOR requests as CSV
+     */
+    public long exportLorRequests(OutputStream out) {
+        requireAdmin();
+        return write("LOR requests", LOR_REQUEST_HEADER, lorRequestRepository::findExportRows, out);
+    }
+
+    private void requireAdmin() {
+        User currentUser = authService.getCurrentUser();
+        if (!currentUser.isAdmin()) {
+            throw new RuntimeException("Only admin can export data");
+        }
+    }
+
+    private long write(String name, String[] header, PageQuery query, OutputStream out) {
+        long count = 0;
+        try {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writeRow(writer, header);
+
+            long lastId = 0;
+            List<Object[]> page;
+            do {
+                long afterId = lastId;
+                page = readOnlyTransaction.execute(status -> query.find(afterId, PageRequest.of(0, pageSize)));
+                for (Object[] row : page) {
+                    writeRow(writer, row);
+                    // Every export selects the id first
+                    lastId = ((Number) row[0]).longValue();
+                }
+                count += page.size();
+                // Push each page to the client instead of holding it in the buffer
+                writer.flush();
+            } while (page.size() == pageSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write " + name + " export", e);
+        }
+        logger.info("Exported {} {} rows", count, name);
+        return count;
+    }
+
+    private void writeRow(Writer writer, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(escape(values[i]));
+        }
+        writer.write("\r\n");
+    }
+
+    private String escape(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        // Stop spreadsheet applications from evaluating user-entered text as a formula
+        if (value instanceof String && !text.isEmpty() && "=+-@".indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return "\"" + text.replace("\"", "\"\"") + "\"";
+        }
+        return text;
+    }
+
+    /**
+     * One page of export rows after the given id, in id order
+     */
+    @FunctionalInterface
+    private interface PageQuery {
+        List<Object[]> find(Long afterId, Pageable pageable);
+    }
+}
@@ -0,0 +1,209 @@
+package com.lor.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.lor.config.ReplicaRouting;
+import com.lor.entity.IdempotencyRecord;
+import com.lor.repository.IdempotencyRecordRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Stores responses by Idempotency-Key so retried requests replay the first
+ * outcome instead of executing again.
+ *
+ * Completed responses live in a bounded in-memory cache backed by the
+ * idempotency_keys table, which also carries them across restarts and
+ * instances. A key is claimed in the table before execution; duplicates that
+ * arrive on this instance while the first is running wait for its result, and
+ * duplicates on another instance are told the request is still in progress.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Value("${idempotency.max-entries:10000}")
+    private long maxEntries;
+
+    @Value("${idempotency.ttl:PT24H}")
+    private Duration ttl;
+
+    @Value("${idempotency.in-progress-timeout:PT2M}")
+    private Duration inProgressTimeout;
+
+    private Cache<String, StoredResponse> completed;
+
+    private final Map<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        completed = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * Decide what to do with a request carrying the given (user-scoped) key.
+     * An EXECUTE decision must be followed by complete() or release().
+     */
+    public Decision begin(String key, String requestHash) {
+        // A duplicate that waited on an execution which then failed gets one more go
+        for (int attempt = 0; attempt < 2; attempt++) {
+            StoredResponse cached = completed.getIfPresent(key);
+            if (cached != null) {
+                return Decision.replay(cached, requestHash);
+            }
+
+            CompletableFuture<StoredResponse> mine = new CompletableFuture<>();
+            CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(key, mine);
+            if (running != null) {
+                StoredResponse result = await(running);
+                if (result != null) {
+                    return Decision.replay(result, requestHash);
+                }
+                continue;
+            }
+
+            return claim(key, requestHash, mine);
+        }
+        return Decision.IN_PROGRESS;
+    }
+
+    /**
+     * Store the response of an executed request and release waiting duplicates
+     */
+    public void complete(String key, StoredResponse response) {
+        try {
+            idempotencyRecordRepository.complete(key, response.statusCode(), response.contentType(),
+                    response.body(), LocalDateTime.now());
+        } catch (Exception e) {
+            // The in-memory copy still covers retries that reach this instance
+            logger.warn("Failed to persist idempotent response for key {}: {}", key, e.getMessage());
+        }
+        completed.put(key, response);
+        finish(key, response);
+    }
+
+    /**
+     * Give up a claim after a failed execution so the client can retry
+     */
+    public void release(String key) {
+        try {
+            idempotencyRecordRepository.release(key);
+        } catch (Exception e) {
+            logger.warn("Failed to release idempotency key {}: {}", key, e.getMessage());
+        }
+        finish(key, null);
+    }
+
+    /**
+     * Delete stored keys past their time to live
+     */
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval:PT1H}")
+    public void purgeExpired() {
+        int deleted = idempotencyRecordRepository.deleteOlderThan(LocalDateTime.now().minus(ttl));
+        if (deleted > 0) {
+            logger.info("Purged {} expired idempotency keys", deleted);
+        }
+    }
+
+    private Decision claim(String key, String requestHash, CompletableFuture<StoredResponse> mine) {
+        try {
+            // Read the primary, where claims and stored responses are written
+            Optional<IdempotencyRecord> existing =
+                    ReplicaRouting.onPrimary(() -> idempotencyRecordRepository.findById(key));
+            if (existing.isPresent() && existing.get().isCompleted()) {
+                StoredResponse stored = StoredResponse.from(existing.get());
+                completed.put(key, stored);
+                finish(key, stored);
+                return Decision.replay(stored, requestHash);
+            }
+            if (existing.isPresent()) {
+                // Another instance is executing it, unless that claim was abandoned
+                int released = idempotencyRecordRepository.releaseIfStale(
+                        key, LocalDateTime.now().minus(inProgressTimeout));
+                if (released == 0) {
+                    finish(key, null);
+                    return Decision.IN_PROGRESS;
+                }
+            }
+
+            idempotencyRecordRepository.claim(key, requestHash, LocalDateTime.now());
+            return Decision.EXECUTE;
+        } catch (DataIntegrityViolationException e) {
+            // Lost the claim race to another instance
+            finish(key, null);
+            return Decision.IN_PROGRESS;
+        } catch (RuntimeException e) {
+            finish(key, null);
+            throw e;
+        }
+    }
+
+    private StoredResponse await(CompletableFuture<StoredResponse> running) {
+        try {
+            return running.get(inProgressTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException | TimeoutException e) {
+            return null;
+        }
+    }
+
+    private void finish(String key, StoredResponse response) {
+        CompletableFuture<StoredResponse> running = inFlight.remove(key);
+        if (running != null) {
+            running.complete(response);
+        }
+    }
+
+    /**
+     * A stored response; requestHash identifies the request that produced it
+     */
+    public record StoredResponse(String requestHash, int statusCode, String contentType, byte[] body) {
+
+        static StoredResponse from(IdempotencyRecord record) {
+            return new StoredResponse(record.getRequestHash(), record.getStatusCode(), record.getContentType(),
+                    record.getResponseBody() != null ? record.getResponseBody() : new byte[0]);
+        }
+    }
+
+    /**
+     * Outcome of begin(): execute the request, replay a stored response, reject a
+     * key reused for a different request, or report that it is still running elsewhere
+     */
+    public record Decision(Type type, StoredResponse response) {
+
+        public enum Type { EXECUTE, REPLAY, MISMATCH, IN_PROGRESS }
+
+        static final Decision EXECUTE = new Decision(Type.EXECUTE, null);
+        static final Decision IN_PROGRESS = new Decision(Type.IN_PROGRESS, null);
+        static final Decision MISMATCH = new Decision(Type.MISMATCH, null);
+
+        static Decision replay(StoredResponse response, String requestHash) {
+            return response.requestHash().equals(requestHash) ? new Decision(Type.REPLAY, response) : MISMATCH;
+        }
+    }
+}
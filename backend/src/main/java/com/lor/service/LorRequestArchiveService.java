@@ -0,0 +1,112 @@
+package com.lor.service;
+
+import com.lor.repository.ArchivedLorRequestRepository;
+import com.lor.repository.ArchivedPdfDocumentRepository;
+import com.lor.repository.LorRequestRepository;
+import com.lor.repository.PdfDocumentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves LOR requests and their PDFs of closed academic years from the live
+ * tables into lor_requests_archive and pdf_documents_archive.
+ *
+ * The live tables keep the current academic year plus the configured number of
+ * previous ones; pending requests are never archived. Each batch is copied and
+ * deleted in its own transaction, and the copy takes shared locks on the source
+ * rows, so a concurrent change to a row waits and then finds it gone. Archived
+ * requests get a tombstone so delta-sync clients drop them from their lists.
+ */
+@Service
+public class LorRequestArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LorRequestArchiveService.class);
+
+    @Autowired
+    private LorRequestRepository lorRequestRepository;
+
+    @Autowired
+    private PdfDocumentRepository pdfDocumentRepository;
+
+    @Autowired
+    private ArchivedLorRequestRepository archivedLorRequestRepository;
+
+    @Autowired
+    private ArchivedPdfDocumentRepository archivedPdfDocumentRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${archive.retained-academic-years:1}")
+    private int retainedAcademicYears;
+
+    @Value("${archive.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * Archive every closed academic year that is out of the retention window
+     */
+    @Scheduled(cron = "${archive.cron:0 30 2 * * *}")
+    public void archiveClosedYears() {
+        if (!enabled) {
+            return;
+        }
+
+        LocalDateTime cutoff = AcademicYears.startOf(LocalDateTime.now()).minusYears(retainedAcademicYears);
+        LocalDateTime earliest;
+        while ((earliest = lorRequestRepository.findEarliestClosedRequestedBefore(cutoff)) != null) {
+            LocalDateTime yearStart = AcademicYears.startOf(earliest);
+            LocalDateTime yearEnd = yearStart.plusYears(1);
+            String academicYear = AcademicYears.of(earliest);
+
+            int archived;
+            try {
+                archived = archiveYear(academicYear, yearStart, yearEnd);
+            } catch (DataIntegrityViolationException e) {
+                // Another instance is archiving the same rows; it will finish the job
+                logger.info("Skipping archive run, academic year {} is being archived elsewhere", academicYear);
+                return;
+            }
+            logger.info("Archived {} LOR requests of academic year {}", archived, academicYear);
+        }
+    }
+
+    private int archiveYear(String academicYear, LocalDateTime yearStart, LocalDateTime yearEnd) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        int total = 0;
+        int moved;
+        do {
+            moved = template.execute(status -> {
+                List<Long> ids = lorRequestRepository.findClosedIdsRequestedBetween(
+                        yearStart, yearEnd, PageRequest.of(0, batchSize));
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+
+                LocalDateTime now = LocalDateTime.now();
+                int copied = archivedLorRequestRepository.archive(ids, academicYear, now);
+                archivedPdfDocumentRepository.archive(ids, academicYear, now);
+                lorRequestRepository.insertTombstones(ids, now);
+                pdfDocumentRepository.deleteByLorRequestIds(ids);
+                lorRequestRepository.deleteByIds(ids);
+                return copied;
+            });
+            total += moved;
+        } while (moved > 0);
+        return total;
+    }
+}
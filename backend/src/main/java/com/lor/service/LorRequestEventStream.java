@@ -0,0 +1,353 @@
+package com.lor.service;
+
+import com.lor.dto.LorRequestEventDto;
+import com.lor.entity.OutboxEvent;
+import com.lor.entity.User;
+import com.lor.repository.OutboxEventRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server-Sent Events feed of LOR request changes for students and professors.
+ *
+ * Each outbox event is pushed to the connections of the request's student and
+ * professor, using the outbox id as the SSE event id. A reconnecting client that
+ * sends Last-Event-ID first receives the events it missed from the outbox; if
+ * those are no longer retained it receives a single "reset" event and should
+ * reload its lists.
+ *
+ * Every instance receives every outbox event, so a user's connections get the
+ * event whichever instance they are attached to. Delivering only queues the
+ * event on each connection; a small pool of sender threads writes the queues,
+ * one thread per connection at a time so its events stay in order. A client that
+ * stops reading ties up at most one sender until the container's write timeout,
+ * and once its queue is full it is disconnected rather than let the queue grow.
+ */
+@Service
+public class LorRequestEventStream implements OutboxEventSubscriber {
+
+    private static final Logger logger = LoggerFactory.getLogger(LorRequestEventStream.class);
+
+    private static final String EVENT_NAME = "lor-request";
+    private static final String RESET_EVENT_NAME = "reset";
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Value("${sse.timeout:PT30M}")
+    private Duration timeout;
+
+    @Value("${sse.reconnect-delay:PT5S}")
+    private Duration reconnectDelay;
+
+    @Value("${sse.max-connections-per-user:5}")
+    private int maxConnectionsPerUser;
+
+    @Value("${sse.max-replay-events:500}")
+    private int maxReplayEvents;
+
+    @Value("${sse.max-queued-events:100}")
+    private int maxQueuedEvents;
+
+    @Value("${sse.sender-threads:4}")
+    private int senderThreads;
+
+    private final Map<Long, ConcurrentLinkedDeque<Connection>> connections = new ConcurrentHashMap<>();
+
+    private ExecutorService sender;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        sender = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "sse-sender-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+    }
+
+    /**
+     * Open an event stream for the current user, replaying events after lastEventId when given
+     */
+    public SseEmitter subscribe(Long lastEventId) {
+        User currentUser = authService.getCurrentUser();
+        if (!currentUser.isStudent() && !currentUser.isProfessor()) {
+            throw new RuntimeException("Only students and professors can subscribe to request events");
+        }
+
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Connection connection = new Connection(currentUser.getId(), emitter);
+        register(connection);
+
+        // Register before replaying so nothing published meanwhile is lost; live
+        // events are buffered until the replay has been sent
+        if (lastEventId != null) {
+            connection.finishReplay(replay(currentUser, lastEventId));
+        } else {
+            connection.finishReplay(List.of());
+        }
+        return emitter;
+    }
+
+    @Override
+    public void onEvent(OutboxEvent event) {
+        LorRequestEventDto payload = LorRequestEventDto.from(event);
+        deliver(event.getStudentId(), payload);
+        deliver(event.getProfessorId(), payload);
+    }
+
+    /**
+     * Send a comment line to every open connection so proxies keep them open
+     * and dead connections are detected
+     */
+    @Scheduled(fixedRateString = "${sse.heartbeat-interval:PT25S}")
+    public void heartbeat() {
+        connections.values().forEach(userConnections -> userConnections.forEach(Connection::heartbeat));
+    }
+
+    /**
+     * Get the number of open connections
+     */
+    public int getConnectionCount() {
+        return connections.values().stream().mapToInt(ConcurrentLinkedDeque::size).sum();
+    }
+
+    private void register(Connection connection) {
+        ConcurrentLinkedDeque<Connection> userConnections =
+                connections.computeIfAbsent(connection.userId, id -> new ConcurrentLinkedDeque<>());
+        userConnections.addLast(connection);
+
+        // Tabs that were closed without a clean disconnect would otherwise pile up
+        while (userConnections.size() > maxConnectionsPerUser) {
+            Connection oldest = userConnections.pollFirst();
+            if (oldest != null) {
+                oldest.close();
+            }
+        }
+
+        connection.emitter.onCompletion(() -> {
+            connection.markClosed();
+            unregister(connection);
+        });
+        connection.emitter.onTimeout(() -> {
+            connection.markClosed();
+            unregister(connection);
+        });
+        connection.emitter.onError(e -> {
+            connection.markClosed();
+            unregister(connection);
+        });
+    }
+
+    private void unregister(Connection connection) {
+        connections.computeIfPresent(connection.userId, (id, userConnections) -> {
+            userConnections.remove(connection);
+            return userConnections.isEmpty() ? null : userConnections;
+        });
+    }
+
+    private void deliver(Long userId, LorRequestEventDto payload) {
+        ConcurrentLinkedDeque<Connection> userConnections = connections.get(userId);
+        if (userConnections != null) {
+            userConnections.forEach(connection -> connection.deliver(payload));
+        }
+    }
+
+    /**
+     * Load the events a user missed, or null when the gap cannot be replayed
+     */
+    private List<LorRequestEventDto> replay(User user, long lastEventId) {
+        Long oldestRetained = outboxEventRepository.findMinId();
+        if (oldestRetained != null && oldestRetained > lastEventId + 1) {
+            return null;
+        }
+
+        PageRequest limit = PageRequest.of(0, maxReplayEvents + 1);
+        List<OutboxEvent> missed = user.isStudent()
+                ? outboxEventRepository.findByStudentIdAndIdGreaterThanOrderByIdAsc(user.getId(), lastEventId, limit)
+                : outboxEventRepository.findByProfessorIdAndIdGreaterThanOrderByIdAsc(user.getId(), lastEventId, limit);
+        if (missed.size() > maxReplayEvents) {
+            return null;
+        }
+        return missed.stream().map(LorRequestEventDto::from).toList();
+    }
+
+    private final class Connection {
+
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final Queue<SseEmitter.SseEventBuilder> queue = new ArrayDeque<>();
+        private List<LorRequestEventDto> buffered = new ArrayList<>();
+        private boolean draining;
+        private boolean closed;
+
+        Connection(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        synchronized void deliver(LorRequestEventDto payload) {
+            if (buffered != null) {
+                buffered.add(payload);
+            } else {
+                enqueue(toEvent(payload), false);
+            }
+        }
+
+        /**
+         * Queue a heartbeat unless the connection already has writes pending
+         */
+        synchronized void heartbeat() {
+            if (buffered == null && queue.isEmpty() && !draining) {
+                enqueue(SseEmitter.event().comment("heartbeat"), false);
+            }
+        }
+
+        /**
+         * Queue the replayed events (null means reset), then any live events that
+         * arrived meanwhile and were not part of the replay, and switch to live mode
+         */
+        synchronized void finishReplay(List<LorRequestEventDto> replayed) {
+            enqueue(SseEmitter.event().reconnectTime(reconnectDelay.toMillis()).comment("connected"), true);
+
+            Set<Long> replayedIds = new HashSet<>();
+            if (replayed == null) {
+                enqueue(SseEmitter.event().name(RESET_EVENT_NAME).data("{}", MediaType.APPLICATION_JSON), true);
+            } else {
+                for (LorRequestEventDto payload : replayed) {
+                    replayedIds.add(payload.getEventId());
+                    enqueue(toEvent(payload), true);
+                }
+            }
+
+            for (LorRequestEventDto payload : buffered) {
+                if (!replayedIds.contains(payload.getEventId())) {
+                    enqueue(toEvent(payload), true);
+                }
+            }
+            buffered = null;
+        }
+
+        /**
+         * Close the connection; an emitter that is being written to is completed
+         * by its sender once the write returns
+         */
+        void close() {
+            boolean complete;
+            synchronized (this) {
+                complete = !closed && !draining;
+                markClosed();
+            }
+            unregister(this);
+            if (complete) {
+                emitter.complete();
+            }
+        }
+
+        synchronized void markClosed() {
+            closed = true;
+            queue.clear();
+        }
+
+        /**
+         * Queue an event and make sure a sender is draining the queue. A client that
+         * falls max-queued-events behind is disconnected and catches up from the
+         * outbox when it reconnects with Last-Event-ID.
+         */
+        private void enqueue(SseEmitter.SseEventBuilder event, boolean replay) {
+            if (closed) {
+                return;
+            }
+            if (!replay && queue.size() >= maxQueuedEvents) {
+                logger.debug("Dropping event stream connection for user {}: client is not reading", userId);
+                markClosed();
+                unregister(this);
+                return;
+            }
+            queue.add(event);
+            if (!draining) {
+                draining = true;
+                sender.execute(this::drain);
+            }
+        }
+
+        /**
+         * Write queued events in order; runs on one sender thread at a time and
+         * writes without holding the lock, so delivering never waits for the socket
+         */
+        private void drain() {
+            while (true) {
+                SseEmitter.SseEventBuilder event;
+                boolean complete;
+                synchronized (this) {
+                    event = queue.poll();
+                    complete = closed;
+                    if (event == null) {
+                        draining = false;
+                    }
+                }
+                if (complete) {
+                    synchronized (this) {
+                        draining = false;
+                    }
+                    emitter.complete();
+                    return;
+                }
+                if (event == null) {
+                    return;
+                }
+                try {
+                    emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    logger.debug("Dropping event stream connection for user {}: {}", userId, e.getMessage());
+                    synchronized (this) {
+                        markClosed();
+                        draining = false;
+                    }
+                    unregister(this);
+                    emitter.complete();
+                    return;
+                }
+            }
+        }
+
+        private SseEmitter.SseEventBuilder toEvent(LorRequestEventDto payload) {
+            return SseEmitter.event()
+                    .id(String.valueOf(payload.getEventId()))
+                    .name(EVENT_NAME)
+                    .data(payload, MediaType.APPLICATION_JSON);
+        }
+    }
+}
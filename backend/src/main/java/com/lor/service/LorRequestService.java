@@ -2,22 +2,34 @@ package com.lor.service;
 
 import com.lor.dto.LorRequestDto;
 import com.lor.dto.LorPreviewDto;
+import com.lor.dto.LorRequestChangesDto;
+import com.lor.dto.ProfessorSummaryDto;
 import com.lor.entity.*;
 import com.lor.repository.*;
 import com.lor.security.UserPrincipal;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -29,6 +41,8 @@ public class LorRequestService {
 
     private static final Logger logger = LoggerFactory.getLogger(LorRequestService.class);
 
+    private static final String PENDING_REQUEST_UNIQUE_INDEX = "uk_lor_requests_student_professor_pending";
+
     @Autowired
     private LorRequestRepository lorRequestRepository;
 
@@ -44,6 +58,39 @@ public class LorRequestService {
     @Autowired
     private PdfGenerationService pdfGenerationService;
 
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    private OutboxEventPublisher outboxEventPublisher;
+
+    @Autowired
+    private LorRequestTombstoneRepository lorRequestTombstoneRepository;
+
+    @Autowired
+    private ArchivedLorRequestRepository archivedLorRequestRepository;
+
+    @Autowired
+    private ArchivedPdfDocumentRepository archivedPdfDocumentRepository;
+
+    @Autowired
+    private SequenceAllocator sequenceAllocator;
+
+    @Autowired
+    private PdfPrerenderService pdfPrerenderService;
+
+    @Value("${sxc-reference.block-size:10}")
+    private int sxcReferenceBlockSize;
+
+    @Value("${delta-sync.tombstone-retention:P30D}")
+    private Duration tombstoneRetention;
+
+    @Value("${delta-sync.overlap:PT5S}")
+    private Duration deltaSyncOverlap;
+
+    @Value("${replica.max-lag:PT0S}")
+    private Duration replicaMaxLag;
+
     /**
      * Create a new LOR request
      */
@@ -63,14 +110,6 @@ public class LorRequestService {
             throw new RuntimeException("Invalid professor selected");
         }
 
-        // Check if student already has a pending request with this professor
-        Optional<LorRequest> existingRequest = lorRequestRepository
-                .findPendingRequestByStudentAndProfessor(currentUser.getId(), professor.getId());
-
-        if (existingRequest.isPresent()) {
-            throw new RuntimeException("You already have a pending request with this professor");
-        }
-
         // Create new LOR request
         LorRequest lorRequest = new LorRequest();
         lorRequest.setStudent(currentUser);
@@ -86,41 +125,63 @@ public class LorRequestService {
         lorRequest.setStatus(RequestStatus.PENDING);
         lorRequest.setRequestedAt(LocalDateTime.now());
 
-        LorRequest savedRequest = lorRequestRepository.save(lorRequest);
+        // Insert first: the unique index on (student, professor, pending_key) rejects a
+        // second pending request atomically, so concurrent submissions cannot both succeed
+        LorRequest savedRequest;
+        try {
+            savedRequest = lorRequestRepository.saveAndFlush(lorRequest);
+        } catch (DataIntegrityViolationException e) {
+            if (isViolationOf(e, PENDING_REQUEST_UNIQUE_INDEX)) {
+                throw new ConflictException("You already have a pending request with this professor");
+            }
+            throw e;
+        }
+        outboxEventPublisher.record(savedRequest, LorRequestEventType.CREATED);
 
         logger.info("LOR request created successfully with ID: {}", savedRequest.getId());
         return convertToDto(savedRequest);
     }
 
     /**
-     * Get all LOR requests for current student
+     * Get LOR requests for current student; archived academic years only when asked for
      */
-    public List<LorRequestDto> getStudentRequests() {
+    @Transactional(readOnly = true)
+    public List<LorRequestDto> getStudentRequests(boolean includeArchived) {
         User currentUser = authService.getCurrentUser();
         if (!currentUser.isStudent()) {
             throw new RuntimeException("Only students can view their requests");
         }
 
         List<LorRequest> requests = lorRequestRepository.findByStudentId(currentUser.getId());
-        return requests.stream().map(this::convertToDto).collect(Collectors.toList());
+        List<LorRequestDto> dtos = requests.stream().map(this::convertToDto).collect(Collectors.toList());
+        if (includeArchived) {
+            dtos.addAll(convertArchivedToDtos(archivedLorRequestRepository.findByStudentId(currentUser.getId())));
+        }
+        return dtos;
     }
 
     /**
-     * Get all LOR requests for current professor
+     * Get LOR requests for current professor; archived academic years only when asked for
      */
-    public List<LorRequestDto> getProfessorRequests() {
+    @Transactional(readOnly = true)
+    public List<LorRequestDto> getProfessorRequests(boolean includeArchived) {
         User currentUser = authService.getCurrentUser();
         if (!currentUser.isProfessor()) {
             throw new RuntimeException("Only professors can view their requests");
         }
 
         List<LorRequest> requests = lorRequestRepository.findByProfessorId(currentUser.getId());
-        return requests.stream().map(this::convertToDto).collect(Collectors.toList());
+        List<LorRequestDto> dtos = requests.stream().map(this::convertToDto).collect(Collectors.toList());
+        if (includeArchived) {
+            dtos.addAll(convertArchivedToDtos(archivedLorRequestRepository.findByProfessorId(currentUser.getId())));
+        }
+        return dtos;
     }
 
     /**
      * Get pending requests for current professor
      */
+    @Transactional(readOnly = true)
     public List<LorRequestDto> getPendingRequestsForProfessor() {
         User currentUser = authService.getCurrentUser();
         if (!currentUser.isProfessor()) {
@@ -134,6 +195,7 @@ public class LorRequestService {
     /**
      * Get approved requests for current student
      */
+    @Transactional(readOnly = true)
     public List<LorRequestDto> getApprovedRequestsForStudent() {
         User currentUser = authService.getCurrentUser();
         if (!currentUser.isStudent()) {
@@ -155,22 +217,32 @@ public class LorRequestService {
             throw new RuntimeException("Only professors can approve requests");
         }
 
-        LorRequest lorRequest = lorRequestRepository.findById(requestId)
-                .orElseThrow(() -> new RuntimeException("LOR request not found"));
-
-        // Verify professor owns this request
-        if (!lorRequest.getProfessor().getId().equals(currentUser.getId())) {
-            throw new RuntimeException("You can only approve your own requests");
-        }
-
-        if (!lorRequest.isPending()) {
-            throw new RuntimeException("Request has already been processed");
-        }
-
         // Use empty string if no comments provided for approval
         String approvalComments = (comments != null && !comments.trim().isEmpty()) ? comments : "";
-        lorRequest.approve(approvalComments);
-        LorRequest savedRequest = lorRequestRepository.save(lorRequest);
+        LocalDateTime approvedAt = LocalDateTime.now();
+
+        // Reserved before the request row is locked, so a reservation that waits on or
+        // retries the counter row never holds up others waiting on the request; an
+        // approval that fails afterwards leaves a gap in the serials
+        LorRequest pending = lorRequestRepository.findById(requestId)
+                .orElseThrow(() -> new RuntimeException("LOR request not found"));
+        boolean approvable = pending.getStatus() == RequestStatus.PENDING
+                && pending.getProfessor().getId().equals(currentUser.getId());
+        String sxcReferenceNumber = approvable
+                ? allocateSxcReferenceNumber(pending.getCourse(), approvedAt)
+                : null;
+
+        LorRequest savedRequest = transitionFromPending(
+                requestId, currentUser, RequestStatus.APPROVED, approvalComments, "approve", approvedAt);
+        // Fixed from now on, so the preview and the generated PDF carry the same number
+        savedRequest.setSxcReferenceNumber(sxcReferenceNumber);
+        outboxEventPublisher.record(savedRequest, LorRequestEventType.APPROVED);
+
+        // Render the default letter in the background, so generating it unchanged skips the render
+        // The stored time, which the column may have truncated, is what generation hashes
+        LorPreviewDto defaultLetter = defaultPreview(savedRequest);
+        LocalDateTime processedAt = savedRequest.getProcessedAt();
+        AfterCommit.run(() -> pdfPrerenderService.submit(requestId, defaultLetter, processedAt));
 
         logger.info("LOR request approved successfully: {}", requestId);
         return convertToDto(savedRequest);
@@ -187,23 +259,35 @@ public class LorRequestService {
             throw new RuntimeException("Only professors can reject requests");
         }
 
-        LorRequest lorRequest = lorRequestRepository.findById(requestId)
-                .orElseThrow(() -> new RuntimeException("LOR request not found"));
+        LorRequest savedRequest = transitionFromPending(
+                requestId, currentUser, RequestStatus.REJECTED, comments, "reject", LocalDateTime.now());
+        outboxEventPublisher.record(savedRequest, LorRequestEventType.REJECTED);
 
-        // Verify professor owns this request
-        if (!lorRequest.getProfessor().getId().equals(currentUser.getId())) {
-            throw new RuntimeException("You can only reject your own requests");
-        }
+        logger.info("LOR request rejected successfully: {}", requestId);
+        return convertToDto(savedRequest);
+    }
 
-        if (!lorRequest.isPending()) {
-            throw new RuntimeException("Request has already been processed");
-        }
+    /**
+     * Apply a PENDING -> final status transition with a single conditional UPDATE,
+     * so concurrent approve/reject/delete calls cannot both pass the pending check
+     * without taking row locks up front. Returns the updated request.
+     */
+    private LorRequest transitionFromPending(Long requestId, User professor, RequestStatus status,
+                                             String comments, String action, LocalDateTime processedAt) {
+        int updated = lorRequestRepository.transitionFromPending(
+                requestId, professor.getId(), status, comments, processedAt);
 
-        lorRequest.reject(comments);
-        LorRequest savedRequest = lorRequestRepository.save(lorRequest);
+        // The update cleared the persistence context, so this reads the committed row
+        LorRequest lorRequest = lorRequestRepository.findById(requestId)
+                .orElseThrow(() -> new RuntimeException("LOR request not found"));
 
-        logger.info("LOR request rejected successfully: {}", requestId);
-        return convertToDto(savedRequest);
+        if (updated == 0) {
+            if (!lorRequest.getProfessor().getId().equals(professor.getId())) {
+                throw new RuntimeException("You can only " + action + " your own requests");
+            }
+            throw new ConflictException("Request has already been processed");
+        }
+        return lorRequest;
     }
 
     /**
@@ -289,20 +373,96 @@ public class LorRequestService {
         }
 
         // Delete the LOR request
-        lorRequestRepository.delete(lorRequest);
+        outboxEventPublisher.record(lorRequest, LorRequestEventType.DELETED);
+        lorRequestTombstoneRepository.save(new LorRequestTombstone(lorRequest));
+        try {
+            // Flush now so a concurrent approve/reject surfaces here as a version conflict
+            lorRequestRepository.delete(lorRequest);
+            lorRequestRepository.flush();
+        } catch (ObjectOptimisticLockingFailureException e) {
+            throw new ConflictException("Request was changed by someone else, please reload and try again");
+        }
         logger.info("LOR request deleted successfully: {}", requestId);
     }
 
+    /**
+     * Get the current user's requests changed since the watermark, and the ids of
+     * those deleted since then. Without a usable watermark the full list is returned.
+     */
+    @Transactional(readOnly = true)
+    public LorRequestChangesDto getRequestChanges(String watermark) {
+        User currentUser = authService.getCurrentUser();
+        if (!currentUser.isStudent() && !currentUser.isProfessor()) {
+            throw new RuntimeException("Only students and professors can sync requests");
+        }
+
+        // Overlap the next window so rows committed late with an earlier updated_at,
+        // or not yet applied on a read replica, are still picked up; re-sent rows
+        // are harmless upserts on the client
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        String nextWatermark = now.minus(deltaSyncOverlap).minus(replicaMaxLag).toString();
+
+        LocalDateTime since = parseWatermark(watermark);
+        if (since == null || since.isBefore(now.minus(tombstoneRetention))) {
+            List<LorRequest> all = currentUser.isStudent()
+                    ? lorRequestRepository.findByStudentId(currentUser.getId())
+                    : lorRequestRepository.findByProfessorId(currentUser.getId());
+            return new LorRequestChangesDto(all.stream().map(this::convertToDto).collect(Collectors.toList()),
+                    List.of(), nextWatermark, true);
+        }
+
+        List<LorRequest> changed;
+        List<Long> deleted;
+        if (currentUser.isStudent()) {
+            changed = lorRequestRepository.findStudentChangesSince(currentUser.getId(), since);
+            deleted = lorRequestTombstoneRepository.findStudentDeletionsSince(currentUser.getId(), since);
+        } else {
+            changed = lorRequestRepository.findProfessorChangesSince(currentUser.getId(), since);
+            deleted = lorRequestTombstoneRepository.findProfessorDeletionsSince(currentUser.getId(), since);
+        }
+        return new LorRequestChangesDto(changed.stream().map(this::convertToDto).collect(Collectors.toList()),
+                deleted, nextWatermark, false);
+    }
+
+    /**
+     * Delete tombstones that are older than any watermark still accepted
+     */
+    @Scheduled(fixedDelayString = "${delta-sync.tombstone-purge-interval:PT6H}")
+    public void purgeTombstones() {
+        int deleted = lorRequestTombstoneRepository.deleteOlderThan(LocalDateTime.now().minus(tombstoneRetention));
+        if (deleted > 0) {
+            logger.info("Purged {} LOR request tombstones", deleted);
+        }
+    }
+
+    private boolean isViolationOf(DataIntegrityViolationException e, String constraintName) {
+        String message = e.getMostSpecificCause().getMessage();
+        return message != null && message.contains(constraintName);
+    }
+
+    private LocalDateTime parseWatermark(String watermark) {
+        if (watermark == null || watermark.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(watermark);
+        } catch (DateTimeParseException e) {
+            // Unknown watermarks fall back to a full sync
+            return null;
+        }
+    }
+
     /**
      * Get all active professors for dropdown
      */
-    public List<User> getActiveProfessors() {
-        return userRepository.findAllActiveProfessors();
+    public ReferenceDataCache.Snapshot<ProfessorSummaryDto> getActiveProfessors() {
+        return referenceDataCache.getProfessors();
     }
 
     /**
      * Get request statistics for dashboard
      */
+    @Transactional(readOnly = true)
     public Object getRequestStatistics() {
         User currentUser = authService.getCurrentUser();
 
@@ -320,6 +480,7 @@ public class LorRequestService {
     /**
      * Get LOR preview data for editing
      */
+    @Transactional(readOnly = true)
     public LorPreviewDto getLorPreview(Long requestId) {
         logger.info("Getting LOR preview for request ID: {}", requestId);
 
@@ -340,9 +501,19 @@ public class LorRequestService {
             throw new RuntimeException("Request must be approved before preview");
         }
 
+        LorPreviewDto preview = defaultPreview(lorRequest);
+
+        logger.info("LOR preview generated successfully for request ID: {}", requestId);
+        return preview;
+    }
+
+    /**
+     * Build the preview of the default letter of an approved request
+     */
+    private LorPreviewDto defaultPreview(LorRequest lorRequest) {
         // Generate default content
         String defaultContent = generateDefaultContent(lorRequest);
-        String referenceNumber = generateSXCReferenceNumber(lorRequest);
+        String referenceNumber = lorRequest.getSxcReferenceNumber();
         String currentDate = LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd MMMM yyyy"));
 
         LorPreviewDto preview = new LorPreviewDto();
@@ -376,10 +547,43 @@ public class LorRequestService {
         preview.setReferenceNumber(referenceNumber);
         preview.setCurrentDate(currentDate);
 
-        logger.info("LOR preview generated successfully for request ID: {}", requestId);
         return preview;
     }
 
+    /**
+     * Render the edited preview as a PDF without storing it; generating the PDF
+     * from the same content afterwards reuses this render
+     */
+    @Transactional(readOnly = true)
+    public byte[] renderPreviewPdf(Long requestId, LorPreviewDto previewDto) {
+        User currentUser = authService.getCurrentUser();
+        if (!currentUser.isProfessor()) {
+            throw new RuntimeException("Only professors can preview LOR content");
+        }
+
+        LorRequest lorRequest = lorRequestRepository.findById(requestId)
+                .orElseThrow(() -> new RuntimeException("LOR request not found"));
+
+        // Verify professor owns this request
+        if (!lorRequest.getProfessor().getId().equals(currentUser.getId())) {
+            throw new RuntimeException("You can only preview your own requests");
+        }
+
+        if (!lorRequest.isApproved()) {
+            throw new RuntimeException("Request must be approved before preview");
+        }
+
+        // The reference number is assigned at approval and cannot be edited
+        previewDto.setReferenceNumber(lorRequest.getSxcReferenceNumber());
+
+        try {
+            return pdfGenerationService.renderCustomLetter(lorRequest, previewDto);
+        } catch (IOException e) {
+            logger.error("Failed to render preview PDF for request ID: {}", requestId, e);
+            throw new RuntimeException("Failed to render preview PDF: " + e.getMessage());
+        }
+    }
+
     /**
      * Generate PDF with custom content
      */
@@ -403,6 +607,9 @@ public class LorRequestService {
             throw new RuntimeException("Request must be approved before generating PDF");
         }
 
+        // The reference number is assigned at approval and cannot be edited
+        previewDto.setReferenceNumber(lorRequest.getSxcReferenceNumber());
+
         // Generate PDF with custom content
         try {
             String referenceNumber = pdfGenerationService.generatePdfWithCustomContent(lorRequest, previewDto);
@@ -451,32 +658,26 @@ public class LorRequestService {
     }
 
     /**
-     * Generate St. Xavier's College format reference number
+     * Allocate the next St. Xavier's College reference number for an approved request
+     * Format: SXC/<course code>/Internship/<academic year>/<serial>, e.g. SXC/BCA/Internship/2024-25/007
      */
-    private String generateSXCReferenceNumber(LorRequest lorRequest) {
-        LocalDateTime now = LocalDateTime.now();
-        String academicYear = getAcademicYear(now);
-        String date = now.format(DateTimeFormatter.ofPattern("d.M.yyyy"));
-
-        return String.format("SXC/BCA/Internship/%s/%s/%s",
-                academicYear,
-                lorRequest.getClassRollNumber(),
-                date);
+    private String allocateSxcReferenceNumber(String course, LocalDateTime approvedAt) {
+        String academicYear = AcademicYears.of(approvedAt);
+        String courseCode = courseCode(course);
+        long serial = sequenceAllocator.next("sxc/" + academicYear + "/" + courseCode, sxcReferenceBlockSize);
+        return String.format("SXC/%s/Internship/%s/%03d", courseCode, academicYear, serial);
     }
 
     /**
-     * Get academic year in format 2024-25
+     * Course code used in reference numbers: the course name reduced to upper-case
+     * letters and digits (the V11 migration derives the same code in SQL)
      */
-    private String getAcademicYear(LocalDateTime date) {
-        int year = date.getYear();
-        int month = date.getMonthValue();
-
-        // Academic year starts in July (month 7)
-        if (month >= 7) {
-            return year + "-" + String.valueOf(year + 1).substring(2);
-        } else {
-            return (year - 1) + "-" + String.valueOf(year).substring(2);
+    private String courseCode(String course) {
+        String code = course == null ? "" : course.toUpperCase(Locale.ROOT).replaceAll("[^A-Z0-9]", "");
+        if (code.length() > 20) {
+            code = code.substring(0, 20);
         }
+        return code.isEmpty() ? "GEN" : code;
     }
 
     /**
@@ -514,6 +715,48 @@ public class LorRequestService {
         return dto;
     }
 
+    /**
+     * Convert archived requests to DTOs, loading their archived PDFs in one query
+     */
+    private List<LorRequestDto> convertArchivedToDtos(List<ArchivedLorRequest> archivedRequests) {
+        if (archivedRequests.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ArchivedPdfDocument> pdfs = archivedPdfDocumentRepository
+                .findByLorRequestIdIn(archivedRequests.stream().map(ArchivedLorRequest::getId).toList())
+                .stream()
+                .collect(Collectors.toMap(ArchivedPdfDocument::getLorRequestId, Function.identity()));
+
+        return archivedRequests.stream().map(archived -> {
+            LorRequestDto dto = new LorRequestDto();
+            dto.setId(archived.getId());
+            dto.setProfessorId(archived.getProfessorId());
+            dto.setProfessorName(archived.getProfessor().getName());
+            dto.setProfessorDepartment(archived.getProfessor().getDepartment());
+            dto.setStudentName(archived.getStudentName());
+            dto.setRegistrationNumber(archived.getRegistrationNumber());
+            dto.setExaminationNumber(archived.getExaminationNumber());
+            dto.setCourse(archived.getCourse());
+            dto.setSemester(archived.getSemester());
+            dto.setSession(archived.getSession());
+            dto.setClassRollNumber(archived.getClassRollNumber());
+            dto.setInstituteCompany(archived.getInstituteCompany());
+            dto.setStatus(archived.getStatus());
+            dto.setProfessorComments(archived.getProfessorComments());
+            dto.setRequestedAt(archived.getRequestedAt());
+            dto.setProcessedAt(archived.getProcessedAt());
+            dto.setArchived(true);
+
+            ArchivedPdfDocument pdf = pdfs.get(archived.getId());
+            dto.setHasPdf(pdf != null);
+            if (pdf != null) {
+                dto.setPdfReferenceNumber(pdf.getReferenceNumber());
+                dto.setPdfFileName(pdf.getFileName());
+            }
+            return dto;
+        }).collect(Collectors.toList());
+    }
+
     private Object getStudentStatistics(Long studentId) {
         // Implementation for student statistics
         return new Object(); // Placeholder
@@ -0,0 +1,211 @@
+package com.lor.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable in-process trigram index over a small set of text fields per document.
+ *
+ * Queries of three or more characters intersect trigram posting lists and then
+ * verify the surviving candidates; shorter queries scan the normalized fields,
+ * which is still cheap at roster scale. Matches are ranked exact field match,
+ * then field prefix, then word prefix, then plain substring, with earlier
+ * fields weighted higher.
+ */
+final class NgramSearchIndex {
+
+    private static final int GRAM = 3;
+
+    private static final int SCORE_EXACT = 400;
+    private static final int SCORE_PREFIX = 300;
+    private static final int SCORE_WORD_PREFIX = 200;
+    private static final int SCORE_SUBSTRING = 100;
+
+    static final NgramSearchIndex EMPTY = new Builder(0).build();
+
+    private final long[] ids;
+    private final String[] sortKeys;
+    private final String[][] fields;
+    private final String[] filterValues;
+    private final Map<String, int[]> postings;
+
+    private NgramSearchIndex(long[] ids, String[] sortKeys, String[][] fields, String[] filterValues,
+                             Map<String, int[]> postings) {
+        this.ids = ids;
+        this.sortKeys = sortKeys;
+        this.fields = fields;
+        this.filterValues = filterValues;
+        this.postings = postings;
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    /**
+     * Search for documents whose fields contain the term, optionally restricted
+     * to documents whose filter value contains the filter. Returns ids in rank order.
+     */
+    List<Long> search(String term, String filter) {
+        String query = normalize(term);
+        String filterQuery = filter == null ? null : normalize(filter);
+
+        List<int[]> hits = new ArrayList<>();
+        for (int doc : candidates(query)) {
+            if (filterQuery != null && !filterValues[doc].contains(filterQuery)) {
+                continue;
+            }
+            int score = score(doc, query);
+            if (score > 0) {
+                hits.add(new int[] {doc, score});
+            }
+        }
+
+        hits.sort(Comparator.<int[]>comparingInt(hit -> -hit[1])
+                .thenComparing(hit -> sortKeys[hit[0]]));
+
+        List<Long> result = new ArrayList<>(hits.size());
+        for (int[] hit : hits) {
+            result.add(ids[hit[0]]);
+        }
+        return result;
+    }
+
+    private int[] candidates(String query) {
+        if (query.length() < GRAM) {
+            int[] all = new int[ids.length];
+            Arrays.setAll(all, i -> i);
+            return all;
+        }
+
+        // Intersect posting lists, smallest first, so the work is bounded by the rarest gram
+        List<int[]> lists = new ArrayList<>();
+        for (String gram : grams(query)) {
+            int[] posting = postings.get(gram);
+            if (posting == null) {
+                return new int[0];
+            }
+            lists.add(posting);
+        }
+        lists.sort(Comparator.comparingInt(list -> list.length));
+
+        int[] result = lists.get(0);
+        for (int i = 1; i < lists.size() && result.length > 0; i++) {
+            result = intersect(result, lists.get(i));
+        }
+        return result;
+    }
+
+    private int score(int doc, String query) {
+        String[] docFields = fields[doc];
+        int best = 0;
+        for (int i = 0; i < docFields.length; i++) {
+            String value = docFields[i];
+            int score;
+            if (value.equals(query)) {
+                score = SCORE_EXACT;
+            } else if (value.startsWith(query)) {
+                score = SCORE_PREFIX;
+            } else if (value.contains(" " + query)) {
+                score = SCORE_WORD_PREFIX;
+            } else if (value.contains(query)) {
+                score = SCORE_SUBSTRING;
+            } else {
+                continue;
+            }
+            // Earlier fields (name, identifiers) outrank later ones (course, department)
+            best = Math.max(best, score + (docFields.length - i));
+        }
+        return best;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private static Set<String> grams(String value) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= value.length(); i++) {
+            grams.add(value.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Collects documents and produces an immutable index
+     */
+    static final class Builder {
+
+        private final List<Long> ids;
+        private final List<String> sortKeys;
+        private final List<String[]> fields;
+        private final List<String> filterValues;
+
+        Builder(int expectedSize) {
+            ids = new ArrayList<>(expectedSize);
+            sortKeys = new ArrayList<>(expectedSize);
+            fields = new ArrayList<>(expectedSize);
+            filterValues = new ArrayList<>(expectedSize);
+        }
+
+        /**
+         * Add a document. The first field is also used as the tie-break sort key.
+         */
+        Builder add(long id, String filterValue, String... values) {
+            String[] normalized = new String[values.length];
+            for (int i = 0; i < values.length; i++) {
+                normalized[i] = normalize(values[i]);
+            }
+            ids.add(id);
+            sortKeys.add(normalized.length > 0 ? normalized[0] : "");
+            fields.add(normalized);
+            filterValues.add(normalize(filterValue));
+            return this;
+        }
+
+        NgramSearchIndex build() {
+            Map<String, List<Integer>> grouped = new HashMap<>();
+            for (int doc = 0; doc < fields.size(); doc++) {
+                Set<String> docGrams = new HashSet<>();
+                for (String value : fields.get(doc)) {
+                    docGrams.addAll(grams(value));
+                }
+                for (String gram : docGrams) {
+                    grouped.computeIfAbsent(gram, key -> new ArrayList<>()).add(doc);
+                }
+            }
+
+            // Documents are added in order, so every posting list is already sorted
+            Map<String, int[]> postings = new HashMap<>(grouped.size() * 2);
+            grouped.forEach((gram, docs) -> postings.put(gram, docs.stream().mapToInt(Integer::intValue).toArray()));
+
+            long[] idArray = ids.stream().mapToLong(Long::longValue).toArray();
+            return new NgramSearchIndex(idArray, sortKeys.toArray(new String[0]),
+                    fields.toArray(new String[0][]), filterValues.toArray(new String[0]), Map.copyOf(postings));
+        }
+    }
+}
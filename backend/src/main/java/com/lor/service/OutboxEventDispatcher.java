@@ -0,0 +1,240 @@
+package com.lor.service;
+
+import com.lor.config.ReplicaRouting;
+import com.lor.entity.OutboxEvent;
+import com.lor.repository.OutboxEventRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Publishes outbox events to in-process subscribers in id order.
+ *
+ * Subscribers that keep per-instance state are fed by every instance: each one
+ * reads the events past its own high-water mark, without locks and outside any
+ * transaction once read, so every instance sees every event. Ids are allocated
+ * at insert but become visible at commit, so an id can show up after a higher
+ * one; the mark therefore only advances over contiguous ids, and a gap left by
+ * a rolled-back transaction is given up on after a timeout.
+ *
+ * Work that must run only once is done by the instance that claims the row with
+ * SELECT ... FOR UPDATE SKIP LOCKED, and the row is marked published only when
+ * every such subscriber succeeded; otherwise it is claimed again later.
+ * Writers wake the dispatcher after commit; a periodic poll picks up events
+ * written by other instances and anything missed, such as after a crash.
+ */
+@Service
+public class OutboxEventDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxEventDispatcher.class);
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private List<OutboxEventSubscriber> subscribers;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${outbox.dispatch.batch-size:100}")
+    private int batchSize;
+
+    @Value("${outbox.dispatch.gap-timeout:PT1M}")
+    private Duration gapTimeout;
+
+    @Value("${outbox.retention:P7D}")
+    private Duration retention;
+
+    private final AtomicBoolean wakeupPending = new AtomicBoolean();
+
+    private TransactionTemplate transactionTemplate;
+    private TransactionTemplate readTemplate;
+    private ExecutorService executor;
+    private List<OutboxEventSubscriber> everyInstanceSubscribers;
+    private List<OutboxEventSubscriber> oneInstanceSubscribers;
+
+    // Only touched on the dispatcher thread: every id up to the mark has been
+    // delivered or given up on, and the set holds the ids delivered above it
+    private long highWaterMark;
+    private final NavigableSet<Long> deliveredAboveMark = new TreeSet<>();
+    private long stalledMark = -1;
+    private long stalledSince;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        readTemplate = new TransactionTemplate(transactionManager);
+        readTemplate.setReadOnly(true);
+        everyInstanceSubscribers = subscribers.stream()
+                .filter(subscriber -> subscriber.scope() == OutboxEventSubscriber.Scope.EVERY_INSTANCE)
+                .toList();
+        oneInstanceSubscribers = subscribers.stream()
+                .filter(subscriber -> subscriber.scope() == OutboxEventSubscriber.Scope.ONE_INSTANCE)
+                .toList();
+
+        // Subscribers seed their own state from the database, so start from the current end
+        highWaterMark = ReplicaRouting.onPrimary(() -> readTemplate.execute(status -> outboxEventRepository.findMaxId()));
+
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "outbox-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        logger.info("Outbox dispatcher started from event {} with {} subscribers ({} run once)",
+                highWaterMark, subscribers.size(), oneInstanceSubscribers.size());
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Ask the dispatcher thread to drain the outbox. Wakeups that arrive while one
+     * is already queued are coalesced into it.
+     */
+    public void dispatchSoon() {
+        if (wakeupPending.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                wakeupPending.set(false);
+                drain();
+            });
+        }
+    }
+
+    /**
+     * Periodically drain events written by other instances or not dispatched on commit
+     */
+    @Scheduled(fixedDelayString = "${outbox.dispatch.poll-interval:PT2S}",
+               initialDelayString = "${outbox.dispatch.poll-interval:PT2S}")
+    public void poll() {
+        dispatchSoon();
+    }
+
+    /**
+     * Delete published events past the retention window
+     */
+    @Scheduled(fixedDelayString = "${outbox.retention-purge-interval:PT1H}")
+    public void purge() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        Integer deleted = transactionTemplate.execute(status -> outboxEventRepository.deletePublishedBefore(cutoff));
+        if (deleted != null && deleted > 0) {
+            logger.info("Purged {} published outbox events older than {}", deleted, cutoff);
+        }
+    }
+
+    private void drain() {
+        try {
+            fanOut();
+        } catch (Exception e) {
+            logger.error("Failed to fan out outbox events: {}", e.getMessage(), e);
+        }
+        try {
+            Integer published;
+            do {
+                published = transactionTemplate.execute(status -> publishBatch());
+            } while (published != null && published == batchSize);
+        } catch (Exception e) {
+            logger.error("Failed to publish outbox events: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Deliver the events past the high-water mark to the subscribers on every instance
+     */
+    private void fanOut() {
+        long cursor = highWaterMark;
+        List<OutboxEvent> events;
+        do {
+            long afterId = cursor;
+            // On the primary: a lagging replica would open gaps that are not really there
+            events = ReplicaRouting.onPrimary(() -> readTemplate.execute(status ->
+                    outboxEventRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, batchSize))));
+            for (OutboxEvent event : events) {
+                cursor = event.getId();
+                if (deliveredAboveMark.add(event.getId())) {
+                    deliver(event, everyInstanceSubscribers);
+                }
+            }
+        } while (events.size() == batchSize);
+        advanceMark();
+    }
+
+    private void advanceMark() {
+        while (!deliveredAboveMark.isEmpty() && deliveredAboveMark.first() == highWaterMark + 1) {
+            highWaterMark = deliveredAboveMark.pollFirst();
+        }
+        if (deliveredAboveMark.isEmpty()) {
+            stalledMark = -1;
+            return;
+        }
+
+        long now = System.nanoTime();
+        if (stalledMark != highWaterMark) {
+            stalledMark = highWaterMark;
+            stalledSince = now;
+        } else if (now - stalledSince > gapTimeout.toNanos()) {
+            // Nothing committed the missing ids in time, so their transactions rolled back
+            logger.debug("Skipping outbox ids {} to {}", highWaterMark + 1, deliveredAboveMark.first() - 1);
+            highWaterMark = deliveredAboveMark.first() - 1;
+            advanceMark();
+        }
+    }
+
+    /**
+     * Claim unpublished events for the run-once subscribers and mark the ones they all handled
+     */
+    private int publishBatch() {
+        List<OutboxEvent> events = outboxEventRepository.claimUnpublished(PageRequest.of(0, batchSize));
+        LocalDateTime now = LocalDateTime.now();
+        int published = 0;
+        for (OutboxEvent event : events) {
+            if (deliver(event, oneInstanceSubscribers)) {
+                event.setPublishedAt(now);
+                published++;
+            }
+        }
+        if (published > 0) {
+            logger.debug("Published {} outbox events up to id {}", published, events.get(events.size() - 1).getId());
+        }
+        return published;
+    }
+
+    /**
+     * Hand the event to each subscriber; returns whether all of them succeeded
+     */
+    private boolean deliver(OutboxEvent event, List<OutboxEventSubscriber> targets) {
+        boolean delivered = true;
+        for (OutboxEventSubscriber subscriber : targets) {
+            try {
+                subscriber.onEvent(event);
+            } catch (Exception e) {
+                // One failing subscriber must not block the stream for the others
+                logger.error("Subscriber {} failed on {}: {}",
+                        subscriber.getClass().getSimpleName(), event, e.getMessage(), e);
+                delivered = false;
+            }
+        }
+        return delivered;
+    }
+}
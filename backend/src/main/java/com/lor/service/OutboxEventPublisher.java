@@ -0,0 +1,34 @@
+package com.lor.service;
+
+import com.lor.entity.LorRequest;
+import com.lor.entity.LorRequestEventType;
+import com.lor.entity.OutboxEvent;
+import com.lor.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service for recording LOR request lifecycle events in the transactional outbox
+ */
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+public class OutboxEventPublisher {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OutboxEventDispatcher outboxEventDispatcher;
+
+    /**
+     * Record an event in the caller's transaction. The event only becomes visible
+     * if that transaction commits, and the dispatcher is woken once it has.
+     */
+    public OutboxEvent record(LorRequest lorRequest, LorRequestEventType eventType) {
+        OutboxEvent event = outboxEventRepository.save(new OutboxEvent(lorRequest, eventType));
+        AfterCommit.run(outboxEventDispatcher::dispatchSoon);
+        return event;
+    }
+}
@@ -0,0 +1,30 @@
+package com.lor.service;
+
+import com.lor.entity.OutboxEvent;
+
+/**
+ * In-process subscriber to LOR request lifecycle events.
+ *
+ * Beans implementing this interface receive events in outbox id order on the
+ * dispatcher thread, after the originating transaction has committed, and
+ * should hand slow work such as network I/O to their own threads.
+ *
+ * By default a subscriber runs on every instance, which suits per-instance
+ * state such as open connections and in-memory counters. Such subscribers get
+ * each event once per instance; one that throws is not called again for that
+ * event and must recover on its own, for example by resyncing. Subscribers
+ * doing work that must happen only once across the cluster return ONE_INSTANCE:
+ * they are called from the instance that claimed the event, and the event is
+ * retried until every one of them succeeded, so delivery is at least once and
+ * handlers should be idempotent.
+ */
+public interface OutboxEventSubscriber {
+
+    enum Scope { EVERY_INSTANCE, ONE_INSTANCE }
+
+    void onEvent(OutboxEvent event);
+
+    default Scope scope() {
+        return Scope.EVERY_INSTANCE;
+    }
+}
@@ -0,0 +1,341 @@
+package com.lor.service;
+
+import com.itextpdf.kernel.exceptions.PdfException;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfStream;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.utils.PdfMerger;
+import com.lor.entity.User;
+import com.lor.repository.ArchivedPdfDocumentRepository;
+import com.lor.repository.PdfDocumentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Service for downloading many LOR PDFs at once, as a streamed ZIP archive or
+ * as one merged document for printing.
+ *
+ * Matching rows are read in pages keyed on id, first from the live PDFs and then
+ * from the PDFs of archived academic years, and each PDF is copied into the
+ * response as it is reached, so neither the output nor the list of PDFs is held
+ * in memory or on disk. Each page is read in its own short read-only transaction
+ * and the connection is returned before its files are written, so a slow download
+ * never holds a transaction, snapshot or connection. ZIP entries are STORED rather than deflated: PDFs
+ * are already compressed, and deflating them again costs CPU without saving bytes.
+ */
+@Service
+public class PdfArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PdfArchiveService.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Autowired
+    private PdfDocumentRepository pdfDocumentRepository;
+
+    @Autowired
+    private ArchivedPdfDocumentRepository archivedPdfDocumentRepository;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${pdf.archive.page-size:100}")
+    private int pageSize;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    public void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Check the caller and turn request parameters into an archive filter.
+     * Professors only ever get the PDFs they generated; admins may pick a professor.
+     */
+    public Filter resolveFilter(Long professorId, String course, String academicYear,
+                                LocalDate fromDate, LocalDate toDate) {
+        User currentUser = authService.getCurrentUser();
+        if (currentUser.isProfessor()) {
+            if (professorId != null && !professorId.equals(currentUser.getId())) {
+                throw new RuntimeException("You can only download PDFs you generated");
+            }
+            professorId = currentUser.getId();
+        } else if (!currentUser.isAdmin()) {
+            throw new RuntimeException("Only professors and admin can download PDF archives");
+        } else if (professorId == null && course == null && academicYear == null
+                && fromDate == null && toDate == null) {
+            throw new RuntimeException("Select a professor, course, academic year or date range");
+        }
+
+        // Both bounds are inclusive dates; the year and the date range narrow each other
+        LocalDateTime from = fromDate != null ? fromDate.atStartOfDay() : null;
+        LocalDateTime to = toDate != null ? toDate.plusDays(1).atStartOfDay() : null;
+        if (academicYear != null) {
+            LocalDateTime yearStart = AcademicYears.startOf(academicYear);
+            LocalDateTime yearEnd = yearStart.plusYears(1);
+            from = from == null || from.isBefore(yearStart) ? yearStart : from;
+            to = to == null || to.isAfter(yearEnd) ? yearEnd : to;
+        }
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new RuntimeException("The date range is empty");
+        }
+
+        String courseName = course != null && !course.isBlank() ? course.trim() : null;
+        return new Filter(professorId, courseName, from, to);
+    }
+
+    /**
+     * Write the PDFs matching the filter to the stream as a ZIP archive
+     */
+    public long writeArchive(Filter filter, OutputStream out) {
+        long[] count = new long[1];
+        long[] skipped = new long[1];
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        ZipOutputStream zip = new ZipOutputStream(out);
+        try {
+            forEachPagedRow(filter, row -> {
+                if (writeEntry(zip, (String) row[2], Paths.get((String) row[3]), (LocalDateTime) row[4], buffer)) {
+                    count[0]++;
+                } else {
+                    logger.warn("Skipping PDF {} in archive, file not found or not readable", row[1]);
+                    skipped[0]++;
+                }
+            });
+            // Writes the central directory; the response stream itself is closed by the container
+            zip.finish();
+        } catch (IOException e) {
+            // Usually the client went away
+            logger.warn("PDF archive aborted after {} files: {}", count[0], e.getMessage());
+            throw new UncheckedIOException(e);
+        }
+        logger.info("Streamed PDF archive with {} files ({} skipped)", count[0], skipped[0]);
+        return count[0];
+    }
+
+    /**
+     * Write the PDFs matching the filter to the stream as one document, in the
+     * order of the archive. Pages of each source are flushed to the stream before
+     * the next source is opened, so memory is bounded by one source document, and
+     * sources are read and merged with no transaction or connection held.
+     * A source that cannot be read is skipped; once its pages are flushed only a
+     * failure writing the output, usually the client going away, aborts the document.
+     */
+    public long writeMerged(Filter filter, OutputStream out) {
+        long[] count = new long[1];
+        long[] skipped = new long[1];
+        PdfWriter writer = new PdfWriter(out);
+        // The response stream itself is closed by the container
+        writer.setCloseStream(false);
+        try (PdfDocument merged = new PdfDocument(writer)) {
+            // Outlines and structure tags would be kept for the whole document, so leave them out
+            PdfMerger merger = new PdfMerger(merged, false, false);
+            forEachPagedRow(filter, row -> {
+                PdfDocument source = openSource(Paths.get((String) row[3]));
+                if (source == null) {
+                    logger.warn("Skipping PDF {} in merged document, file not readable", row[1]);
+                    skipped[0]++;
+                    return;
+                }
+                try (source) {
+                    if (!mergeSource(merger, merged, source)) {
+                        logger.warn("Skipping PDF {} in merged document, file is damaged", row[1]);
+                        skipped[0]++;
+                        return;
+                    }
+                    merged.flushCopiedObjects(source);
+                }
+                count[0]++;
+            });
+            if (count[0] == 0) {
+                // A PDF needs at least one page
+                merged.addNewPage();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (PdfException e) {
+            // Usually the client went away while pages were written
+            logger.warn("Merged PDF aborted after {} files: {}", count[0], e.getMessage());
+            throw e;
+        }
+        logger.info("Streamed merged PDF with {} files ({} skipped)", count[0], skipped[0]);
+        return count[0];
+    }
+
+    /**
+     * Whether any live or archived PDF matches the filter
+     */
+    @Transactional(readOnly = true)
+    public boolean hasMatches(Filter filter) {
+        return pdfDocumentRepository.countArchiveRows(
+                filter.professorId(), filter.course(), filter.from(), filter.to()) > 0
+                || archivedPdfDocumentRepository.countArchiveRows(
+                filter.professorId(), filter.course(), filter.from(), filter.to()) > 0;
+    }
+
+    /**
+     * Pass each matching row to the handler, live PDFs first and then archived ones.
+     * Rows are read a page at a time in short read-only transactions, and the handler
+     * runs with no transaction or connection held. Rows are id, reference number,
+     * file name, file path and generation time.
+     */
+    private void forEachPagedRow(Filter filter, RowHandler handler) throws IOException {
+        forEachPagedRow(handler, (afterId, pageable) -> pdfDocumentRepository.findArchiveRows(afterId,
+                filter.professorId(), filter.course(), filter.from(), filter.to(), pageable));
+        forEachPagedRow(handler, (afterId, pageable) -> archivedPdfDocumentRepository.findArchiveRows(afterId,
+                filter.professorId(), filter.course(), filter.from(), filter.to(), pageable));
+    }
+
+    private void forEachPagedRow(RowHandler handler, PageQuery query) throws IOException {
+        long lastId = 0;
+        List<Object[]> page;
+        do {
+            long afterId = lastId;
+            page = readOnlyTransaction.execute(status -> query.find(afterId, PageRequest.of(0, pageSize)));
+            for (Object[] row : page) {
+                handler.handle(row);
+                lastId = ((Number) row[0]).longValue();
+            }
+        } while (page.size() == pageSize);
+    }
+
+    /**
+     * Copy the pages of one source into the merged document, or leave the merged
+     * document as it was and return false if the source is damaged. Every object of
+     * the source is read first, so flushing the copied pages later does not hit a
+     * broken stream after some of them are already written.
+     */
+    private boolean mergeSource(PdfMerger merger, PdfDocument merged, PdfDocument source) {
+        int pagesBefore = merged.getNumberOfPages();
+        try {
+            readFully(source);
+            merger.merge(source, 1, source.getNumberOfPages());
+            return true;
+        } catch (RuntimeException e) {
+            logger.debug("Failed to merge source PDF: {}", e.getMessage());
+            while (merged.getNumberOfPages() > pagesBefore) {
+                merged.removePage(merged.getNumberOfPages());
+            }
+            return false;
+        }
+    }
+
+    private void readFully(PdfDocument source) {
+        for (int i = 1; i < source.getNumberOfPdfObjects(); i++) {
+            if (source.getPdfObject(i) instanceof PdfStream stream) {
+                stream.getBytes(false);
+            }
+        }
+    }
+
+    private PdfDocument openSource(Path filePath) {
+        if (!Files.isReadable(filePath)) {
+            return null;
+        }
+        try {
+            return new PdfDocument(new PdfReader(filePath.toString()));
+        } catch (IOException | PdfException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Add one PDF as a STORED entry. A STORED entry needs its size and CRC before
+     * its data, so the file is read twice; both passes go through one open channel,
+     * so a rewrite swapping the file in between cannot change the bytes under the
+     * CRC, and the second read is served by the OS page cache.
+     */
+    private boolean writeEntry(ZipOutputStream zip, String fileName, Path filePath, LocalDateTime generatedAt,
+                               ByteBuffer buffer) throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(filePath, StandardOpenOption.READ);
+        } catch (NoSuchFileException | AccessDeniedException e) {
+            return false;
+        }
+
+        try (channel) {
+            CRC32 crc = new CRC32();
+            long size = 0;
+            buffer.clear();
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                size += buffer.remaining();
+                crc.update(buffer);
+                buffer.clear();
+            }
+
+            ZipEntry entry = new ZipEntry(fileName);
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(size);
+            entry.setCompressedSize(size);
+            entry.setCrc(crc.getValue());
+            entry.setTimeLocal(generatedAt);
+            zip.putNextEntry(entry);
+            channel.position(0);
+            long remaining = size;
+            while (remaining > 0) {
+                int read = channel.read(buffer);
+                if (read == -1) {
+                    throw new IOException("PDF " + fileName + " shrank while it was added to the archive");
+                }
+                int length = (int) Math.min(read, remaining);
+                zip.write(buffer.array(), 0, length);
+                remaining -= length;
+                buffer.clear();
+            }
+            zip.closeEntry();
+        }
+        return true;
+    }
+
+    @FunctionalInterface
+    private interface RowHandler {
+        void handle(Object[] row) throws IOException;
+    }
+
+    /**
+     * One page of archive rows after the given id, in id order
+     */
+    @FunctionalInterface
+    private interface PageQuery {
+        List<Object[]> find(Long afterId, Pageable pageable);
+    }
+
+    /**
+     * Archive selection; null criteria match everything, and the time range is half-open
+     */
+    public record Filter(Long professorId, String course, LocalDateTime from, LocalDateTime to) {}
+}
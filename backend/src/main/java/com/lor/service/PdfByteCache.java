@@ -0,0 +1,225 @@
+package com.lor.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+
+/**
+ * Size-bounded in-memory cache of PDF file contents by reference number.
+ *
+ * Students usually download a letter right after it is generated, and often
+ * more than once, so PDFs are cached when generated and when first read from
+ * disk. The bound is the total number of bytes held, not the number of entries.
+ * With pdf-cache.off-heap the bytes live in direct buffers outside the Java heap.
+ * Hits, misses and evictions are published as cache metrics named "pdf.bytes".
+ *
+ * A PDF can be deleted, regenerated or rewritten by another instance, which
+ * this cache never hears about, so each hit is checked against the file's
+ * current size and modification time and dropped when the file has changed or
+ * is gone. Entries also expire a fixed time after they were loaded.
+ */
+@Service
+public class PdfByteCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(PdfByteCache.class);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${pdf-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${pdf-cache.max-size:64MB}")
+    private DataSize maxSize;
+
+    @Value("${pdf-cache.expire-after-write:PT2H}")
+    private Duration expireAfterWrite;
+
+    @Value("${pdf-cache.off-heap:false}")
+    private boolean offHeap;
+
+    private Cache<String, CachedPdf> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((String referenceNumber, CachedPdf pdf) -> pdf.data().capacity())
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "pdf.bytes");
+        Gauge.builder("pdf.bytes.cache.weight", cache,
+                        c -> c.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L))
+                .description("Bytes of PDF content held in the cache")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Cached contents of the PDF stored at the given path as a resource, or null
+     * if not cached or the file changed since it was cached
+     */
+    public Resource get(String referenceNumber, Path filePath) throws IOException {
+        if (!enabled) {
+            return null;
+        }
+        CachedPdf pdf = cache.getIfPresent(referenceNumber);
+        if (pdf == null) {
+            return null;
+        }
+        if (!pdf.filePath().equals(filePath.toAbsolutePath().normalize()) || !pdf.matches(filePath)) {
+            cache.asMap().remove(referenceNumber, pdf);
+            return null;
+        }
+        return new ByteBufferResource(pdf);
+    }
+
+    /**
+     * Read a PDF file into the cache and return it as a resource
+     */
+    public Resource load(String referenceNumber, Path filePath) throws IOException {
+        // Attributes first: if the file is replaced while it is read, the next get sees the change
+        BasicFileAttributes attributes = Files.readAttributes(filePath, BasicFileAttributes.class);
+        ByteBuffer data;
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("PDF too large to cache: " + filePath);
+            }
+            // Read straight into the buffer, so off-heap contents never pass through the heap
+            data = offHeap ? ByteBuffer.allocateDirect((int) size) : ByteBuffer.allocate((int) size);
+            while (data.hasRemaining()) {
+                if (channel.read(data) < 0) {
+                    throw new IOException("PDF changed while it was read: " + filePath);
+                }
+            }
+            data.flip();
+        }
+        CachedPdf pdf = new CachedPdf(filePath.toAbsolutePath().normalize(), attributes.size(),
+                attributes.lastModifiedTime(), data.asReadOnlyBuffer());
+        if (enabled) {
+            cache.put(referenceNumber, pdf);
+        }
+        return new ByteBufferResource(pdf);
+    }
+
+    /**
+     * Cache a freshly generated PDF once the surrounding transaction commits
+     */
+    public void putAfterCommit(String referenceNumber, Path filePath) {
+        if (!enabled) {
+            return;
+        }
+        AfterCommit.run(() -> {
+            try {
+                load(referenceNumber, filePath);
+            } catch (IOException e) {
+                // The next download reads the file from disk
+                logger.warn("Failed to cache PDF {}: {}", referenceNumber, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Drop a PDF from the cache
+     */
+    public void invalidate(String referenceNumber) {
+        cache.invalidate(referenceNumber);
+    }
+
+    private record CachedPdf(Path filePath, long size, FileTime lastModified, ByteBuffer data) {
+
+        String fileName() {
+            return filePath.getFileName().toString();
+        }
+
+        /**
+         * Whether the file still has the size and modification time it was cached with
+         */
+        boolean matches(Path path) throws IOException {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                return attributes.size() == size && attributes.lastModifiedTime().equals(lastModified);
+            } catch (NoSuchFileException e) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Resource over cached bytes; every stream reads its own view of the buffer
+     */
+    private static final class ByteBufferResource extends AbstractResource {
+
+        private final CachedPdf pdf;
+
+        ByteBufferResource(CachedPdf pdf) {
+            this.pdf = pdf;
+        }
+
+        @Override
+        public String getFilename() {
+            return pdf.fileName();
+        }
+
+        @Override
+        public String getDescription() {
+            return "Cached PDF [" + pdf.fileName() + "]";
+        }
+
+        @Override
+        public long contentLength() {
+            return pdf.data().capacity();
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            ByteBuffer buffer = pdf.data().duplicate().clear();
+            return new InputStream() {
+                @Override
+                public int read() {
+                    return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    if (!buffer.hasRemaining()) {
+                        return -1;
+                    }
+                    int count = Math.min(len, buffer.remaining());
+                    buffer.get(b, off, count);
+                    return count;
+                }
+
+                @Override
+                public int available() {
+                    return buffer.remaining();
+                }
+            };
+        }
+    }
+}
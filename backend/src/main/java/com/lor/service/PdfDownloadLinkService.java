@@ -0,0 +1,129 @@
+package com.lor.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Signs and verifies time-limited PDF download links.
+ *
+ * A link carries the reference number, the stored file name and an expiry,
+ * signed with HMAC-SHA256 under a key of its own: pdf.download-link.secret when
+ * set, otherwise a key derived from the JWT secret, so the JWT signing key is
+ * never used directly for a second purpose. Access is checked once when the link is issued;
+ * serving the link only verifies the signature and reads the file (or the
+ * cached bytes), without a JWT user lookup or any database access.
+ */
+@Service
+public class PdfDownloadLinkService {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private static final String KEY_PURPOSE = "pdf-download-link";
+
+    @Autowired
+    private PdfByteCache pdfByteCache;
+
+    @Value("${pdf.download-link.secret:}")
+    private String secret;
+
+    @Value("${jwt.secret}")
+    private String jwtSecret;
+
+    @Value("${pdf.download-link.ttl:PT24H}")
+    private Duration ttl;
+
+    @Value("${file.upload-dir}")
+    private String uploadDir;
+
+    private SecretKeySpec key;
+
+    @PostConstruct
+    public void init() {
+        if (secret != null && !secret.isBlank()) {
+            key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        } else {
+            // HMAC(jwt.secret, purpose) gives an independent key for link signatures
+            byte[] derived = hmac(new SecretKeySpec(jwtSecret.getBytes(StandardCharsets.UTF_8), ALGORITHM),
+                    KEY_PURPOSE.getBytes(StandardCharsets.UTF_8));
+            key = new SecretKeySpec(derived, ALGORITHM);
+        }
+    }
+
+    /**
+     * Sign a link to a stored PDF that is valid for the configured time to live
+     */
+    public SignedLink sign(String referenceNumber, String storedPath) {
+        String fileName = Paths.get(storedPath).getFileName().toString();
+        long expires = Instant.now().plus(ttl).getEpochSecond();
+        return new SignedLink(referenceNumber, fileName, expires, signature(referenceNumber, fileName, expires));
+    }
+
+    /**
+     * Contents of the PDF behind a signed link, or empty if the link is expired,
+     * tampered with, or its file no longer exists
+     */
+    public Optional<Resource> resolve(String referenceNumber, String fileName, long expires, String signature)
+            throws IOException {
+        if (Instant.now().getEpochSecond() > expires) {
+            return Optional.empty();
+        }
+        byte[] expected = signature(referenceNumber, fileName, expires).getBytes(StandardCharsets.US_ASCII);
+        if (!MessageDigest.isEqual(expected, signature.getBytes(StandardCharsets.US_ASCII))) {
+            return Optional.empty();
+        }
+
+        // The signed name is a bare file name, so it cannot point outside the upload directory
+        Path uploadPath = Paths.get(uploadDir).toAbsolutePath().normalize();
+        Path filePath = uploadPath.resolve(fileName).normalize();
+        if (!filePath.getParent().equals(uploadPath)) {
+            return Optional.empty();
+        }
+
+        // Only served while the file is still there, so a deleted PDF's link stops working
+        Resource cached = pdfByteCache.get(referenceNumber, filePath);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        if (!Files.isReadable(filePath)) {
+            return Optional.empty();
+        }
+        return Optional.of(pdfByteCache.load(referenceNumber, filePath));
+    }
+
+    private String signature(String referenceNumber, String fileName, long expires) {
+        byte[] digest = hmac(key, (referenceNumber + "\n" + fileName + "\n" + expires).getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+    }
+
+    private static byte[] hmac(SecretKeySpec macKey, byte[] data) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(macKey);
+            return mac.doFinal(data);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " not available", e);
+        }
+    }
+
+    /**
+     * Parameters of a signed download link
+     */
+    public record SignedLink(String referenceNumber, String fileName, long expires, String signature) {}
+}
@@ -1,7 +1,6 @@
 package com.lor.service;
 
 // Note: Using fully qualified name for iText PdfDocument to avoid conflict with our entity
-import com.itextpdf.kernel.pdf.PdfWriter;
 import com.itextpdf.layout.Document;
 import com.itextpdf.layout.element.Paragraph;
 
@@ -17,20 +16,19 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 
 import java.io.IOException;
-import java.net.MalformedURLException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
 
 /**
  * Service for PDF generation and management
@@ -41,6 +39,12 @@ public class PdfGenerationService {
 
     private static final Logger logger = LoggerFactory.getLogger(PdfGenerationService.class);
 
+    private static final String REFERENCE_SEQUENCE = "pdf_reference";
+
+    // Render cache keys include these; bump the version when a letter layout changes
+    private static final String STANDARD_TEMPLATE = "standard-letter/v1";
+    private static final String CUSTOM_TEMPLATE = "custom-letter/v1";
+
     @Value("${file.upload-dir}")
     private String uploadDir;
 
@@ -50,9 +54,30 @@ public class PdfGenerationService {
     @Autowired
     private PdfDocumentRepository pdfDocumentRepository;
 
+    @Autowired
+    private ArchivedPdfDocumentRepository archivedPdfDocumentRepository;
+
     @Autowired
     private AuthService authService;
 
+    @Autowired
+    private OutboxEventPublisher outboxEventPublisher;
+
+    @Autowired
+    private SequenceAllocator sequenceAllocator;
+
+    @Autowired
+    private PdfDownloadLinkService pdfDownloadLinkService;
+
+    @Autowired
+    private PdfByteCache pdfByteCache;
+
+    @Autowired
+    private PdfOutputProfile pdfOutputProfile;
+
+    @Autowired
+    private PdfRenderCache pdfRenderCache;
+
     /**
      * Generate PDF for approved LOR request
      */
@@ -100,11 +125,10 @@ public class PdfGenerationService {
 
         Path filePath = uploadPath.resolve(fileName);
 
-        // Generate PDF content
-        generatePdfContent(lorRequest, referenceNumber, filePath.toString());
-
-        // Get file size
-        long fileSize = Files.size(filePath);
+        // Render the letter (or reuse an identical earlier render) and store it
+        byte[] pdf = renderStandardLetter(lorRequest);
+        Files.write(filePath, pdf);
+        long fileSize = pdf.length;
 
         // Save PDF document metadata
         com.lor.entity.PdfDocument pdfDocumentEntity = new com.lor.entity.PdfDocument();
@@ -113,10 +137,15 @@ public class PdfGenerationService {
         pdfDocumentEntity.setFilePath(filePath.toString());
         pdfDocumentEntity.setFileName(fileName);
         pdfDocumentEntity.setFileSize(fileSize);
+        pdfDocumentEntity.setOutputProfile(pdfOutputProfile.name());
         pdfDocumentEntity.setGeneratedBy(currentUser);
         pdfDocumentEntity.setGeneratedAt(LocalDateTime.now());
 
         com.lor.entity.PdfDocument savedPdf = pdfDocumentRepository.save(pdfDocumentEntity);
+        // Bump updated_at so delta-sync clients see the new PDF
+        lorRequest.setUpdatedAt(LocalDateTime.now());
+        outboxEventPublisher.record(lorRequest, LorRequestEventType.PDF_GENERATED);
+        pdfByteCache.putAfterCommit(referenceNumber, filePath);
 
         logger.info("PDF generated successfully for request ID: {} with reference: {}", 
                 requestId, referenceNumber);
@@ -124,19 +153,38 @@ public class PdfGenerationService {
         return savedPdf;
     }
 
+    /**
+     * Render the standard letter of a request; every value the layout prints is part of the cache key
+     */
+    private byte[] renderStandardLetter(LorRequest lorRequest) throws IOException {
+        List<String> fields = Arrays.asList(
+                lorRequest.getSxcReferenceNumber(),
+                lorRequest.getInstituteCompany(),
+                lorRequest.getStudentName(),
+                lorRequest.getClassRollNumber(),
+                lorRequest.getRegistrationNumber(),
+                lorRequest.getExaminationNumber(),
+                lorRequest.getCourse(),
+                lorRequest.getSemester(),
+                lorRequest.getProfessor().getName(),
+                lorRequest.getProfessor().getDepartment());
+        return pdfRenderCache.render(STANDARD_TEMPLATE, fields, creationDate(lorRequest),
+                pdfDoc -> writeStandardLetter(lorRequest, pdfDoc));
+    }
+
     /**
      * Generate PDF content using iText with St. Xavier's College format
      */
-    private void generatePdfContent(LorRequest lorRequest, String referenceNumber, String filePath) throws IOException {
-        PdfWriter writer = new PdfWriter(filePath);
-        com.itextpdf.kernel.pdf.PdfDocument pdfDoc = new com.itextpdf.kernel.pdf.PdfDocument(writer);
+    private void writeStandardLetter(LorRequest lorRequest, com.itextpdf.kernel.pdf.PdfDocument pdfDoc)
+            throws IOException {
         Document document = new Document(pdfDoc);
 
         // Set fonts
+        // One font object per typeface, so each is written to the file once
         PdfFont titleFont = PdfFontFactory.createFont(StandardFonts.HELVETICA_BOLD);
-        PdfFont headerFont = PdfFontFactory.createFont(StandardFonts.HELVETICA_BOLD);
+        PdfFont headerFont = titleFont;
         PdfFont normalFont = PdfFontFactory.createFont(StandardFonts.HELVETICA);
-        PdfFont smallFont = PdfFontFactory.createFont(StandardFonts.HELVETICA);
+        PdfFont smallFont = normalFont;
 
         // College Header
         Paragraph collegeHeader = new Paragraph("DEPARTMENT OF COMPUTER SCIENCE")
@@ -181,8 +229,7 @@ public class PdfGenerationService {
         document.add(contactDetails);
 
         // Generate reference number in St. Xavier's format
-        String sxcReferenceNumber = generateSXCReferenceNumber(lorRequest);
-        Paragraph refNumber = new Paragraph("Reference Number: - " + sxcReferenceNumber)
+        Paragraph refNumber = new Paragraph("Reference Number: - " + lorRequest.getSxcReferenceNumber())
                 .setFont(normalFont)
                 .setFontSize(11)
                 .setTextAlignment(TextAlignment.CENTER)
@@ -298,42 +345,17 @@ public class PdfGenerationService {
     }
 
     /**
-     * Generate unique reference number
+     * The letter is dated by its approval, so renders of the same request do not depend on when they ran
      */
-    private String generateReferenceNumber() {
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
-        String uuid = UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-        return "LOR" + timestamp + uuid;
+    private LocalDateTime creationDate(LorRequest lorRequest) {
+        return lorRequest.getProcessedAt() != null ? lorRequest.getProcessedAt() : lorRequest.getRequestedAt();
     }
 
     /**
-     * Generate St. Xavier's College format reference number
-     * Format: SXC/BCA/Internship/2024-25/ClassRollNumber/Date
+     * Allocate a unique reference number before the PDF is rendered
      */
-    private String generateSXCReferenceNumber(LorRequest lorRequest) {
-        LocalDateTime now = LocalDateTime.now();
-        String academicYear = getAcademicYear(now);
-        String date = now.format(DateTimeFormatter.ofPattern("d.M.yyyy"));
-
-        return String.format("SXC/BCA/Internship/%s/%s/%s",
-                academicYear,
-                lorRequest.getClassRollNumber(),
-                date);
-    }
-
-    /**
-     * Get academic year in format 2024-25
-     */
-    private String getAcademicYear(LocalDateTime date) {
-        int year = date.getYear();
-        int month = date.getMonthValue();
-
-        // Academic year starts in July (month 7)
-        if (month >= 7) {
-            return year + "-" + String.valueOf(year + 1).substring(2);
-        } else {
-            return (year - 1) + "-" + String.valueOf(year).substring(2);
-        }
+    private String generateReferenceNumber() {
+        return String.format("LOR%012d", sequenceAllocator.next(REFERENCE_SEQUENCE));
     }
 
     /**
@@ -366,11 +388,10 @@ public class PdfGenerationService {
 
         Path filePath = uploadPath.resolve(fileName);
 
-        // Generate PDF content with custom data
-        generatePdfContentWithCustomData(previewDto, filePath.toString());
-
-        // Get file size
-        long fileSize = Files.size(filePath);
+        // Render the letter (or reuse the render of an unchanged preview) and store it
+        byte[] pdf = renderCustomLetter(lorRequest, previewDto);
+        Files.write(filePath, pdf);
+        long fileSize = pdf.length;
 
         // Save PDF document metadata
         com.lor.entity.PdfDocument pdfDocumentEntity = new com.lor.entity.PdfDocument();
@@ -379,10 +400,15 @@ public class PdfGenerationService {
         pdfDocumentEntity.setFilePath(filePath.toString());
         pdfDocumentEntity.setFileName(fileName);
         pdfDocumentEntity.setFileSize(fileSize);
+        pdfDocumentEntity.setOutputProfile(pdfOutputProfile.name());
         pdfDocumentEntity.setGeneratedBy(authService.getCurrentUser());
         pdfDocumentEntity.setGeneratedAt(LocalDateTime.now());
 
         pdfDocumentRepository.save(pdfDocumentEntity);
+        // Bump updated_at so delta-sync clients see the new PDF
+        lorRequest.setUpdatedAt(LocalDateTime.now());
+        outboxEventPublisher.record(lorRequest, LorRequestEventType.PDF_GENERATED);
+        pdfByteCache.putAfterCommit(referenceNumber, filePath);
 
         logger.info("PDF generated successfully for request ID: {} with reference: {}",
                 lorRequest.getId(), referenceNumber);
@@ -390,19 +416,62 @@ public class PdfGenerationService {
         return referenceNumber;
     }
 
+    /**
+     * Render a letter with custom content from the preview, e.g. to show the edited
+     * preview as a PDF; generating the letter from the same content reuses this render
+     */
+    public byte[] renderCustomLetter(LorRequest lorRequest, LorPreviewDto previewDto) throws IOException {
+        return renderCustomLetter(previewDto, creationDate(lorRequest));
+    }
+
+    /**
+     * Render a letter with custom content, dated by the given approval time.
+     * Touches no entities, so it can run on background threads without a transaction.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public byte[] renderCustomLetter(LorPreviewDto previewDto, LocalDateTime creationDate) throws IOException {
+        // Render the normalized values, so inputs that hash the same also print the same
+        previewDto.setReferenceNumber(PdfRenderCache.normalize(previewDto.getReferenceNumber()));
+        previewDto.setRecipientTitle(PdfRenderCache.normalize(previewDto.getRecipientTitle()));
+        previewDto.setRecipientDepartment(PdfRenderCache.normalize(previewDto.getRecipientDepartment()));
+        previewDto.setRecipientCompany(PdfRenderCache.normalize(previewDto.getRecipientCompany()));
+        previewDto.setRecipientLocation(PdfRenderCache.normalize(previewDto.getRecipientLocation()));
+        previewDto.setSubject(PdfRenderCache.normalize(previewDto.getSubject()));
+        previewDto.setSalutation(PdfRenderCache.normalize(previewDto.getSalutation()));
+        previewDto.setMainContent(PdfRenderCache.normalize(previewDto.getMainContent()));
+        previewDto.setProfessorName(PdfRenderCache.normalize(previewDto.getProfessorName()));
+        previewDto.setProfessorDesignation(PdfRenderCache.normalize(previewDto.getProfessorDesignation()));
+        previewDto.setProfessorDepartment(PdfRenderCache.normalize(previewDto.getProfessorDepartment()));
+
+        List<String> fields = Arrays.asList(
+                previewDto.getReferenceNumber(),
+                previewDto.getRecipientTitle(),
+                previewDto.getRecipientDepartment(),
+                previewDto.getRecipientCompany(),
+                previewDto.getRecipientLocation(),
+                previewDto.getSubject(),
+                previewDto.getSalutation(),
+                previewDto.getMainContent(),
+                previewDto.getProfessorName(),
+                previewDto.getProfessorDesignation(),
+                previewDto.getProfessorDepartment());
+        return pdfRenderCache.render(CUSTOM_TEMPLATE, fields, creationDate,
+                pdfDoc -> writeCustomLetter(previewDto, pdfDoc));
+    }
+
     /**
      * Generate PDF content with custom data from preview
      */
-    private void generatePdfContentWithCustomData(LorPreviewDto previewDto, String filePath) throws IOException {
-        PdfWriter writer = new PdfWriter(filePath);
-        com.itextpdf.kernel.pdf.PdfDocument pdfDoc = new com.itextpdf.kernel.pdf.PdfDocument(writer);
+    private void writeCustomLetter(LorPreviewDto previewDto, com.itextpdf.kernel.pdf.PdfDocument pdfDoc)
+            throws IOException {
         Document document = new Document(pdfDoc);
 
         // Set fonts
+        // One font object per typeface, so each is written to the file once
         PdfFont titleFont = PdfFontFactory.createFont(StandardFonts.HELVETICA_BOLD);
-        PdfFont headerFont = PdfFontFactory.createFont(StandardFonts.HELVETICA_BOLD);
+        PdfFont headerFont = titleFont;
         PdfFont normalFont = PdfFontFactory.createFont(StandardFonts.HELVETICA);
-        PdfFont smallFont = PdfFontFactory.createFont(StandardFonts.HELVETICA);
+        PdfFont smallFont = normalFont;
 
         // College Header
         Paragraph collegeHeader = new Paragraph("DEPARTMENT OF COMPUTER SCIENCE")
@@ -533,40 +602,79 @@ public class PdfGenerationService {
     /**
      * Download PDF by reference number
      */
-    public Resource downloadPdf(String referenceNumber) throws MalformedURLException {
+    @Transactional(readOnly = true)
+    public Resource downloadPdf(String referenceNumber) throws IOException {
         logger.info("Downloading PDF with reference number: {}", referenceNumber);
 
+        Path filePath = Paths.get(authorizedFilePath(referenceNumber));
+
+        Resource cached = pdfByteCache.get(referenceNumber, filePath);
+        if (cached != null) {
+            logger.info("PDF downloaded from cache: {}", referenceNumber);
+            return cached;
+        }
+
+        if (Files.isReadable(filePath)) {
+            logger.info("PDF downloaded successfully: {}", referenceNumber);
+            return pdfByteCache.load(referenceNumber, filePath);
+        } else {
+            throw new RuntimeException("PDF file not found or not readable");
+        }
+    }
+
+    /**
+     * Issue a signed, time-limited download link after checking access once
+     */
+    @Transactional(readOnly = true)
+    public PdfDownloadLinkService.SignedLink createDownloadLink(String referenceNumber) {
+        PdfDownloadLinkService.SignedLink link =
+                pdfDownloadLinkService.sign(referenceNumber, authorizedFilePath(referenceNumber));
+        logger.info("Download link issued for reference: {}", referenceNumber);
+        return link;
+    }
+
+    /**
+     * Stored file path of a PDF the current user may download
+     */
+    private String authorizedFilePath(String referenceNumber) {
         User currentUser = authService.getCurrentUser();
 
-        com.lor.entity.PdfDocument pdfDocument = pdfDocumentRepository.findByReferenceNumber(referenceNumber)
-                .orElseThrow(() -> new RuntimeException("PDF not found with reference number: " + referenceNumber));
+        // PDFs of archived academic years are looked up in the archive
+        Long studentId;
+        Long generatedById;
+        String storedPath;
+        Optional<com.lor.entity.PdfDocument> pdfDocument = pdfDocumentRepository.findByReferenceNumber(referenceNumber);
+        if (pdfDocument.isPresent()) {
+            studentId = pdfDocument.get().getLorRequest().getStudent().getId();
+            generatedById = pdfDocument.get().getGeneratedBy().getId();
+            storedPath = pdfDocument.get().getFilePath();
+        } else {
+            ArchivedPdfDocument archived = archivedPdfDocumentRepository.findByReferenceNumber(referenceNumber)
+                    .orElseThrow(() -> new RuntimeException("PDF not found with reference number: " + referenceNumber));
+            studentId = archived.getLorRequest().getStudentId();
+            generatedById = archived.getGeneratedById();
+            storedPath = archived.getFilePath();
+        }
 
         // Check access permissions
         if (currentUser.isStudent()) {
-            if (!pdfDocument.getLorRequest().getStudent().getId().equals(currentUser.getId())) {
+            if (!studentId.equals(currentUser.getId())) {
                 throw new RuntimeException("You can only download your own LOR PDFs");
             }
         } else if (currentUser.isProfessor()) {
-            if (!pdfDocument.getGeneratedBy().getId().equals(currentUser.getId())) {
+            if (!generatedById.equals(currentUser.getId())) {
                 throw new RuntimeException("You can only download PDFs you generated");
             }
         }
         // Admin can download any PDF
 
-        Path filePath = Paths.get(pdfDocument.getFilePath());
-        Resource resource = new UrlResource(filePath.toUri());
-
-        if (resource.exists() && resource.isReadable()) {
-            logger.info("PDF downloaded successfully: {}", referenceNumber);
-            return resource;
-        } else {
-            throw new RuntimeException("PDF file not found or not readable");
-        }
+        return storedPath;
     }
 
     /**
      * Get PDF document by reference number
      */
+    @Transactional(readOnly = true)
     public com.lor.entity.PdfDocument getPdfByReferenceNumber(String referenceNumber) {
         return pdfDocumentRepository.findByReferenceNumber(referenceNumber)
                 .orElseThrow(() -> new RuntimeException("PDF not found with reference number: " + referenceNumber));
@@ -594,12 +702,15 @@ public class PdfGenerationService {
                 .orElseThrow(() -> new RuntimeException("PDF not found"));
 
         // Delete physical file
+        pdfByteCache.invalidate(referenceNumber);
         Path filePath = Paths.get(pdfDocument.getFilePath());
         if (Files.exists(filePath)) {
             Files.delete(filePath);
         }
 
         // Delete database record
+        pdfDocument.getLorRequest().setUpdatedAt(LocalDateTime.now());
+        outboxEventPublisher.record(pdfDocument.getLorRequest(), LorRequestEventType.PDF_DELETED);
         pdfDocumentRepository.delete(pdfDocument);
 
         logger.info("PDF deleted successfully: {}", referenceNumber);
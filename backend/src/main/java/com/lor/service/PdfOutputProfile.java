@@ -0,0 +1,77 @@
+package com.lor.service;
+
+import com.itextpdf.kernel.pdf.PdfString;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.WriterProperties;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.FileNotFoundException;
+import java.io.OutputStream;
+
+/**
+ * Writer settings for stored LOR PDFs.
+ *
+ * Letters are kept forever, so they are written for size rather than speed:
+ * full compression packs objects into compressed object streams with a
+ * cross-reference stream, the deflate level applies to every stream, and smart
+ * mode writes identical objects such as font dictionaries only once. The
+ * profile name is stored with each PDF so older files can be rewritten.
+ */
+@Service
+public class PdfOutputProfile {
+
+    private static final Logger logger = LoggerFactory.getLogger(PdfOutputProfile.class);
+
+    @Value("${pdf.output.full-compression:true}")
+    private boolean fullCompression;
+
+    @Value("${pdf.output.compression-level:9}")
+    private int compressionLevel;
+
+    @Value("${pdf.output.smart-mode:true}")
+    private boolean smartMode;
+
+    private String name;
+
+    @PostConstruct
+    public void init() {
+        if (compressionLevel < 0 || compressionLevel > 9) {
+            throw new IllegalStateException("pdf.output.compression-level must be between 0 and 9");
+        }
+        name = (fullCompression ? "full" : "xref") + "-z" + compressionLevel + (smartMode ? "-smart" : "");
+        logger.info("PDF output profile: {}", name);
+    }
+
+    /**
+     * Name identifying these settings, stored with each PDF written under them
+     */
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Writer for a new PDF file under this profile
+     */
+    public PdfWriter newWriter(String filePath) throws FileNotFoundException {
+        return new PdfWriter(filePath, writerProperties());
+    }
+
+    /**
+     * Writer for a PDF rendered into memory, with a fixed document id instead of a random one
+     */
+    public PdfWriter newWriter(OutputStream out, byte[] documentId) {
+        PdfString id = new PdfString(documentId).setHexWriting(true);
+        return new PdfWriter(out, writerProperties().setInitialDocumentId(id).setModifiedDocumentId(id));
+    }
+
+    private WriterProperties writerProperties() {
+        WriterProperties properties = new WriterProperties()
+                .setFullCompressionMode(fullCompression)
+                .setCompressionLevel(compressionLevel);
+        return smartMode ? properties.useSmartMode() : properties;
+    }
+}
@@ -0,0 +1,170 @@
+package com.lor.service;
+
+import com.lor.dto.LorPreviewDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Renders the default letter of newly approved requests in the background.
+ *
+ * Most letters are generated from the unchanged default preview, so rendering
+ * it speculatively at approval fills the render cache before the professor
+ * clicks generate. The work is strictly best effort: it runs on low-priority
+ * threads, waits while the machine is busy, keeps each worker within a CPU
+ * budget by resting in proportion to the CPU time it used, and drops tasks
+ * when the queue is full or a task waited too long.
+ *
+ * The rendered bytes land only in this instance's PdfRenderCache. With several
+ * instances behind the load balancer, a later generate request skips iText
+ * only when it reaches the instance that handled the approval; elsewhere it
+ * renders as usual.
+ */
+@Service
+public class PdfPrerenderService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PdfPrerenderService.class);
+
+    private static final long IDLE_POLL_MILLIS = 1000;
+
+    @Autowired
+    private PdfGenerationService pdfGenerationService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${pdf.prerender.enabled:true}")
+    private boolean enabled;
+
+    @Value("${pdf.prerender.threads:1}")
+    private int threads;
+
+    @Value("${pdf.prerender.queue-capacity:500}")
+    private int queueCapacity;
+
+    @Value("${pdf.prerender.cpu-budget:0.25}")
+    private double cpuBudget;
+
+    @Value("${pdf.prerender.max-system-load:0.6}")
+    private double maxSystemLoad;
+
+    @Value("${pdf.prerender.max-delay:PT10M}")
+    private Duration maxDelay;
+
+    private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+    private ThreadPoolExecutor executor;
+    private Counter completedCounter;
+    private Counter droppedCounter;
+
+    @PostConstruct
+    public void init() {
+        if (cpuBudget <= 0 || cpuBudget > 1) {
+            throw new IllegalStateException("pdf.prerender.cpu-budget must be in (0, 1]");
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "pdf-prerender-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                },
+                (runnable, pool) -> drop("queue full"));
+
+        completedCounter = Counter.builder("pdf.prerender.completed")
+                .description("Default letters rendered ahead of generation")
+                .register(meterRegistry);
+        droppedCounter = Counter.builder("pdf.prerender.dropped")
+                .description("Pre-render tasks skipped because the queue was full or the system stayed busy")
+                .register(meterRegistry);
+        Gauge.builder("pdf.prerender.queued", executor, pool -> pool.getQueue().size())
+                .description("Pre-render tasks waiting for a worker")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Queue a render of the given letter into the local render cache; never blocks the caller
+     */
+    public void submit(Long requestId, LorPreviewDto preview, LocalDateTime creationDate) {
+        if (!enabled) {
+            return;
+        }
+        long submittedAt = System.nanoTime();
+        executor.execute(() -> prerender(requestId, preview, creationDate, submittedAt));
+    }
+
+    private void prerender(Long requestId, LorPreviewDto preview, LocalDateTime creationDate, long submittedAt) {
+        try {
+            // Interactive traffic comes first: wait for an idle moment, up to max-delay
+            while (systemLoad() > maxSystemLoad) {
+                if (System.nanoTime() - submittedAt > maxDelay.toNanos()) {
+                    drop("system stayed busy");
+                    return;
+                }
+                Thread.sleep(IDLE_POLL_MILLIS);
+            }
+
+            long started = cpuTime();
+            pdfGenerationService.renderCustomLetter(preview, creationDate);
+            long used = cpuTime() - started;
+            completedCounter.increment();
+            logger.debug("Pre-rendered default letter for request ID: {}", requestId);
+
+            // Rest so that this worker's share of one core stays within the budget
+            long restNanos = (long) (used * (1 - cpuBudget) / cpuBudget);
+            Thread.sleep(TimeUnit.NANOSECONDS.toMillis(restNanos));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // Generation renders the letter itself when the pre-render is missing
+            logger.warn("Failed to pre-render letter for request ID {}: {}", requestId, e.getMessage());
+        }
+    }
+
+    private void drop(String reason) {
+        droppedCounter.increment();
+        logger.debug("Dropped pre-render task: {}", reason);
+    }
+
+    /**
+     * CPU time of this thread, or wall-clock time where the JVM cannot measure it
+     */
+    private long cpuTime() {
+        return threadMXBean.isCurrentThreadCpuTimeSupported()
+                ? threadMXBean.getCurrentThreadCpuTime()
+                : System.nanoTime();
+    }
+
+    /**
+     * Recent CPU usage of the whole machine in [0, 1]; 0 when not available
+     */
+    private double systemLoad() {
+        if (ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean os) {
+            return Math.max(0, os.getCpuLoad());
+        }
+        return 0;
+    }
+}
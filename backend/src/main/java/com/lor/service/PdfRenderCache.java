@@ -0,0 +1,139 @@
+package com.lor.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.itextpdf.kernel.pdf.PdfDate;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfDocumentInfo;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.GregorianCalendar;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Renders letter PDFs deterministically and caches the results by input hash.
+ *
+ * The same template, template version, output profile, field values and
+ * creation date always produce the same bytes: the creation and modification
+ * dates are fixed by the caller and the document id is taken from the input
+ * hash instead of being random. That hash also keys a size-bounded cache, so
+ * rendering a letter whose inputs did not change returns the earlier bytes
+ * without running iText.
+ */
+@Service
+public class PdfRenderCache {
+
+    @Autowired
+    private PdfOutputProfile pdfOutputProfile;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${pdf.render-cache.max-size:16MB}")
+    private DataSize maxSize;
+
+    @Value("${pdf.render-cache.expire-after-write:P2D}")
+    private Duration expireAfterWrite;
+
+    private Cache<String, byte[]> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((String key, byte[] pdf) -> pdf.length)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "pdf.render");
+    }
+
+    /**
+     * Render a PDF, or return the cached bytes of an earlier render of the same input.
+     * The template names the layout and its version; fields are every value the layout prints.
+     */
+    public byte[] render(String template, List<String> fields, LocalDateTime creationDate, Renderer renderer)
+            throws IOException {
+        byte[] hash = hash(template, fields, creationDate);
+        String key = HexFormat.of().formatHex(hash);
+        byte[] cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PdfDocument pdfDoc = new PdfDocument(pdfOutputProfile.newWriter(out, Arrays.copyOf(hash, 16)));
+        PdfDocumentInfo info = pdfDoc.getDocumentInfo();
+        String date = new PdfDate(GregorianCalendar.from(creationDate.atZone(ZoneId.systemDefault())))
+                .getPdfObject().getValue();
+        info.setMoreInfo("CreationDate", date);
+        info.setMoreInfo("ModDate", date);
+        renderer.render(pdfDoc);
+
+        byte[] pdf = out.toByteArray();
+        cache.put(key, pdf);
+        return pdf;
+    }
+
+    /**
+     * Normalize a printed value so inputs that render the same also hash the same:
+     * Unicode NFC, LF line endings and no surrounding whitespace
+     */
+    public static String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        return Normalizer.normalize(value, Normalizer.Form.NFC).replace("\r\n", "\n").replace('\r', '\n').trim();
+    }
+
+    private byte[] hash(String template, List<String> fields, LocalDateTime creationDate) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            update(digest, template);
+            update(digest, pdfOutputProfile.name());
+            update(digest, creationDate.toString());
+            for (String field : fields) {
+                update(digest, field);
+            }
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Length-prefixed, so ("ab", "c") and ("a", "bc") hash differently; null is length -1
+     */
+    private void update(MessageDigest digest, String value) {
+        byte[] bytes = value != null ? value.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        digest.update(ByteBuffer.allocate(4).putInt(value != null ? bytes.length : -1).array());
+        digest.update(bytes);
+    }
+
+    /**
+     * Writes the letter into a document whose writer and metadata are already set up;
+     * must close the document when done
+     */
+    @FunctionalInterface
+    public interface Renderer {
+        void render(PdfDocument pdfDoc) throws IOException;
+    }
+}
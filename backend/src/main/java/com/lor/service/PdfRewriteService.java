@@ -0,0 +1,193 @@
+package com.lor.service;
+
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.lor.entity.PdfDocument;
+import com.lor.repository.PdfDocumentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * One-off background job that rewrites stored PDFs under the current output profile.
+ *
+ * Runs once after startup and walks pdf_documents in id order, picking up rows
+ * written before output profiles existed or under other settings. Each file is
+ * rewritten to a temporary file next to it and swapped in only if it got
+ * smaller; the row's file size and profile are updated in the same step, so
+ * the job is done once every row carries the current profile. Instances racing
+ * on the same row are settled by the conditional update.
+ */
+@Service
+public class PdfRewriteService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PdfRewriteService.class);
+
+    @Autowired
+    private PdfDocumentRepository pdfDocumentRepository;
+
+    @Autowired
+    private PdfOutputProfile pdfOutputProfile;
+
+    @Autowired
+    private PdfByteCache pdfByteCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${pdf.output.rewrite.enabled:true}")
+    private boolean enabled;
+
+    @Value("${pdf.output.rewrite.batch-size:100}")
+    private int batchSize;
+
+    @Value("${pdf.output.rewrite.pause:PT1S}")
+    private Duration pause;
+
+    private TransactionTemplate transactionTemplate;
+    private Counter rewrittenCounter;
+    private Counter bytesSavedCounter;
+    private volatile boolean stopped;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        rewrittenCounter = Counter.builder("pdf.output.rewritten")
+                .description("Stored PDFs rewritten under the current output profile")
+                .register(meterRegistry);
+        bytesSavedCounter = Counter.builder("pdf.output.bytes.saved")
+                .description("Bytes of storage saved by rewriting stored PDFs")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stopped = true;
+    }
+
+    /**
+     * Start the rewrite on its own thread once the application is up
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        Thread thread = new Thread(this::rewriteAll, "pdf-rewrite");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void rewriteAll() {
+        String profile = pdfOutputProfile.name();
+        long afterId = 0;
+        long rewritten = 0;
+        long bytesBefore = 0;
+        long bytesSaved = 0;
+        try {
+            List<PdfDocument> batch;
+            while (!stopped && !(batch = pdfDocumentRepository.findNotWrittenWith(
+                    profile, afterId, PageRequest.of(0, batchSize))).isEmpty()) {
+                for (PdfDocument pdf : batch) {
+                    afterId = pdf.getId();
+                    if (stopped) {
+                        break;
+                    }
+                    try {
+                        Sizes sizes = rewrite(pdf, profile);
+                        if (sizes != null) {
+                            rewritten++;
+                            bytesBefore += sizes.before();
+                            bytesSaved += sizes.before() - sizes.after();
+                        }
+                    } catch (Exception e) {
+                        // The file stays as it was and is picked up again by the next run
+                        logger.warn("Failed to rewrite PDF {}: {}", pdf.getReferenceNumber(), e.getMessage());
+                    }
+                }
+                // Leave disk bandwidth for requests between batches
+                Thread.sleep(pause.toMillis());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.error("PDF rewrite job failed: {}", e.getMessage(), e);
+        }
+
+        if (rewritten > 0) {
+            logger.info("Rewrote {} stored PDFs under output profile {}: saved {} of {} bytes ({}%)",
+                    rewritten, profile, bytesSaved, bytesBefore,
+                    bytesBefore > 0 ? Math.round(bytesSaved * 100.0 / bytesBefore) : 0);
+        }
+    }
+
+    /**
+     * Rewrite one PDF; returns its size before and after, or null if another
+     * instance got to it first or its file is missing
+     */
+    private Sizes rewrite(PdfDocument pdf, String profile) throws IOException {
+        Path source = Paths.get(pdf.getFilePath());
+        if (!Files.isReadable(source)) {
+            logger.warn("Skipping rewrite of PDF {}, file not found or not readable", pdf.getReferenceNumber());
+            return null;
+        }
+
+        long before = Files.size(source);
+        Path temp = Files.createTempFile(source.getParent(), "rewrite-", ".pdf");
+        try {
+            // Reading and writing in one document copies every object under the new writer settings
+            new com.itextpdf.kernel.pdf.PdfDocument(new PdfReader(source.toString()),
+                    pdfOutputProfile.newWriter(temp.toString())).close();
+            long written = Files.size(temp);
+            boolean smaller = written < before;
+            long after = smaller ? written : before;
+
+            Integer marked = transactionTemplate.execute(status -> {
+                int updated = pdfDocumentRepository.markRewritten(pdf.getId(), profile, after);
+                if (updated == 1 && smaller) {
+                    try {
+                        Files.move(temp, source, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                return updated;
+            });
+            if (marked == null || marked == 0) {
+                return null;
+            }
+
+            pdfByteCache.invalidate(pdf.getReferenceNumber());
+            rewrittenCounter.increment();
+            bytesSavedCounter.increment(before - after);
+            return new Sizes(before, after);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private record Sizes(long before, long after) {}
+}
@@ -0,0 +1,172 @@
+package com.lor.service;
+
+import com.lor.config.ReplicaRouting;
+import com.lor.dto.ProfessorSummaryDto;
+import com.lor.repository.AdminProfessorRepository;
+import com.lor.repository.AdminStudentRepository;
+import com.lor.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Versioned in-memory snapshots of rarely changing reference lists
+ * (professor dropdown, departments, courses).
+ *
+ * Each list carries a version that is bumped after any write through this
+ * instance that can affect it. Writes through other instances do not bump it, so
+ * a snapshot older than reference-data.max-age is reloaded as well. Readers get
+ * the current snapshot and its ETag; a stale snapshot is reloaded lazily on the
+ * next read, and keeps its ETag if the content did not change.
+ */
+@Service
+public class ReferenceDataCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReferenceDataCache.class);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AdminProfessorRepository adminProfessorRepository;
+
+    @Autowired
+    private AdminStudentRepository adminStudentRepository;
+
+    @Value("${reference-data.max-age:PT1M}")
+    private Duration maxAge;
+
+    private final Slot<ProfessorSummaryDto> professors =
+            new Slot<>("professors", () -> userRepository.findProfessorSummaries(),
+                    professor -> Arrays.asList(professor.getId(), professor.getName(),
+                            professor.getUserId(), professor.getDepartment()));
+
+    private final Slot<String> departments =
+            new Slot<>("departments", () -> adminProfessorRepository.findAllDepartments(), List::of);
+
+    private final Slot<String> courses =
+            new Slot<>("courses", () -> adminStudentRepository.findAllCourses(), List::of);
+
+    /**
+     * Get professors for the LOR request dropdown
+     */
+    public Snapshot<ProfessorSummaryDto> getProfessors() {
+        return professors.get(maxAge);
+    }
+
+    /**
+     * Get all admin roster departments
+     */
+    public Snapshot<String> getDepartments() {
+        return departments.get(maxAge);
+    }
+
+    /**
+     * Get all admin roster courses
+     */
+    public Snapshot<String> getCourses() {
+        return courses.get(maxAge);
+    }
+
+    /**
+     * Invalidate the professor list after the current transaction commits
+     */
+    public void invalidateProfessors() {
+        AfterCommit.run(professors::bump);
+    }
+
+    /**
+     * Invalidate the department list after the current transaction commits
+     */
+    public void invalidateDepartments() {
+        AfterCommit.run(departments::bump);
+    }
+
+    /**
+     * Invalidate the course list after the current transaction commits
+     */
+    public void invalidateCourses() {
+        AfterCommit.run(courses::bump);
+    }
+
+    /**
+     * Immutable list snapshot with its version and content-derived ETag.
+     * The ETag is a SHA-256 of the content, so it is stable across restarts and instances.
+     */
+    public record Snapshot<T>(long version, List<T> items, String eTag) {}
+
+    private record Loaded<T>(Snapshot<T> snapshot, long loadedAt) {}
+
+    private static final class Slot<T> {
+
+        private final String name;
+        private final Supplier<List<T>> loader;
+        private final Function<T, List<?>> fields;
+        private final AtomicLong version = new AtomicLong();
+        private volatile Loaded<T> loaded;
+
+        Slot(String name, Supplier<List<T>> loader, Function<T, List<?>> fields) {
+            this.name = name;
+            this.loader = loader;
+            this.fields = fields;
+        }
+
+        Snapshot<T> get(Duration maxAge) {
+            Loaded<T> current = loaded;
+            long expectedVersion = version.get();
+            if (current != null && current.snapshot().version() == expectedVersion
+                    && System.nanoTime() - current.loadedAt() < maxAge.toNanos()) {
+                return current.snapshot();
+            }
+
+            // A write committing during the reload bumps the version again, so the
+            // next read reloads instead of trusting this snapshot. The reload reads the
+            // primary, since a lagging replica would pin pre-write data to the new version
+            List<T> items = List.copyOf(ReplicaRouting.onPrimary(loader));
+            String eTag = "\"" + name + "-" + hash(items) + "\"";
+            Snapshot<T> snapshot = new Snapshot<>(expectedVersion, items, eTag);
+            loaded = new Loaded<>(snapshot, System.nanoTime());
+            logger.debug("Reloaded {} reference list (version {}, {} items)", name, expectedVersion, items.size());
+            return snapshot;
+        }
+
+        void bump() {
+            version.incrementAndGet();
+        }
+
+        /**
+         * SHA-256 over every field of every item; values are length-prefixed and
+         * null is length -1, so different lists cannot run together into the same input
+         */
+        private String hash(List<T> items) {
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                digest.update(ByteBuffer.allocate(4).putInt(items.size()).array());
+                for (T item : items) {
+                    for (Object field : fields.apply(item)) {
+                        byte[] bytes = field != null ? field.toString().getBytes(StandardCharsets.UTF_8) : new byte[0];
+                        digest.update(ByteBuffer.allocate(4).putInt(field != null ? bytes.length : -1).array());
+                        digest.update(bytes);
+                    }
+                }
+                return HexFormat.of().formatHex(digest.digest());
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.lor.service;
+
+import com.lor.config.ReplicaRouting;
+import com.lor.entity.OutboxEvent;
+import com.lor.entity.RequestStatus;
+import com.lor.repository.ArchivedLorRequestRepository;
+import com.lor.repository.LorRequestRepository;
+import com.lor.repository.OutboxEventRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory LOR request counts by status, kept current from outbox events.
+ *
+ * Counts are seeded from one GROUP BY query together with the outbox high-water
+ * mark read in the same snapshot, so events already reflected in the seed are
+ * skipped. Every instance receives every event; a periodic resync corrects drift
+ * from events that arrived before the dispatcher started or failed to apply.
+ */
+@Service
+public class RequestStatisticsCounter implements OutboxEventSubscriber {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestStatisticsCounter.class);
+
+    @Autowired
+    private LorRequestRepository lorRequestRepository;
+
+    @Autowired
+    private ArchivedLorRequestRepository archivedLorRequestRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final Map<RequestStatus, Long> counts = new EnumMap<>(RequestStatus.class);
+    private long seededThroughEventId;
+
+    @PostConstruct
+    public void init() {
+        resync();
+    }
+
+    /**
+     * Get the number of requests with the given status
+     */
+    public synchronized long count(RequestStatus status) {
+        return counts.getOrDefault(status, 0L);
+    }
+
+    /**
+     * Get the total number of requests
+     */
+    public synchronized long total() {
+        return counts.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    @Override
+    public synchronized void onEvent(OutboxEvent event) {
+        // Already counted by the last seed; later ids apply even if dispatched out of order
+        if (event.getId() <= seededThroughEventId) {
+            return;
+        }
+        switch (event.getEventType()) {
+            case CREATED -> adjust(event.getStatus(), 1);
+            case APPROVED, REJECTED -> {
+                adjust(RequestStatus.PENDING, -1);
+                adjust(event.getStatus(), 1);
+            }
+            case DELETED -> adjust(event.getStatus(), -1);
+            case PDF_GENERATED, PDF_DELETED -> {
+                // PDF changes do not move a request between statuses
+            }
+        }
+    }
+
+    /**
+     * Reload the counts from the database
+     */
+    @Scheduled(fixedDelayString = "${statistics.resync-interval:PT5M}",
+               initialDelayString = "${statistics.resync-interval:PT5M}")
+    public void resync() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        // On the primary: a lagging replica would miss events that were already delivered
+        ReplicaRouting.onPrimary(() -> template.executeWithoutResult(status -> {
+            // Both reads share one InnoDB snapshot, so the mark matches the counts
+            long maxEventId = outboxEventRepository.findMaxId();
+            List<Object[]> rows = new ArrayList<>(lorRequestRepository.getRequestStatistics());
+            // Archived requests still count, so totals do not drop when a year is archived
+            rows.addAll(archivedLorRequestRepository.getRequestStatistics());
+
+            Map<RequestStatus, Long> loaded = new EnumMap<>(RequestStatus.class);
+            for (Object[] row : rows) {
+                loaded.merge((RequestStatus) row[0], ((Number) row[1]).longValue(), Long::sum);
+            }
+
+            synchronized (this) {
+                counts.clear();
+                counts.putAll(loaded);
+                seededThroughEventId = maxEventId;
+            }
+            logger.debug("Resynced request statistics {} through event {}", loaded, maxEventId);
+        }));
+    }
+
+    private void adjust(RequestStatus status, long delta) {
+        counts.merge(status, delta, (current, change) -> Math.max(0, current + change));
+    }
+}
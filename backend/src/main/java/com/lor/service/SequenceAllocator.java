@@ -0,0 +1,117 @@
+package com.lor.service;
+
+import com.lor.repository.SequenceBlockRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Hands out values of named counters without a database round trip per value.
+ *
+ * Each instance reserves a block of values at a time by advancing the counter
+ * row in sequence_blocks under a row lock, then serves the block from memory.
+ * Values are unique across instances and increase within an instance; values of
+ * a block left unused at shutdown are skipped, so sequences can have gaps.
+ */
+@Service
+public class SequenceAllocator {
+
+    private static final Logger logger = LoggerFactory.getLogger(SequenceAllocator.class);
+
+    @Autowired
+    private SequenceBlockRepository sequenceBlockRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${sequence.block-size:50}")
+    private int blockSize;
+
+    @Value("${sequence.reserve-attempts:5}")
+    private int reserveAttempts;
+
+    private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+
+    /**
+     * Next value of the named counter (counters start at 1)
+     */
+    public long next(String sequence) {
+        return next(sequence, blockSize);
+    }
+
+    /**
+     * Next value of the named counter, reserving blocks of the given size.
+     * Smaller blocks leave shorter gaps in human-facing numbering.
+     */
+    public long next(String sequence, int blockSize) {
+        Block block = blocks.computeIfAbsent(sequence, name -> new Block());
+        synchronized (block) {
+            if (block.next >= block.limit) {
+                block.next = reserve(sequence, blockSize);
+                block.limit = block.next + blockSize;
+            }
+            return block.next++;
+        }
+    }
+
+    /**
+     * Reserve the next block in its own transaction, so the row lock is held only
+     * for the reservation and a rollback of the caller never hands values out twice.
+     * Lock timeouts and deadlocks between instances are retried.
+     */
+    private long reserve(String sequence, int blockSize) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Long start = template.execute(status -> sequenceBlockRepository.findForUpdate(sequence)
+                        .map(row -> {
+                            long first = row.getNextValue();
+                            row.setNextValue(first + blockSize);
+                            row.setUpdatedAt(LocalDateTime.now());
+                            return first;
+                        })
+                        .orElse(null));
+                if (start != null) {
+                    logger.debug("Reserved {} values of sequence {} starting at {}", blockSize, sequence, start);
+                    return start;
+                }
+                // Created in a transaction of its own: inserting after the locking read
+                // above would deadlock with another instance doing the same
+                template.executeWithoutResult(status ->
+                        sequenceBlockRepository.createIfAbsent(sequence, 1, LocalDateTime.now()));
+            } catch (PessimisticLockingFailureException e) {
+                if (attempt >= reserveAttempts) {
+                    throw e;
+                }
+                logger.debug("Retrying reservation of sequence {} after {}", sequence, e.getMessage());
+                backOff(attempt);
+            }
+        }
+    }
+
+    private void backOff(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(10, 50) * attempt);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reserving a sequence block", e);
+        }
+    }
+
+    private static final class Block {
+        private long next;
+        private long limit;
+    }
+}
@@ -0,0 +1,10 @@
+-- Named counters handed out to application instances in blocks (hi/lo).
+-- next_value is the first value not yet reserved by any instance.
+CREATE TABLE sequence_blocks (
+    name VARCHAR(100) PRIMARY KEY,
+    next_value BIGINT NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
+
+-- Seeded so reservations only ever lock an existing row
+INSERT INTO sequence_blocks (name, next_value, updated_at) VALUES ('pdf_reference', 1, NOW());
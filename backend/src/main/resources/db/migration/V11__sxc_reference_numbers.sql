@@ -0,0 +1,41 @@
+-- SXC reference numbers are assigned once, when a request is approved:
+-- SXC/<course code>/Internship/<academic year>/<serial>, with a serial counter
+-- per academic year and course kept in sequence_blocks.
+ALTER TABLE lor_requests ADD COLUMN sxc_reference_number VARCHAR(100) NULL;
+ALTER TABLE lor_requests ADD CONSTRAINT uk_lor_requests_sxc_reference UNIQUE (sxc_reference_number);
+ALTER TABLE lor_requests_archive ADD COLUMN sxc_reference_number VARCHAR(100) NULL;
+
+-- Number the requests approved so far in approval order
+CREATE TEMPORARY TABLE sxc_reference_backfill AS
+SELECT id,
+       course_code,
+       academic_year,
+       ROW_NUMBER() OVER (PARTITION BY academic_year, course_code ORDER BY approved_at, id) AS serial
+FROM (
+    SELECT id,
+           COALESCE(NULLIF(LEFT(REGEXP_REPLACE(UPPER(course), '[^A-Z0-9]', ''), 20), ''), 'GEN') AS course_code,
+           CONCAT(start_year, '-', RIGHT(start_year + 1, 2)) AS academic_year,
+           approved_at
+    FROM (
+        SELECT id, course,
+               COALESCE(processed_at, requested_at) AS approved_at,
+               IF(MONTH(COALESCE(processed_at, requested_at)) >= 7,
+                  YEAR(COALESCE(processed_at, requested_at)),
+                  YEAR(COALESCE(processed_at, requested_at)) - 1) AS start_year
+        FROM lor_requests
+        WHERE status = 'APPROVED'
+    ) approved
+) coded;
+
+UPDATE lor_requests l
+JOIN sxc_reference_backfill b ON b.id = l.id
+SET l.sxc_reference_number = CONCAT('SXC/', b.course_code, '/Internship/', b.academic_year, '/',
+                                    LPAD(b.serial, 3, '0'));
+
+-- Continue each counter after the numbers handed out above
+INSERT INTO sequence_blocks (name, next_value, updated_at)
+SELECT CONCAT('sxc/', academic_year, '/', course_code), MAX(serial) + 1, NOW()
+FROM sxc_reference_backfill
+GROUP BY academic_year, course_code;
+
+DROP TEMPORARY TABLE sxc_reference_backfill;
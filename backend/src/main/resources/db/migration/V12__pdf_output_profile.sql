@@ -0,0 +1,4 @@
+-- Writer profile a stored PDF was last written with; NULL for files written
+-- before output profiles existed. The rewrite job picks up rows whose profile
+-- differs from the configured one.
+ALTER TABLE pdf_documents ADD COLUMN output_profile VARCHAR(50) NULL;
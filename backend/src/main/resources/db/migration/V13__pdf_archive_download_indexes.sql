@@ -0,0 +1,4 @@
+-- Batch downloads (ZIP and merged PDF) also read the archived PDFs of closed
+-- academic years, filtered by professor and generation time like the live table.
+CREATE INDEX idx_pdf_documents_archive_generated_by_at ON pdf_documents_archive(generated_by, generated_at);
+CREATE INDEX idx_pdf_documents_archive_generated_at ON pdf_documents_archive(generated_at);
@@ -0,0 +1,42 @@
+-- Composite and covering indexes for the LorRequestRepository and
+-- PdfDocumentRepository query shapes. Equality columns come first, the
+-- ORDER BY column last, so each query is an index range read with no filesort.
+
+-- findPendingRequestsByProfessor, countPendingRequestsByProfessor
+CREATE INDEX idx_lor_requests_professor_status_requested ON lor_requests(professor_id, status, requested_at);
+
+-- findApprovedRequestsByStudent
+CREATE INDEX idx_lor_requests_student_status_processed ON lor_requests(student_id, status, processed_at);
+
+-- findByStudentId, findByStudentOrderByRequestedAtDesc, countByStudent
+CREATE INDEX idx_lor_requests_student_requested ON lor_requests(student_id, requested_at);
+
+-- findByProfessorId, findByProfessorOrderByRequestedAtDesc, countByProfessor
+CREATE INDEX idx_lor_requests_professor_requested ON lor_requests(professor_id, requested_at);
+
+-- findByStudentAndProfessor, findPendingRequestByStudentAndProfessor
+CREATE INDEX idx_lor_requests_student_professor_status ON lor_requests(student_id, professor_id, status);
+
+-- findByStatusOrderByRequestedAtDesc, countByStatus, getRequestStatistics (covering)
+CREATE INDEX idx_lor_requests_status_requested ON lor_requests(status, requested_at);
+
+-- findByDateRange, findRecentRequests
+CREATE INDEX idx_lor_requests_requested_at ON lor_requests(requested_at);
+
+-- findByGeneratedByOrderByGeneratedAtDesc, findByProfessorId, countByGeneratedBy
+CREATE INDEX idx_pdf_documents_generated_by_at ON pdf_documents(generated_by, generated_at);
+
+-- findByDateRange, findRecentPdfs; also covers getTotalFileSize
+CREATE INDEX idx_pdf_documents_generated_at_size ON pdf_documents(generated_at, file_size);
+
+-- Single-column indexes made redundant by the composites above or by UNIQUE
+-- constraints. student_id and professor_id back the lor_requests foreign keys,
+-- and InnoDB refuses to drop the last index a foreign key can use: these drops
+-- only succeed because the composites above lead with the same columns and
+-- take over enforcing the keys.
+DROP INDEX idx_lor_requests_student ON lor_requests;
+DROP INDEX idx_lor_requests_professor ON lor_requests;
+DROP INDEX idx_lor_requests_status ON lor_requests;
+DROP INDEX idx_pdf_documents_reference ON pdf_documents;
+DROP INDEX idx_users_examination_number ON users;
+DROP INDEX idx_users_user_id ON users;
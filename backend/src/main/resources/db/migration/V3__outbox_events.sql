@@ -0,0 +1,16 @@
+-- Transactional outbox for LOR request lifecycle events. Rows are inserted in
+-- the same transaction as the lor_requests change and published in id order.
+-- lor_request_id has no foreign key so DELETED events outlive their request.
+CREATE TABLE outbox_events (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    lor_request_id BIGINT NOT NULL,
+    event_type ENUM('CREATED', 'APPROVED', 'REJECTED', 'DELETED') NOT NULL,
+    status ENUM('PENDING', 'APPROVED', 'REJECTED') NOT NULL,
+    student_id BIGINT NOT NULL,
+    professor_id BIGINT NOT NULL,
+    occurred_at TIMESTAMP NOT NULL,
+    published_at TIMESTAMP NULL,
+
+    -- Dispatcher claim (published_at IS NULL ORDER BY id) and retention purge
+    INDEX idx_outbox_events_published_id (published_at, id)
+);
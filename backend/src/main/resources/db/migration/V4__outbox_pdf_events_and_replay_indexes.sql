@@ -0,0 +1,7 @@
+-- PDF lifecycle events for the per-user event stream
+ALTER TABLE outbox_events
+    MODIFY event_type ENUM('CREATED', 'APPROVED', 'REJECTED', 'DELETED', 'PDF_GENERATED', 'PDF_DELETED') NOT NULL;
+
+-- Last-Event-ID replay: events for one student or professor after a given id
+CREATE INDEX idx_outbox_events_student_id ON outbox_events(student_id, id);
+CREATE INDEX idx_outbox_events_professor_id ON outbox_events(professor_id, id);
@@ -0,0 +1,16 @@
+-- Delta sync: requests changed since a watermark, per student or professor
+CREATE INDEX idx_lor_requests_professor_updated ON lor_requests(professor_id, updated_at);
+CREATE INDEX idx_lor_requests_student_updated ON lor_requests(student_id, updated_at);
+
+-- Deleted requests, kept for the delta-sync window. No foreign keys, since the
+-- request row is gone and the tombstone should outlive it.
+CREATE TABLE lor_request_tombstones (
+    lor_request_id BIGINT PRIMARY KEY,
+    student_id BIGINT NOT NULL,
+    professor_id BIGINT NOT NULL,
+    deleted_at TIMESTAMP NOT NULL,
+
+    INDEX idx_lor_request_tombstones_student_deleted (student_id, deleted_at),
+    INDEX idx_lor_request_tombstones_professor_deleted (professor_id, deleted_at),
+    INDEX idx_lor_request_tombstones_deleted (deleted_at)
+);
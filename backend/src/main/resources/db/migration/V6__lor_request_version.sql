@@ -0,0 +1,2 @@
+-- Optimistic lock version for LOR requests
+ALTER TABLE lor_requests ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,23 @@
+-- At most one PENDING request per student and professor, enforced by the database.
+-- pending_key is 1 while the request is pending and NULL otherwise; a unique index
+-- ignores NULLs, so any number of processed requests per pair remain allowed.
+
+-- Close duplicates created before the constraint existed, keeping the newest pending row
+UPDATE lor_requests l
+JOIN (
+    SELECT student_id, professor_id, MAX(id) AS keep_id
+    FROM lor_requests
+    WHERE status = 'PENDING'
+    GROUP BY student_id, professor_id
+    HAVING COUNT(*) > 1
+) d ON d.student_id = l.student_id AND d.professor_id = l.professor_id
+SET l.status = 'REJECTED',
+    l.professor_comments = 'Closed automatically as a duplicate of a newer pending request',
+    l.processed_at = CURRENT_TIMESTAMP
+WHERE l.status = 'PENDING' AND l.id <> d.keep_id;
+
+ALTER TABLE lor_requests
+    ADD COLUMN pending_key TINYINT AS (CASE WHEN status = 'PENDING' THEN 1 END) STORED;
+
+CREATE UNIQUE INDEX uk_lor_requests_student_professor_pending
+    ON lor_requests(student_id, professor_id, pending_key);
@@ -0,0 +1,13 @@
+-- Responses stored per Idempotency-Key so retried requests are replayed, not re-executed.
+-- status_code is NULL while the first request is still executing.
+CREATE TABLE idempotency_keys (
+    idempotency_key CHAR(64) PRIMARY KEY,
+    request_hash CHAR(64) NOT NULL,
+    status_code INT NULL,
+    content_type VARCHAR(255) NULL,
+    response_body MEDIUMBLOB NULL,
+    created_at TIMESTAMP NOT NULL,
+    completed_at TIMESTAMP NULL,
+
+    INDEX idx_idempotency_keys_created (created_at)
+);
@@ -0,0 +1,54 @@
+-- Archive tables for LOR requests and PDFs of closed academic years. The live
+-- tables keep only recent years, so their indexes stay small; the archive job
+-- moves whole academic years (July to June, by requested_at) across.
+--
+-- MySQL range partitioning was not used: partitioned InnoDB tables cannot have
+-- foreign keys, and every unique key would have to include the partition column.
+
+CREATE TABLE lor_requests_archive (
+    id BIGINT PRIMARY KEY,
+    student_id BIGINT NOT NULL,
+    professor_id BIGINT NOT NULL,
+    student_name VARCHAR(255) NOT NULL,
+    registration_number VARCHAR(50) NOT NULL,
+    examination_number VARCHAR(50) NOT NULL,
+    course VARCHAR(255) NOT NULL,
+    semester VARCHAR(50) NOT NULL,
+    session VARCHAR(50) NOT NULL,
+    class_roll_number VARCHAR(50) NOT NULL,
+    institute_company VARCHAR(255) NOT NULL,
+    status ENUM('PENDING', 'APPROVED', 'REJECTED') NOT NULL,
+    professor_comments TEXT NULL,
+    requested_at TIMESTAMP NULL,
+    processed_at TIMESTAMP NULL,
+    created_at TIMESTAMP NULL,
+    updated_at TIMESTAMP NULL,
+    academic_year VARCHAR(7) NOT NULL,
+    archived_at TIMESTAMP NOT NULL,
+
+    FOREIGN KEY (student_id) REFERENCES users(id) ON DELETE CASCADE,
+    FOREIGN KEY (professor_id) REFERENCES users(id) ON DELETE CASCADE,
+
+    INDEX idx_lor_requests_archive_student_requested (student_id, requested_at),
+    INDEX idx_lor_requests_archive_professor_requested (professor_id, requested_at),
+    INDEX idx_lor_requests_archive_year (academic_year)
+);
+
+CREATE TABLE pdf_documents_archive (
+    id BIGINT PRIMARY KEY,
+    lor_request_id BIGINT NOT NULL UNIQUE,
+    reference_number VARCHAR(100) NOT NULL UNIQUE,
+    file_path VARCHAR(500) NOT NULL,
+    file_name VARCHAR(255) NOT NULL,
+    file_size BIGINT NOT NULL,
+    generated_by BIGINT NOT NULL,
+    generated_at TIMESTAMP NULL,
+    academic_year VARCHAR(7) NOT NULL,
+    archived_at TIMESTAMP NOT NULL,
+
+    FOREIGN KEY (lor_request_id) REFERENCES lor_requests_archive(id) ON DELETE CASCADE,
+    FOREIGN KEY (generated_by) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- Archive job: closed requests of one academic year, in id order
+CREATE INDEX idx_lor_requests_requested_id ON lor_requests(requested_at, id);
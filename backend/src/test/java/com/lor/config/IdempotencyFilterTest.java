@@ -0,0 +1,224 @@
+package com.lor.config;
+
+import com.lor.entity.IdempotencyRecord;
+import com.lor.repository.IdempotencyRecordRepository;
+import com.lor.service.IdempotencyService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * IdempotencyFilter together with IdempotencyService; only the key table is mocked
+ */
+class IdempotencyFilterTest {
+
+    private static final String KEY = "7b0c6f9e-1a2b-4c3d-8e9f-0a1b2c3d4e5f";
+    private static final String BODY = "{\"professorId\":2,\"purpose\":\"Internship\"}";
+
+    private IdempotencyRecordRepository repository;
+    private IdempotencyFilter filter;
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(IdempotencyRecordRepository.class);
+        when(repository.findById(anyString())).thenReturn(Optional.empty());
+
+        IdempotencyService service = new IdempotencyService();
+        ReflectionTestUtils.setField(service, "idempotencyRecordRepository", repository);
+        ReflectionTestUtils.setField(service, "maxEntries", 100L);
+        ReflectionTestUtils.setField(service, "ttl", Duration.ofHours(24));
+        ReflectionTestUtils.setField(service, "inProgressTimeout", Duration.ofSeconds(5));
+        service.init();
+
+        filter = new IdempotencyFilter();
+        ReflectionTestUtils.setField(filter, "idempotencyService", service);
+        ReflectionTestUtils.setField(filter, "objectMapper", Jackson2ObjectMapperBuilder.json().build());
+        ReflectionTestUtils.setField(filter, "endpoints", List.of("POST /lor-requests"));
+        ReflectionTestUtils.setField(filter, "maxBodyBytes", 262144);
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new TestingAuthenticationToken("student@example.com", null, "ROLE_STUDENT"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void firstRequestRunsTheHandlerAndStoresItsResponse() throws Exception {
+        MockHttpServletResponse response = send(BODY, createdHandler());
+
+        assertEquals(201, response.getStatus());
+        assertEquals("{\"id\":1}", response.getContentAsString());
+        assertNull(response.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(1, executions.get());
+        verify(repository).claim(anyString(), anyString(), any());
+        verify(repository).complete(anyString(), eq(201), anyString(), any(byte[].class), any());
+    }
+
+    @Test
+    void retryWithTheSameKeyReplaysTheStoredResponse() throws Exception {
+        send(BODY, createdHandler());
+        MockHttpServletResponse replayed = send(BODY, createdHandler());
+
+        assertEquals(201, replayed.getStatus());
+        assertEquals("{\"id\":1}", replayed.getContentAsString());
+        assertEquals("true", replayed.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void keyReusedForADifferentRequestIsRejected() throws Exception {
+        send(BODY, createdHandler());
+        MockHttpServletResponse response = send("{\"professorId\":3,\"purpose\":\"Internship\"}", createdHandler());
+
+        assertEquals(422, response.getStatus());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void duplicateArrivingWhileTheFirstRunsWaitsAndReplaysIt() throws Exception {
+        CountDownLatch handlerStarted = new CountDownLatch(1);
+        CountDownLatch releaseHandler = new CountDownLatch(1);
+        FilterChain slowHandler = (request, response) -> {
+            handlerStarted.countDown();
+            try {
+                releaseHandler.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            createdHandler().doFilter(request, response);
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            Future<MockHttpServletResponse> first = executor.submit(() -> {
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+                return send(BODY, slowHandler);
+            });
+            assertTrue(handlerStarted.await(5, TimeUnit.SECONDS));
+            Future<MockHttpServletResponse> duplicate = executor.submit(() -> {
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+                return send(BODY, createdHandler());
+            });
+            releaseHandler.countDown();
+
+            assertEquals(201, first.get(5, TimeUnit.SECONDS).getStatus());
+            MockHttpServletResponse replayed = duplicate.get(5, TimeUnit.SECONDS);
+            assertEquals(201, replayed.getStatus());
+            assertEquals("true", replayed.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+            assertEquals(1, executions.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void duplicateOfARequestRunningOnAnotherInstanceGetsConflict() throws Exception {
+        IdempotencyRecord claimed = new IdempotencyRecord();
+        claimed.setRequestHash("claimed elsewhere");
+        when(repository.findById(anyString())).thenReturn(Optional.of(claimed));
+        when(repository.releaseIfStale(anyString(), any())).thenReturn(0);
+
+        MockHttpServletResponse response = send(BODY, createdHandler());
+
+        assertEquals(409, response.getStatus());
+        assertEquals(0, executions.get());
+    }
+
+    @Test
+    void handlerCanReadTheBodyWithAReadListener() throws Exception {
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        AtomicInteger allDataRead = new AtomicInteger();
+        FilterChain asyncHandler = (request, response) -> {
+            ServletInputStream input = request.getInputStream();
+            input.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    while (input.isReady() && !input.isFinished()) {
+                        read.write(input.read());
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    allDataRead.incrementAndGet();
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    throw new AssertionError(t);
+                }
+            });
+            ((HttpServletResponse) response).setStatus(204);
+        };
+
+        send(BODY, asyncHandler);
+
+        assertEquals(BODY, read.toString(StandardCharsets.UTF_8));
+        assertEquals(1, allDataRead.get());
+    }
+
+    private MockHttpServletResponse send(String body, FilterChain handler) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/lor-requests");
+        request.addHeader(IdempotencyFilter.HEADER, KEY);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, handler);
+        return response;
+    }
+
+    /**
+     * Handler that checks it received the request body and answers 201 Created
+     */
+    private FilterChain createdHandler() {
+        return (request, response) -> {
+            String received = StreamUtils.copyToString(request.getInputStream(), StandardCharsets.UTF_8);
+            assertTrue(received.startsWith("{\"professorId\""));
+            executions.incrementAndGet();
+            HttpServletResponse httpResponse = (HttpServletResponse) response;
+            httpResponse.setStatus(201);
+            httpResponse.setContentType("application/json");
+            httpResponse.getOutputStream().write("{\"id\":1}".getBytes(StandardCharsets.UTF_8));
+        };
+    }
+}
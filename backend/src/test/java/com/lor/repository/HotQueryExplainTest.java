@@ -0,0 +1,188 @@
+package com.lor.repository;
+
+import com.lor.support.MySqlContainerTest;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.function.Executable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Runs EXPLAIN on the SQL of the hot LorRequestRepository and
+ * PdfDocumentRepository queries against the migrated schema and checks that
+ * no table is read with a full scan. The statements mirror what Hibernate
+ * generates for each query; the tables hold enough rows, with analyzed
+ * statistics, that the optimizer prefers an index wherever one fits.
+ */
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class HotQueryExplainTest extends MySqlContainerTest {
+
+    private static final int PROFESSORS = 20;
+    private static final int STUDENTS = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long professorId;
+    private long studentId;
+
+    @BeforeAll
+    void seed() {
+        Integer seeded = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM users WHERE email LIKE '%@explain.test'", Integer.class);
+        if (seeded == null || seeded == 0) {
+            jdbcTemplate.update(
+                    "INSERT INTO users (name, email, password, role, user_id, department) " +
+                    "WITH RECURSIVE seq(i) AS (SELECT 1 UNION ALL SELECT i + 1 FROM seq WHERE i < ?) " +
+                    "SELECT CONCAT('Professor ', i), CONCAT('professor', i, '@explain.test'), 'x', 'PROFESSOR', " +
+                    "CONCAT('EXP', i), 'Computer Science' FROM seq", PROFESSORS);
+            jdbcTemplate.update(
+                    "INSERT INTO users (name, email, password, role, registration_number, examination_number, course) " +
+                    "WITH RECURSIVE seq(i) AS (SELECT 1 UNION ALL SELECT i + 1 FROM seq WHERE i < ?) " +
+                    "SELECT CONCAT('Student ', i), CONCAT('student', i, '@explain.test'), 'x', 'STUDENT', " +
+                    "CONCAT('REG', i), CONCAT('EXAM', i), 'BCA' FROM seq", STUDENTS);
+        }
+        professorId = firstUserId("PROFESSOR");
+        studentId = firstUserId("STUDENT");
+
+        if (seeded == null || seeded == 0) {
+            // 20,000 requests over three years, one per student and professor pair;
+            // every tenth is pending, the rest mostly approved
+            jdbcTemplate.update(
+                    "INSERT INTO lor_requests (student_id, professor_id, student_name, registration_number, " +
+                    "examination_number, course, semester, session, class_roll_number, institute_company, " +
+                    "status, requested_at, processed_at, updated_at) " +
+                    "WITH RECURSIVE seq(i) AS (SELECT 0 UNION ALL SELECT i + 1 FROM seq WHERE i < 999), " +
+                    "req AS (SELECT a.i * ? + b.i AS n, NOW() - INTERVAL ((a.i * ? + b.i) % 1095) DAY AS requested " +
+                    "        FROM seq a JOIN seq b ON b.i < ?) " +
+                    "SELECT ? + n % ?, ? + n DIV ?, 'Student', 'REG', 'EXAM', 'BCA', 'VI', '2024-25', '1', 'Company', " +
+                    "CASE WHEN n % 10 = 0 THEN 'PENDING' WHEN n % 10 < 7 THEN 'APPROVED' ELSE 'REJECTED' END, " +
+                    "requested, IF(n % 10 = 0, NULL, requested + INTERVAL 1 DAY), " +
+                    "IF(n % 10 = 0, requested, requested + INTERVAL 1 DAY) FROM req",
+                    PROFESSORS, PROFESSORS, PROFESSORS, studentId, STUDENTS, professorId, STUDENTS);
+            jdbcTemplate.update(
+                    "INSERT INTO pdf_documents (lor_request_id, reference_number, file_path, file_name, file_size, " +
+                    "generated_by, generated_at) " +
+                    "SELECT id, CONCAT('LOR', LPAD(id, 12, '0')), CONCAT('/tmp/', id, '.pdf'), CONCAT(id, '.pdf'), " +
+                    "30000 + id % 5000, professor_id, processed_at FROM lor_requests WHERE status = 'APPROVED'");
+            jdbcTemplate.execute("ANALYZE TABLE users, lor_requests, pdf_documents");
+        }
+    }
+
+    @Test
+    void lorRequestQueriesUseIndexes() {
+        assertNoFullScans(
+                explain("findByStudentId",
+                        "SELECT * FROM lor_requests WHERE student_id = ? ORDER BY requested_at DESC", studentId),
+                explain("findByProfessorId",
+                        "SELECT * FROM lor_requests WHERE professor_id = ? ORDER BY requested_at DESC", professorId),
+                explain("findPendingRequestsByProfessor",
+                        "SELECT * FROM lor_requests WHERE professor_id = ? AND status = 'PENDING' " +
+                        "ORDER BY requested_at", professorId),
+                explain("countPendingRequestsByProfessor",
+                        "SELECT COUNT(*) FROM lor_requests WHERE professor_id = ? AND status = 'PENDING'",
+                        professorId),
+                explain("findApprovedRequestsByStudent",
+                        "SELECT * FROM lor_requests WHERE student_id = ? AND status = 'APPROVED' " +
+                        "ORDER BY processed_at DESC", studentId),
+                explain("findByStudentAndProfessor",
+                        "SELECT * FROM lor_requests WHERE student_id = ? AND professor_id = ?",
+                        studentId, professorId),
+                explain("findByStatusOrderByRequestedAtDesc",
+                        "SELECT * FROM lor_requests WHERE status = 'PENDING' ORDER BY requested_at DESC"),
+                explain("countByStatus",
+                        "SELECT COUNT(*) FROM lor_requests WHERE status = 'PENDING'"),
+                explain("findByDateRange",
+                        "SELECT * FROM lor_requests WHERE requested_at BETWEEN NOW() - INTERVAL 14 DAY AND NOW() " +
+                        "ORDER BY requested_at DESC"),
+                explain("findRecentRequests",
+                        "SELECT * FROM lor_requests WHERE requested_at >= NOW() - INTERVAL 30 DAY " +
+                        "ORDER BY requested_at DESC"),
+                explain("getRequestStatistics",
+                        "SELECT status, COUNT(*) FROM lor_requests GROUP BY status"),
+                explain("findStudentChangesSince",
+                        "SELECT * FROM lor_requests l JOIN users p ON p.id = l.professor_id " +
+                        "WHERE l.student_id = ? AND l.updated_at >= NOW() - INTERVAL 7 DAY ORDER BY l.updated_at",
+                        studentId),
+                explain("findProfessorChangesSince",
+                        "SELECT * FROM lor_requests l JOIN users p ON p.id = l.professor_id " +
+                        "WHERE l.professor_id = ? AND l.updated_at >= NOW() - INTERVAL 7 DAY ORDER BY l.updated_at",
+                        professorId),
+                explain("findEarliestClosedRequestedBefore",
+                        "SELECT MIN(requested_at) FROM lor_requests WHERE status <> 'PENDING' " +
+                        "AND requested_at < NOW() - INTERVAL 1065 DAY"),
+                explain("findClosedIdsRequestedBetween",
+                        "SELECT id FROM lor_requests WHERE status <> 'PENDING' " +
+                        "AND requested_at >= NOW() - INTERVAL 1095 DAY AND requested_at < NOW() - INTERVAL 1065 DAY " +
+                        "ORDER BY id LIMIT 500"));
+    }
+
+    @Test
+    void pdfDocumentQueriesUseIndexes() {
+        long requestId = jdbcTemplate.queryForObject("SELECT MIN(lor_request_id) FROM pdf_documents", Long.class);
+        assertNoFullScans(
+                explain("findByLorRequestId",
+                        "SELECT * FROM pdf_documents WHERE lor_request_id = ?", requestId),
+                explain("findByReferenceNumber",
+                        "SELECT * FROM pdf_documents WHERE reference_number = ?",
+                        String.format("LOR%012d", requestId)),
+                explain("findByProfessorId",
+                        "SELECT * FROM pdf_documents WHERE generated_by = ? ORDER BY generated_at DESC", professorId),
+                explain("countByGeneratedBy",
+                        "SELECT COUNT(*) FROM pdf_documents WHERE generated_by = ?", professorId),
+                explain("findByStudentId",
+                        "SELECT p.* FROM pdf_documents p JOIN lor_requests l ON l.id = p.lor_request_id " +
+                        "WHERE l.student_id = ? ORDER BY p.generated_at DESC", studentId),
+                explain("findByDateRange",
+                        "SELECT * FROM pdf_documents WHERE generated_at BETWEEN NOW() - INTERVAL 14 DAY AND NOW() " +
+                        "ORDER BY generated_at DESC"),
+                explain("findRecentPdfs",
+                        "SELECT * FROM pdf_documents WHERE generated_at >= NOW() - INTERVAL 30 DAY " +
+                        "ORDER BY generated_at DESC"),
+                explain("getTotalFileSize",
+                        "SELECT SUM(file_size) FROM pdf_documents"),
+                explain("findArchiveRows by professor",
+                        "SELECT p.id, p.reference_number, p.file_name, p.file_path, p.generated_at FROM pdf_documents p " +
+                        "WHERE p.id > ? AND (? IS NULL OR p.generated_by = ?) ORDER BY p.id LIMIT 100",
+                        0, professorId, professorId),
+                explain("findNotWrittenWith",
+                        "SELECT * FROM pdf_documents WHERE id > ? " +
+                        "AND (output_profile IS NULL OR output_profile <> 'full-z9-smart') ORDER BY id LIMIT 100", 0));
+    }
+
+    private long firstUserId(String role) {
+        return jdbcTemplate.queryForObject(
+                "SELECT MIN(id) FROM users WHERE role = ? AND email LIKE '%@explain.test'", Long.class, role);
+    }
+
+    /**
+     * Checks that every table of the statement's plan is read through an index
+     */
+    private Executable explain(String query, String sql, Object... args) {
+        List<Map<String, Object>> plan = jdbcTemplate.queryForList("EXPLAIN " + sql, args);
+        return () -> {
+            for (Map<String, Object> row : plan) {
+                assertNotEquals("ALL", row.get("type"),
+                        () -> query + " reads table " + row.get("table") + " with a full scan: " + row);
+            }
+        };
+    }
+
+    private void assertNoFullScans(Executable... checks) {
+        assertAll(checks);
+    }
+}
@@ -0,0 +1,130 @@
+package com.lor.service;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * NgramSearchIndex ranking, candidate selection and lookup time at roster scale
+ */
+class NgramSearchIndexTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(NgramSearchIndexTest.class);
+
+    private static final int LARGE_ROSTER = 100_000;
+    private static final int MEASURED_ROUNDS = 21;
+    private static final String[] FIRST = {"ana", "bruno", "carla", "diego", "elena", "fabio", "gabriela",
+            "hugo", "ines", "joao", "karina", "lucas", "marta", "nuno", "olivia", "pedro", "rita", "sergio"};
+    private static final String[] LAST = {"almeida", "barbosa", "cardoso", "duarte", "esteves", "ferreira",
+            "gomes", "henriques", "lopes", "martins", "nogueira", "oliveira", "pereira", "ribeiro", "santos"};
+    private static final String[] COURSES = {"Computer Science", "Physics", "Mathematics", "Chemistry",
+            "Civil Engineering", "Economics"};
+
+    @Test
+    void exactBeatsPrefixBeatsWordPrefixBeatsSubstring() {
+        NgramSearchIndex index = new NgramSearchIndex.Builder(4)
+                .add(1, "Physics", "Joana Silvas")
+                .add(2, "Physics", "Maria Ana Silva")
+                .add(3, "Physics", "Ana Silvares")
+                .add(4, "Physics", "Ana Silva")
+                .build();
+
+        assertEquals(List.of(4L, 3L, 2L, 1L), index.search("ana silva", null));
+    }
+
+    @Test
+    void earlierFieldsOutrankLaterFieldsForTheSameKindOfMatch() {
+        NgramSearchIndex index = new NgramSearchIndex.Builder(4)
+                .add(1, "Physics", "Alice", "2021001", "E001", "Physics")
+                .add(2, "Physics", "Physicsson", "2021002", "E002", "Physics")
+                .add(3, "Physics", "Physics", "2021003", "E003", "Chemistry")
+                .add(4, "Physics", "Bob", "2021004", "E004", "Physics")
+                .build();
+
+        // Exact name, then exact course (tie broken by name), then name prefix
+        assertEquals(List.of(3L, 1L, 4L, 2L), index.search("physics", null));
+    }
+
+    @Test
+    void filterRestrictsResultsCaseInsensitively() {
+        NgramSearchIndex index = new NgramSearchIndex.Builder(3)
+                .add(1, "Computer Science", "Ana Lopes")
+                .add(2, "Physics", "Ana Gomes")
+                .add(3, "Applied Physics", "Ana Santos")
+                .build();
+
+        assertEquals(List.of(2L, 3L), index.search("ana", " PHYSICS "));
+        assertEquals(List.of(1L), index.search("ana", "computer"));
+        assertTrue(index.search("ana", "history").isEmpty());
+    }
+
+    @Test
+    void queriesShorterThanAGramScanEveryDocument() {
+        NgramSearchIndex index = new NgramSearchIndex.Builder(4)
+                .add(1, "Physics", "Paulo Luz")
+                .add(2, "Physics", "Lu")
+                .add(3, "Physics", "Lucas Pereira")
+                .add(4, "Physics", "Marta Nogueira")
+                .build();
+
+        assertEquals(List.of(2L, 3L, 1L), index.search("lu", null));
+        // Single characters only ever match as substrings here, so the name order decides
+        assertEquals(List.of(3L, 4L, 1L), index.search("a", null));
+        assertTrue(index.search("zq", null).isEmpty());
+    }
+
+    @Test
+    void candidatesSharingEveryGramAreStillVerified() {
+        NgramSearchIndex index = new NgramSearchIndex.Builder(2)
+                .add(1, "Physics", "abcxbcd")
+                .add(2, "Physics", "xabcdx")
+                .build();
+
+        assertEquals(List.of(2L), index.search("abcd", null));
+        assertTrue(index.search("abcz", null).isEmpty());
+        assertTrue(NgramSearchIndex.EMPTY.search("abcd", null).isEmpty());
+    }
+
+    @Test
+    void measuresLookupTimeAtRosterScale() {
+        Random random = new Random(42);
+        NgramSearchIndex.Builder builder = new NgramSearchIndex.Builder(LARGE_ROSTER);
+        for (int i = 0; i < LARGE_ROSTER; i++) {
+            String name = FIRST[random.nextInt(FIRST.length)] + " " + LAST[random.nextInt(LAST.length)]
+                    + " " + LAST[random.nextInt(LAST.length)];
+            String course = COURSES[random.nextInt(COURSES.length)];
+            builder.add(i, course, name, String.format("2021%06d", i), String.format("E%07d", i), course);
+        }
+        NgramSearchIndex index = builder.build();
+        assertEquals(LARGE_ROSTER, index.size());
+
+        // Selective identifiers and names, broad surnames, and a short query that scans every document
+        String[] queries = {"2021004242", "E0099999", "marta ribeiro", "gabriela", "nogueira", "oliv", "lu"};
+        for (int round = 0; round < 5; round++) {
+            for (String query : queries) {
+                assertFalse(index.search(query, null).isEmpty());
+            }
+        }
+
+        for (String query : queries) {
+            long[] samples = new long[MEASURED_ROUNDS];
+            int hits = 0;
+            for (int round = 0; round < MEASURED_ROUNDS; round++) {
+                long started = System.nanoTime();
+                hits = index.search(query, null).size();
+                samples[round] = System.nanoTime() - started;
+            }
+            Arrays.sort(samples);
+            logger.info("Lookup '{}' over {} documents: {} hits, median {} ms", query, LARGE_ROSTER, hits,
+                    String.format("%.2f", samples[MEASURED_ROUNDS / 2] / 1_000_000.0));
+        }
+    }
+}
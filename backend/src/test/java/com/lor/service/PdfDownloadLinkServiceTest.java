@@ -0,0 +1,131 @@
+package com.lor.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * PdfDownloadLinkService with the byte cache mocked and a temporary upload directory
+ */
+class PdfDownloadLinkServiceTest {
+
+    private static final String JWT_SECRET = "test-jwt-secret-that-is-long-enough-for-hmac";
+    private static final String REFERENCE = "LOR000000000042";
+
+    @TempDir
+    Path tempDir;
+
+    private Path uploadDir;
+    private Path pdf;
+    private PdfByteCache pdfByteCache;
+    private final Resource loaded = new ByteArrayResource(new byte[] {'%', 'P', 'D', 'F'});
+
+    @BeforeEach
+    void setUp() throws Exception {
+        uploadDir = Files.createDirectory(tempDir.resolve("uploads"));
+        pdf = Files.write(uploadDir.resolve("letter_42.pdf"), new byte[] {'%', 'P', 'D', 'F'});
+        pdfByteCache = mock(PdfByteCache.class);
+        when(pdfByteCache.load(any(), any())).thenReturn(loaded);
+    }
+
+    @Test
+    void signedLinkResolvesToTheStoredFile() throws Exception {
+        PdfDownloadLinkService service = service(null, Duration.ofHours(1));
+        PdfDownloadLinkService.SignedLink link = service.sign(REFERENCE, pdf.toString());
+
+        Optional<Resource> resolved = service.resolve(link.referenceNumber(), link.fileName(), link.expires(),
+                link.signature());
+
+        assertEquals("letter_42.pdf", link.fileName());
+        assertSame(loaded, resolved.orElseThrow());
+        verify(pdfByteCache).load(REFERENCE, pdf.toAbsolutePath().normalize());
+    }
+
+    @Test
+    void expiredLinkIsRejected() throws Exception {
+        PdfDownloadLinkService service = service(null, Duration.ofSeconds(-1));
+        PdfDownloadLinkService.SignedLink link = service.sign(REFERENCE, pdf.toString());
+
+        assertTrue(service.resolve(link.referenceNumber(), link.fileName(), link.expires(), link.signature())
+                .isEmpty());
+        verify(pdfByteCache, never()).load(any(), any());
+    }
+
+    @Test
+    void tamperedLinkIsRejected() throws Exception {
+        PdfDownloadLinkService service = service(null, Duration.ofHours(1));
+        PdfDownloadLinkService.SignedLink link = service.sign(REFERENCE, pdf.toString());
+        String signature = link.signature();
+        String flipped = (signature.charAt(0) == 'A' ? "B" : "A") + signature.substring(1);
+
+        assertTrue(service.resolve(REFERENCE, link.fileName(), link.expires(), flipped).isEmpty());
+        assertTrue(service.resolve("LOR000000000043", link.fileName(), link.expires(), signature).isEmpty());
+        assertTrue(service.resolve(REFERENCE, "letter_43.pdf", link.expires(), signature).isEmpty());
+        assertTrue(service.resolve(REFERENCE, link.fileName(), link.expires() + 3600, signature).isEmpty());
+        verify(pdfByteCache, never()).load(any(), any());
+    }
+
+    @Test
+    void fileNameOutsideTheUploadDirectoryIsRejectedEvenWhenSigned() throws Exception {
+        Files.write(tempDir.resolve("outside.pdf"), new byte[] {'%', 'P', 'D', 'F'});
+        PdfDownloadLinkService service = service(null, Duration.ofHours(1));
+        long expires = service.sign(REFERENCE, pdf.toString()).expires();
+        String escaping = "../outside.pdf";
+        String signature = ReflectionTestUtils.invokeMethod(service, "signature", REFERENCE, escaping, expires);
+
+        assertTrue(service.resolve(REFERENCE, escaping, expires, signature).isEmpty());
+        verify(pdfByteCache, never()).load(any(), any());
+    }
+
+    @Test
+    void linksAreNotSignedWithTheJwtKey() throws Exception {
+        PdfDownloadLinkService derived = service(null, Duration.ofHours(1));
+        PdfDownloadLinkService.SignedLink link = derived.sign(REFERENCE, pdf.toString());
+        String withJwtKey = hmac(JWT_SECRET, REFERENCE + "\n" + link.fileName() + "\n" + link.expires());
+
+        assertNotEquals(withJwtKey, link.signature());
+
+        // A dedicated secret takes precedence over the derived key
+        PdfDownloadLinkService dedicated = service("dedicated-download-link-secret", Duration.ofHours(1));
+        assertTrue(dedicated.resolve(REFERENCE, link.fileName(), link.expires(), link.signature()).isEmpty());
+    }
+
+    private PdfDownloadLinkService service(String secret, Duration ttl) {
+        PdfDownloadLinkService service = new PdfDownloadLinkService();
+        ReflectionTestUtils.setField(service, "pdfByteCache", pdfByteCache);
+        ReflectionTestUtils.setField(service, "secret", secret);
+        ReflectionTestUtils.setField(service, "jwtSecret", JWT_SECRET);
+        ReflectionTestUtils.setField(service, "ttl", ttl);
+        ReflectionTestUtils.setField(service, "uploadDir", uploadDir.toString());
+        service.init();
+        return service;
+    }
+
+    private static String hmac(String secret, String data) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(mac.doFinal(data.getBytes(StandardCharsets.UTF_8)));
+    }
+}
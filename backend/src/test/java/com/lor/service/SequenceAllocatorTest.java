@@ -0,0 +1,94 @@
+package com.lor.service;
+
+import com.lor.config.HibernateCacheConfig;
+import com.lor.support.MySqlContainerTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Several allocators stand in for several application instances reserving
+ * blocks of the same counters at once
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(HibernateCacheConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SequenceAllocatorTest extends MySqlContainerTest {
+
+    private static final int INSTANCES = 4;
+    private static final int THREADS_PER_INSTANCE = 4;
+    private static final int VALUES_PER_THREAD = 50;
+
+    @Autowired
+    private AutowireCapableBeanFactory beanFactory;
+
+    @Test
+    void concurrentInstancesNeverHandOutAValueTwiceOnASeededCounter() throws Exception {
+        assertAllUnique(allocateConcurrently("pdf_reference"));
+    }
+
+    @Test
+    void concurrentInstancesNeverHandOutAValueTwiceOnANewCounter() throws Exception {
+        assertAllUnique(allocateConcurrently("sxc/2024-25/TEST" + System.nanoTime()));
+    }
+
+    private List<Long> allocateConcurrently(String sequence) throws Exception {
+        List<Callable<List<Long>>> tasks = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        for (int i = 0; i < INSTANCES; i++) {
+            SequenceAllocator instance = beanFactory.createBean(SequenceAllocator.class);
+            for (int j = 0; j < THREADS_PER_INSTANCE; j++) {
+                tasks.add(() -> {
+                    start.await();
+                    List<Long> values = new ArrayList<>();
+                    for (int k = 0; k < VALUES_PER_THREAD; k++) {
+                        // Block size 1 makes every value a reservation, maximising contention
+                        values.add(instance.next(sequence, 1));
+                    }
+                    return values;
+                });
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+        try {
+            List<Future<List<Long>>> futures = new ArrayList<>();
+            for (Callable<List<Long>> task : tasks) {
+                futures.add(executor.submit(task));
+            }
+            start.countDown();
+            List<Long> values = new ArrayList<>();
+            for (Future<List<Long>> future : futures) {
+                values.addAll(future.get());
+            }
+            return values;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void assertAllUnique(List<Long> values) {
+        assertEquals(INSTANCES * THREADS_PER_INSTANCE * VALUES_PER_THREAD, values.size());
+        Set<Long> unique = ConcurrentHashMap.newKeySet();
+        unique.addAll(values);
+        assertEquals(values.size(), unique.size(), "a value was handed out twice");
+    }
+}
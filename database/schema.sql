@@ -1,5 +1,10 @@
 -- LOR Management System Database Schema
 -- MySQL 8.0+
+--
+-- NOTE: The schema is now managed by Flyway migrations in
+-- backend/src/main/resources/db/migration and applied on backend startup.
+-- This file matches V1; databases created from it are baselined at V1
+-- and upgraded by the later migrations.
 
 CREATE DATABASE IF NOT EXISTS lor_management;
 USE lor_management;
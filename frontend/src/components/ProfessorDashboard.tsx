@@ -1,4 +1,4 @@
-import React, { useState, useEffect } from 'react';
+import React, { useState, useEffect, useMemo } from 'react';
 import {
   Container,
   Typography,
@@ -34,6 +34,7 @@ import {
 // import { useAuth } from '../contexts/AuthContext';
 import { apiService } from '../services/api';
 import { LorRequest } from '../types';
+import { applyRequestChanges, createRequestSync } from '../utils/requestSync';
 import PdfEditModal from './PdfEditModal';
 
 interface TabPanelProps {
@@ -61,7 +62,6 @@ const ProfessorDashboard: React.FC = () => {
   // const { user } = useAuth(); // Currently not used
   const [tabValue, setTabValue] = useState(0);
   const [allRequests, setAllRequests] = useState<LorRequest[]>([]);
-  const [pendingRequests, setPendingRequests] = useState<LorRequest[]>([]);
   const [selectedRequest, setSelectedRequest] = useState<LorRequest | null>(null);
   const [openDialog, setOpenDialog] = useState(false);
   const [actionType, setActionType] = useState<'approve' | 'reject'>('approve');
@@ -73,19 +73,38 @@ const ProfessorDashboard: React.FC = () => {
   const [pdfEditModalOpen, setPdfEditModalOpen] = useState(false);
   const [selectedRequestForPdf, setSelectedRequestForPdf] = useState<number | null>(null);
 
+  // Only the requests changed or deleted since the last sync are fetched after the first load
+  const [syncRequests] = useState(() =>
+    createRequestSync((changes) => setAllRequests((prev) => applyRequestChanges(prev, changes)))
+  );
+
+  // Oldest pending request first
+  const pendingRequests = useMemo(
+    () =>
+      allRequests
+        .filter((r) => r.status === 'PENDING')
+        .sort((a, b) => a.requestedAt.localeCompare(b.requestedAt)),
+    [allRequests]
+  );
+
   useEffect(() => {
     loadData();
   }, []);
 
+  // Pull the changes behind each pushed event, and catch up after a reconnect
+  useEffect(() => {
+    const sync = () => {
+      syncRequests().catch(() => {
+        // The next event or reconnect syncs again from the same watermark
+      });
+    };
+    return apiService.subscribeToRequestEvents(sync, sync);
+  }, [syncRequests]);
+
   const loadData = async () => {
     try {
       setLoading(true);
-      const [allData, pendingData] = await Promise.all([
-        apiService.getProfessorRequests(),
-        apiService.getPendingRequestsForProfessor(),
-      ]);
-      setAllRequests(allData.requests);
-      setPendingRequests(pendingData.requests);
+      await syncRequests();
     } catch (err: any) {
       setError('Failed to load data');
     } finally {
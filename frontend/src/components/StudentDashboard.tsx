@@ -35,12 +35,13 @@ import {
 } from '@mui/icons-material';
 // import { useAuth } from '../contexts/AuthContext';
 import { apiService } from '../services/api';
-import { LorRequest, CreateLorRequest, User } from '../types';
+import { LorRequest, CreateLorRequest, ProfessorSummary } from '../types';
+import { applyRequestChanges, createRequestSync } from '../utils/requestSync';
 
 const StudentDashboard: React.FC = () => {
   // const { user } = useAuth(); // Currently not used
   const [requests, setRequests] = useState<LorRequest[]>([]);
-  const [professors, setProfessors] = useState<User[]>([]);
+  const [professors, setProfessors] = useState<ProfessorSummary[]>([]);
   const [openDialog, setOpenDialog] = useState(false);
   const [loading, setLoading] = useState(true);
   const [submitting, setSubmitting] = useState(false);
@@ -55,23 +56,36 @@ const StudentDashboard: React.FC = () => {
     instituteCompany: '',
   });
 
+  // Only the requests changed or deleted since the last sync are fetched after the first load
+  const [syncRequests] = useState(() =>
+    createRequestSync((changes) => setRequests((prev) => applyRequestChanges(prev, changes)))
+  );
+
   useEffect(() => {
     loadData();
   }, []);
 
+  // Pull the status and PDF changes behind each pushed event, and catch up after a reconnect
+  useEffect(() => {
+    const sync = () => {
+      syncRequests().catch(() => {
+        // The next event or reconnect syncs again from the same watermark
+      });
+    };
+    return apiService.subscribeToRequestEvents(sync, sync);
+  }, [syncRequests]);
+
   const loadData = async () => {
     try {
       setLoading(true);
-      const [requestsData, professorsData] = await Promise.all([
-        apiService.getStudentRequests(),
+      const [, professorsData] = await Promise.all([
+        syncRequests(),
         apiService.getActiveProfessors(),
       ]);
-      setRequests(requestsData.requests || []);
       setProfessors(professorsData.professors || []);
     } catch (err: any) {
       setError('Failed to load data');
-      // Ensure arrays are set even on error
-      setRequests([]);
+      // Ensure the professor list is set even on error; requests keep their last sync
       setProfessors([]);
     } finally {
       setLoading(false);
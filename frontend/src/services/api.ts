@@ -1,20 +1,25 @@
-import axios, { AxiosInstance, AxiosResponse } from 'axios';
+import axios, { AxiosInstance, AxiosRequestConfig, AxiosResponse } from 'axios';
 import {
   LoginRequest,
   LoginResponse,
   RegisterStudentRequest,
   RegisterProfessorRequest,
   LorRequest,
+  LorRequestEvent,
+  LorRequestChanges,
   CreateLorRequest,
   User,
   DashboardStats,
   PdfDocument,
   AdminStudent,
-  AdminProfessor
+  AdminProfessor,
+  ProfessorSummary
 } from '../types';
 import { performLogout } from '../utils/logout';
 
 const API_BASE_URL = process.env.REACT_APP_API_BASE_URL || 'http://localhost:8080/api';
+const LAST_WRITE_HEADER = 'Last-Write-At';
+const LAST_WRITE_KEY = 'lastWriteAt';
 
 class ApiService {
   private api: AxiosInstance;
@@ -34,6 +39,11 @@ class ApiService {
         if (token) {
           config.headers.Authorization = `Bearer ${token}`;
         }
+        // Lets any server instance keep our reads on the primary database right after our own writes
+        const lastWrite = localStorage.getItem(LAST_WRITE_KEY);
+        if (lastWrite) {
+          config.headers[LAST_WRITE_HEADER] = lastWrite;
+        }
         return config;
       },
       (error) => {
@@ -43,7 +53,13 @@ class ApiService {
 
     // Add response interceptor for error handling
     this.api.interceptors.response.use(
-      (response) => response,
+      (response) => {
+        const lastWrite = response.headers[LAST_WRITE_HEADER.toLowerCase()];
+        if (lastWrite && Number(lastWrite) > Number(localStorage.getItem(LAST_WRITE_KEY) || 0)) {
+          localStorage.setItem(LAST_WRITE_KEY, lastWrite);
+        }
+        return response;
+      },
       (error) => {
         if (error.response?.status === 401) {
           // Use the utility function to ensure complete logout and redirect
@@ -54,6 +70,26 @@ class ApiService {
     );
   }
 
+  /**
+   * Send a non-repeatable request with an Idempotency-Key, retrying network failures
+   * with the same key so the server replays the first outcome instead of repeating it.
+   */
+  private async idempotent<T>(send: (config: AxiosRequestConfig) => Promise<AxiosResponse<T>>): Promise<AxiosResponse<T>> {
+    const key = typeof crypto !== 'undefined' && 'randomUUID' in crypto
+      ? crypto.randomUUID()
+      : `${Date.now()}-${Math.random().toString(36).slice(2)}`;
+    const config: AxiosRequestConfig = { headers: { 'Idempotency-Key': key } };
+    for (let attempt = 1; ; attempt++) {
+      try {
+        return await send(config);
+      } catch (error: any) {
+        // Only retry when no response arrived; server answers are final
+        if (error.response || attempt >= 3) throw error;
+        await new Promise((resolve) => setTimeout(resolve, attempt * 1000));
+      }
+    }
+  }
+
   // Authentication APIs
   async login(credentials: LoginRequest): Promise<LoginResponse> {
     const response: AxiosResponse<LoginResponse> = await this.api.post('/auth/login', credentials);
@@ -72,12 +108,12 @@ class ApiService {
 
   // LOR Request APIs
   async createLorRequest(data: CreateLorRequest): Promise<LorRequest> {
-    const response: AxiosResponse<LorRequest> = await this.api.post('/lor-requests', data);
+    const response: AxiosResponse<LorRequest> = await this.idempotent((config) => this.api.post('/lor-requests', data, config));
     return response.data;
   }
 
-  async getStudentRequests(): Promise<{ requests: LorRequest[]; count: number }> {
-    const response = await this.api.get('/lor-requests/student');
+  async getStudentRequests(includeArchived = false): Promise<{ requests: LorRequest[]; count: number }> {
+    const response = await this.api.get('/lor-requests/student', { params: includeArchived ? { includeArchived } : undefined });
     return response.data;
   }
 
@@ -86,8 +122,8 @@ class ApiService {
     return response.data;
   }
 
-  async getProfessorRequests(): Promise<{ requests: LorRequest[]; count: number }> {
-    const response = await this.api.get('/lor-requests/professor');
+  async getProfessorRequests(includeArchived = false): Promise<{ requests: LorRequest[]; count: number }> {
+    const response = await this.api.get('/lor-requests/professor', { params: includeArchived ? { includeArchived } : undefined });
     return response.data;
   }
 
@@ -97,12 +133,14 @@ class ApiService {
   }
 
   async approveLorRequest(requestId: number, comments: string): Promise<LorRequest> {
-    const response: AxiosResponse<LorRequest> = await this.api.put(`/lor-requests/${requestId}/approve`, { comments });
+    const response: AxiosResponse<LorRequest> = await this.idempotent((config) =>
+      this.api.put(`/lor-requests/${requestId}/approve`, { comments }, config));
     return response.data;
   }
 
   async rejectLorRequest(requestId: number, comments: string): Promise<LorRequest> {
-    const response: AxiosResponse<LorRequest> = await this.api.put(`/lor-requests/${requestId}/reject`, { comments });
+    const response: AxiosResponse<LorRequest> = await this.idempotent((config) =>
+      this.api.put(`/lor-requests/${requestId}/reject`, { comments }, config));
     return response.data;
   }
 
@@ -111,14 +149,88 @@ class ApiService {
     return response.data;
   }
 
-  async getActiveProfessors(): Promise<{ professors: User[]; count: number }> {
+  async getLorRequest(requestId: number): Promise<LorRequest> {
+    const response: AxiosResponse<LorRequest> = await this.api.get(`/lor-requests/${requestId}`);
+    return response.data;
+  }
+
+  async getRequestChanges(since?: string): Promise<LorRequestChanges> {
+    const response: AxiosResponse<LorRequestChanges> = await this.api.get('/lor-requests/changes', {
+      params: since ? { since } : {},
+    });
+    return response.data;
+  }
+
+  /**
+   * Subscribe to changes of the current user's requests over Server-Sent Events.
+   * Uses fetch rather than EventSource so the JWT can go in the Authorization header,
+   * and reconnects with the last seen event id. Returns a function that closes the stream.
+   */
+  subscribeToRequestEvents(onEvent: (event: LorRequestEvent) => void, onReset: () => void): () => void {
+    const controller = new AbortController();
+    let lastEventId: string | null = null;
+    let retryMs = 5000;
+
+    const dispatch = (block: string) => {
+      let name = 'message';
+      let data = '';
+      for (const line of block.split('\n')) {
+        if (line.startsWith('id:')) lastEventId = line.slice(3).trim();
+        else if (line.startsWith('event:')) name = line.slice(6).trim();
+        else if (line.startsWith('data:')) data += line.slice(5).trim();
+        else if (line.startsWith('retry:')) retryMs = parseInt(line.slice(6).trim(), 10) || retryMs;
+      }
+      if (name === 'reset') onReset();
+      else if (name === 'lor-request' && data) onEvent(JSON.parse(data));
+    };
+
+    const connect = async () => {
+      while (!controller.signal.aborted) {
+        try {
+          const headers: Record<string, string> = { Accept: 'text/event-stream' };
+          const token = localStorage.getItem('token');
+          if (token) headers.Authorization = `Bearer ${token}`;
+          if (lastEventId) headers['Last-Event-ID'] = lastEventId;
+
+          const response = await fetch(`${API_BASE_URL}/lor-requests/events`, { headers, signal: controller.signal });
+          if (response.status === 401) {
+            performLogout();
+            return;
+          }
+          if (!response.ok || !response.body) throw new Error(`Event stream failed: ${response.status}`);
+
+          const reader = response.body.getReader();
+          const decoder = new TextDecoder();
+          let buffer = '';
+          for (;;) {
+            const { done, value } = await reader.read();
+            if (done) break;
+            buffer += decoder.decode(value, { stream: true }).replace(/\r\n?/g, '\n');
+            let boundary;
+            while ((boundary = buffer.indexOf('\n\n')) >= 0) {
+              dispatch(buffer.slice(0, boundary));
+              buffer = buffer.slice(boundary + 2);
+            }
+          }
+        } catch (error) {
+          if (controller.signal.aborted) return;
+        }
+        await new Promise((resolve) => setTimeout(resolve, retryMs));
+      }
+    };
+
+    connect();
+    return () => controller.abort();
+  }
+
+  async getActiveProfessors(): Promise<{ professors: ProfessorSummary[]; count: number }> {
     const response = await this.api.get('/lor-requests/professors');
     return response.data;
   }
 
   // PDF APIs
   async generatePdf(requestId: number): Promise<{ fileName: string; referenceNumber: string; fileSize: number }> {
-    const response = await this.api.post(`/pdf/generate/${requestId}`);
+    const response = await this.idempotent((config) => this.api.post(`/pdf/generate/${requestId}`, undefined, config));
     return response.data;
   }
 
@@ -129,6 +241,42 @@ class ApiService {
     return response.data;
   }
 
+  // Signed link that downloads the PDF without logging in, e.g. to share with a placement cell
+  async createPdfDownloadLink(referenceNumber: string): Promise<{ referenceNumber: string; url: string; expiresAt: string }> {
+    const response = await this.api.post(`/pdf/download-link/${referenceNumber}`);
+    return response.data;
+  }
+
+  // ZIP of all PDFs matching the filter; professors only get the PDFs they generated
+  async downloadPdfArchive(filter: {
+    professorId?: number;
+    course?: string;
+    academicYear?: string;
+    from?: string;
+    to?: string;
+  }): Promise<Blob> {
+    const response = await this.api.get('/pdf/archive', {
+      params: filter,
+      responseType: 'blob',
+    });
+    return response.data;
+  }
+
+  // All matching letters in one PDF for batch printing; same filter as the archive
+  async downloadMergedPdf(filter: {
+    professorId?: number;
+    course?: string;
+    academicYear?: string;
+    from?: string;
+    to?: string;
+  }): Promise<Blob> {
+    const response = await this.api.get('/pdf/merged', {
+      params: filter,
+      responseType: 'blob',
+    });
+    return response.data;
+  }
+
   async getPdfInfo(referenceNumber: string): Promise<PdfDocument> {
     const response: AxiosResponse<PdfDocument> = await this.api.get(`/pdf/info/${referenceNumber}`);
     return response.data;
@@ -12,6 +12,14 @@ export interface User {
   department?: string;
 }
 
+// Slim professor entry for the LOR request dropdown
+export interface ProfessorSummary {
+  id: number;
+  name: string;
+  userId: string;
+  department: string;
+}
+
 // Authentication types
 export interface LoginRequest {
   username: string;
@@ -61,6 +69,22 @@ export interface LorRequest {
   pdfReferenceNumber?: string;
   pdfFileName?: string;
   hasPdf: boolean;
+  archived?: boolean;
+}
+
+export interface LorRequestEvent {
+  eventId: number;
+  type: 'CREATED' | 'APPROVED' | 'REJECTED' | 'DELETED' | 'PDF_GENERATED' | 'PDF_DELETED';
+  lorRequestId: number;
+  status: 'PENDING' | 'APPROVED' | 'REJECTED';
+  occurredAt: string;
+}
+
+export interface LorRequestChanges {
+  changed: LorRequest[];
+  deleted: number[];
+  watermark: string;
+  reset: boolean;
 }
 
 export interface CreateLorRequest {
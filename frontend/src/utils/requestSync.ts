@@ -0,0 +1,48 @@
+import { apiService } from '../services/api';
+import { LorRequest, LorRequestChanges } from '../types';
+
+/**
+ * Apply a delta-sync response to a loaded request list: a reset replaces the list,
+ * otherwise changed requests are upserted and deleted ones removed, newest first
+ */
+export const applyRequestChanges = (prev: LorRequest[], changes: LorRequestChanges): LorRequest[] => {
+  if (changes.reset) {
+    return changes.changed;
+  }
+  const replaced = new Set(changes.changed.map((r) => r.id));
+  const deleted = new Set(changes.deleted);
+  return [...changes.changed, ...prev.filter((r) => !replaced.has(r.id))]
+    .filter((r) => !deleted.has(r.id))
+    .sort((a, b) => b.requestedAt.localeCompare(a.requestedAt));
+};
+
+/**
+ * Keeps the delta-sync watermark of one list and runs one sync at a time.
+ * The first sync loads the full list; a sync asked for while one is running
+ * runs once more after it, so no change is missed.
+ */
+export const createRequestSync = (onChanges: (changes: LorRequestChanges) => void) => {
+  let watermark: string | undefined;
+  let running: Promise<void> | null = null;
+  let again = false;
+
+  const run = async () => {
+    do {
+      again = false;
+      const changes = await apiService.getRequestChanges(watermark);
+      watermark = changes.watermark;
+      onChanges(changes);
+    } while (again);
+  };
+
+  return (): Promise<void> => {
+    if (running) {
+      again = true;
+      return running;
+    }
+    running = run().finally(() => {
+      running = null;
+    });
+    return running;
+  };
+};